@@ -2,21 +2,36 @@ package Database;
 
 import Entity.Application;
 import Entity.Project;
+import Entity.TrackedEntity;
 import Entity.User;
+import util.ChunkedList;
+import util.VersionChain;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Singleton class that manages the storage and retrieval of Application objects.
- * Applications are stored in memory and persisted to a CSV file.
+ * Applications are stored in memory and persisted to a CSV file, and indexed by applicant,
+ * project, status, withdrawal flag and managing manager.
+ *
+ * <p>The application list is guarded by a read/write lock. Changes to an application are
+ * guarded by the stripe lock of its project, see {@link ProjectDatabase#lockFor(Project)}.</p>
  */
 public class ApplicationDatabase {
     private static final ApplicationDatabase instance = new ApplicationDatabase();
-    private List<Application> applications = new ArrayList<>();
-    private static final String FILE_PATH = "data/ApplicationList.csv";
+    private final List<Application> applications = new ArrayList<>();
+    private final VersionChain<ChunkedList<Application>> publishedApplications = VersionChain.always(ChunkedList.of());
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    static final String FILE_PATH = "data/ApplicationList.csv";
+    static final String LOG_TABLE = "APPLICATION";
+    private final ApplicationIndex index = new ApplicationIndex();
+    private final DirtyTracker tracker = new DirtyTracker(index);
 
     private ApplicationDatabase() {}
 
@@ -36,53 +51,158 @@ public class ApplicationDatabase {
      * @throws IOException if there is an issue reading the file
      */
     public void loadData() throws IOException {
-        applications.clear();
-        File file = new File(FILE_PATH);
+        resolve(readRecords());
+    }
+
+    /**
+     * Parses the application CSV file into raw records without resolving users or projects.
+     * Rows with an invalid status or flat type are skipped.
+     *
+     * @return list of raw application records, empty if the file does not exist
+     * @throws IOException if there is an issue reading the file
+     */
+    List<ApplicationRecord> readRecords() throws IOException {
+        return readRecords(Manifest.pathOf(FILE_PATH));
+    }
+
+    /**
+     * Parses an application CSV file at the given path into raw records.
+     *
+     * @param filePath the path to the CSV file
+     * @return list of raw application records, empty if the file does not exist
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    static List<ApplicationRecord> readRecords(String filePath) throws IOException {
+        List<ApplicationRecord> records = new ArrayList<>();
+        File file = new File(filePath);
         if (!file.exists()) {
-            return;
+            return records;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean isHeader = true;
-            while ((line = reader.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
-                String[] parts = line.split(",", -1); // keep empty fields
-                if (parts.length >= 5) {
-                    String userNric = parts[0];
-                    String projectName = parts[1];
-                    String statusStr = parts[2];
-                    String flatTypeStr = parts[3];
-                    boolean withdrawal = Boolean.parseBoolean(parts[4]);
-
-                    User user = UserDatabase.getInstance().findByNric(userNric);
-                    Project project = ProjectDatabase.getInstance().findProjectByName(projectName);
-
-                    Application.ApplicationStatus status;
-                    try {
-                        status = Application.ApplicationStatus.valueOf(statusStr);
-                    } catch (IllegalArgumentException e) {
-                        continue; // skip invalid status
-                    }
-
-                    Application.FlatType flatType;
-                    try {
-                        flatType = Application.FlatType.valueOf(flatTypeStr);
-                    } catch (IllegalArgumentException e) {
-                        continue; // skip invalid flat type
-                    }
-
-                    if (user != null && project != null) {
-                        Application application = new Application(user, project, status, flatType);
-                        application.setWithdrawal(withdrawal);
-                        applications.add(application);
-                    }
+        try (CsvReader in = CsvReader.open(file.getPath())) {
+            in.next(); // skip header
+            while (in.next()) {
+                ApplicationRecord record = readRow(in, 0);
+                if (record != null) {
+                    records.add(record);
                 }
             }
         }
+        return records;
+    }
+
+    /**
+     * Parses the application columns of the current CSV record.
+     *
+     * @param in    the reader positioned on the record
+     * @param first the index of the applicant NRIC column
+     * @return the parsed record, or null if columns are missing or the status or flat type is invalid
+     */
+    static ApplicationRecord readRow(CsvReader in, int first) {
+        if (in.size() < first + 5) {
+            return null;
+        }
+        ApplicationRecord record = new ApplicationRecord();
+        record.status = in.getEnum(first + 2, Application.ApplicationStatus.values());
+        if (record.status == null) {
+            return null; // skip invalid status
+        }
+        record.flatType = in.getEnum(first + 3, Application.FlatType.values());
+        if (record.flatType == null) {
+            return null; // skip invalid flat type
+        }
+        record.userNric = in.getString(first);
+        record.projectName = in.getString(first + 1);
+        record.withdrawal = in.getBoolean(first + 4);
+        return record;
+    }
+
+    /**
+     * Writes the columns of an application record, without ending the CSV record.
+     *
+     * @param out    the writer to append to
+     * @param record the record to write
+     * @throws IOException if there is an issue writing
+     */
+    static void writeRow(CsvWriter out, ApplicationRecord record) throws IOException {
+        out.field(record.userNric)
+                .field(record.projectName)
+                .field(record.status)
+                .field(record.flatType)
+                .field(record.withdrawal);
+    }
+
+    /**
+     * Resolves raw application records against the user and project indexes and
+     * replaces the in-memory application list. Records whose user or project cannot be found are skipped.
+     *
+     * @param records the raw records produced by {@link #readRecords()}
+     */
+    void resolve(List<ApplicationRecord> records) {
+        UserDatabase userDatabase = UserDatabase.getInstance();
+        ProjectDatabase projectDatabase = ProjectDatabase.getInstance();
+
+        List<Application> resolved = new ArrayList<>(records.size());
+        for (ApplicationRecord record : records) {
+            User user = userDatabase.findByNric(record.userNric);
+            Project project = projectDatabase.findProjectByName(record.projectName);
+            if (user != null && project != null) {
+                Application application = new Application(user, project, record.status, record.flatType);
+                application.setWithdrawal(record.withdrawal);
+                resolved.add(tracker.track(application));
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            applications.clear();
+            applications.addAll(resolved);
+            index.rebuild(applications);
+            publishedApplications.set(ChunkedList.copyOf(applications));
+            tracker.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Converts an application into a raw record holding its newest values, whatever snapshot
+     * the calling thread has open.
+     */
+    private static ApplicationRecord toRecord(Application application) {
+        ApplicationRecord record = new ApplicationRecord();
+        record.userNric = application.getUser().getNric();
+        record.projectName = application.getProject().getName();
+        record.status = application.getLatestStatus();
+        record.flatType = application.getFlatType();
+        record.withdrawal = application.isLatestWithdrawal();
+        return record;
+    }
+
+    /**
+     * Returns the read lock of the table, so that all tables can be copied as of one moment.
+     *
+     * @return the table's read lock
+     */
+    Lock tableReadLock() {
+        return lock.readLock();
+    }
+
+    /**
+     * Copies every application into a raw record, e.g. so that a snapshot can be written on another thread.
+     *
+     * @return one record per application in list order
+     */
+    List<ApplicationRecord> snapshotRecords() {
+        lock.readLock().lock();
+        try {
+            List<ApplicationRecord> records = new ArrayList<>(applications.size());
+            for (Application application : applications) {
+                records.add(toRecord(application));
+            }
+            return records;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -91,39 +211,153 @@ public class ApplicationDatabase {
      * @throws IOException if there is an issue writing the file
      */
     public void saveData() throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH))) {
-            writer.write("Applicant NRIC,Project Name,Status,Flat Type,Withdrawal");
-            writer.newLine();
+        // Drain before copying the rows, so a change made meanwhile stays pending for the next save
+        DirtyTracker.Changes changes = tracker.drain();
+        List<ApplicationRecord> records = snapshotRecords();
+        try {
+            Manifest.writeTables(Map.of(FILE_PATH, out -> writeRecords(out, records)));
+        } catch (IOException e) {
+            tracker.restore(changes);
+            throw e;
+        }
+    }
 
-            for (Application application : applications) {
-                String line = String.format("%s,%s,%s,%s,%b",
-                        application.getUser().getNric(),
-                        application.getProject().getName(),
-                        application.getStatus().name(),
-                        application.getFlatType().name(),
-                        application.isWithdrawal());
-                writer.write(line);
-                writer.newLine();
-            }
+    /**
+     * Writes the header and the given application records as the content of the CSV file.
+     *
+     * @param out     the writer of the new file
+     * @param records the records to write
+     * @throws IOException if there is an issue writing the file
+     */
+    static void writeRecords(CsvWriter out, List<ApplicationRecord> records) throws IOException {
+        out.header("Applicant NRIC", "Project Name", "Status", "Flat Type", "Withdrawal");
+
+        for (ApplicationRecord record : records) {
+            writeRow(out, record);
+            out.endRecord();
         }
     }
 
+    /**
+     * Checks whether any application has been added, removed or modified since the data was last loaded or saved.
+     *
+     * @return true if there are unsaved changes
+     */
+    public boolean hasChanges() {
+        return tracker.isDirty();
+    }
+
+    /**
+     * Saves the applications to the CSV file only if they have changed since they were last loaded or saved.
+     *
+     * @return true if the file was written, false if there was nothing to save
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    public boolean saveChanges() throws IOException {
+        if (!tracker.isDirty()) {
+            return false;
+        }
+        saveData();
+        return true;
+    }
+
+    /**
+     * Marks the applications as changed if any of them refers to a project that was renamed,
+     * since the project name is what the CSV file stores.
+     *
+     * @param project the renamed project
+     */
+    void projectRenamed(Project project) {
+        if (!index.findByProject(project).isEmpty()) {
+            tracker.markDirty();
+        }
+    }
+
+    /**
+     * Appends the full rows of applications added or modified since the last commit to the write-ahead log.
+     *
+     * @param out the log writer
+     * @return the number of log records written
+     * @throws IOException if there is an issue writing
+     */
+    int logChanges(CsvWriter out) throws IOException {
+        int count = 0;
+        DirtyTracker.Changes changes = tracker.drain();
+        for (TrackedEntity entity : changes.changed) {
+            out.field(LOG_TABLE).field(WriteAheadLog.UPSERT);
+            writeRow(out, toRecord((Application) entity));
+            out.endRecord();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Parses an application entry of the write-ahead log into an action that replays it.
+     * An application is identified by its applicant and project; an upsert updates the matching
+     * application or adds it if there is none, so replaying is idempotent.
+     *
+     * @param operation the log operation
+     * @param in        the reader positioned on the log record, whose columns start at index 2
+     * @return the replay action, or null if the record is malformed
+     */
+    Runnable readLogEntry(String operation, CsvReader in) {
+        if (!operation.equals(WriteAheadLog.UPSERT)) {
+            return null;
+        }
+        ApplicationRecord record = readRow(in, 2);
+        if (record == null) {
+            return null;
+        }
+        return () -> {
+            User user = UserDatabase.getInstance().findByNric(record.userNric);
+            Project project = ProjectDatabase.getInstance().findProjectByName(record.projectName);
+            if (user == null || project == null) {
+                return;
+            }
+            Application application = index.findByProject(project).stream()
+                    .filter(a -> a.getUser() == user)
+                    .findFirst().orElse(null);
+            if (application == null) {
+                application = new Application(user, project, record.status, record.flatType);
+                addApplication(application);
+            }
+            application.setStatus(record.status);
+            application.setWithdrawal(record.withdrawal);
+        };
+    }
+
+    /**
+     * Forgets all pending changes, e.g. after they were replayed from the write-ahead log.
+     */
+    void markClean() {
+        tracker.clear();
+    }
+
     /**
      * Adds a new application to the list.
      *
      * @param application the application to add
      */
     public void addApplication(Application application) {
-        applications.add(application);
+        lock.writeLock().lock();
+        try {
+            applications.add(tracker.added(application));
+            index.add(application);
+            publishedApplications.set(publishedApplications.latest().plus(application));
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Returns all applications.
+     * Returns all applications, as the immutable version published by the last addition, or
+     * the version of the current thread's {@link util.Snapshot} if one is open.
      *
-     * @return list of all applications
+     * @return immutable list of all applications; applications are added through this database
      */
     public List<Application> findApplications() {
-        return applications;
+        return publishedApplications.get();
     }
 
     /**
@@ -133,9 +367,7 @@ public class ApplicationDatabase {
      * @return list of applications for the given project
      */
     public List<Application> findByProject(Project project) {
-        return applications.stream()
-                .filter(a -> a.getProject().equals(project))
-                .collect(Collectors.toList());
+        return index.findByProject(project);
     }
 
     /**
@@ -145,9 +377,7 @@ public class ApplicationDatabase {
      * @return the application or null if not found
      */
     public Application findByApplicantNric(String nric) {
-        return applications.stream()
-                .filter(a -> a.getUser().getNric().equals(nric))
-                .findFirst().orElse(null);
+        return index.findByNric(nric);
     }
 
     /**
@@ -157,9 +387,39 @@ public class ApplicationDatabase {
      * @return list of applications matching the withdrawal status
      */
     public List<Application> findByWithdrawal(boolean withdrawal) {
-        return applications.stream()
-                .filter(a -> a.isWithdrawal() == withdrawal)
-                .collect(Collectors.toList());
+        return index.findByWithdrawal(withdrawal);
+    }
+
+    /**
+     * Finds applications by status.
+     *
+     * @param status the application status
+     * @return list of applications with that status
+     */
+    public List<Application> findByStatus(Application.ApplicationStatus status) {
+        return index.findByStatus(status);
+    }
+
+    /**
+     * Finds the applications for the projects managed by a specific manager.
+     *
+     * @param managerName the name of the manager
+     * @return list of applications for the manager's projects
+     */
+    public List<Application> findByManager(String managerName) {
+        return index.findByManager(managerName);
+    }
+
+    /**
+     * Finds the applications with a given status for the projects managed by a specific manager,
+     * e.g. the pending applications waiting for the manager's approval.
+     *
+     * @param managerName the name of the manager
+     * @param status      the application status
+     * @return list of matching applications
+     */
+    public List<Application> findByManager(String managerName, Application.ApplicationStatus status) {
+        return index.findByManager(managerName, status);
     }
 
     /**
@@ -176,4 +436,15 @@ public class ApplicationDatabase {
                 .collect(Collectors.toList());
     }
     */
+
+    /**
+     * An application row as read from the CSV file, with the user and project still referenced by key.
+     */
+    static class ApplicationRecord {
+        String userNric;
+        String projectName;
+        Application.ApplicationStatus status;
+        Application.FlatType flatType;
+        boolean withdrawal;
+    }
 }
@@ -0,0 +1,208 @@
+package Database;
+
+import Entity.Application;
+import Entity.ChangeListener;
+import Entity.Project;
+import Entity.TrackedEntity;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Indexes over the applications of {@link ApplicationDatabase}, so that lookups by applicant,
+ * project, status, withdrawal flag or managing manager do not scan every application.
+ *
+ * <p>Each application gets a position, which is its place in the application list; applications
+ * are never removed, so positions stay valid. The NRIC index maps each applicant to their first
+ * application. Every other index is a multimap from a key to the sorted set of positions with
+ * that key, so a lookup returns its applications in list order in time proportional to the
+ * number of matches. The project and manager of an application never change; its status and
+ * withdrawal flag are re-indexed through the table's {@link DirtyTracker}.</p>
+ */
+final class ApplicationIndex implements ChangeListener {
+
+    /**
+     * The indexed values of one application that can change, kept so that an update can remove
+     * the old entries.
+     */
+    private static final class Keys {
+        final int position;
+        Application.ApplicationStatus status;
+        boolean withdrawal;
+
+        Keys(int position) {
+            this.position = position;
+        }
+    }
+
+    private final List<Application> applications = new ArrayList<>();
+    private final Map<Application, Keys> keys = new IdentityHashMap<>();
+    private final Map<String, Application> byNric = new HashMap<>();
+    private final Map<Project, TreeSet<Integer>> byProject = new IdentityHashMap<>();
+    private final Map<String, TreeSet<Integer>> byManager = new HashMap<>();
+    private final Map<String, Map<Application.ApplicationStatus, TreeSet<Integer>>> byManagerStatus = new HashMap<>();
+    private final Map<Application.ApplicationStatus, TreeSet<Integer>> byStatus = new EnumMap<>(Application.ApplicationStatus.class);
+    private final TreeSet<Integer> withdrawn = new TreeSet<>();
+    private final TreeSet<Integer> notWithdrawn = new TreeSet<>();
+
+    /**
+     * Replaces the content of the index with the given applications.
+     *
+     * @param list the applications in list order
+     */
+    synchronized void rebuild(List<Application> list) {
+        applications.clear();
+        keys.clear();
+        byNric.clear();
+        byProject.clear();
+        byManager.clear();
+        byManagerStatus.clear();
+        byStatus.clear();
+        withdrawn.clear();
+        notWithdrawn.clear();
+        for (Application application : list) {
+            add(application);
+        }
+    }
+
+    /**
+     * Indexes an application added to the end of the application list.
+     *
+     * @param application the added application
+     */
+    synchronized void add(Application application) {
+        if (keys.containsKey(application)) {
+            return;
+        }
+        int position = applications.size();
+        applications.add(application);
+        Keys entry = new Keys(position);
+        keys.put(application, entry);
+
+        byNric.putIfAbsent(application.getUser().getNric(), application);
+        byProject.computeIfAbsent(application.getProject(), k -> new TreeSet<>()).add(position);
+        String manager = managerOf(application);
+        if (manager != null) {
+            byManager.computeIfAbsent(manager, k -> new TreeSet<>()).add(position);
+        }
+        index(application, entry);
+    }
+
+    @Override
+    public synchronized void changed(TrackedEntity entity) {
+        Keys entry = keys.get(entity);
+        if (entry != null) {
+            Application application = (Application) entity;
+            unindex(application, entry);
+            index(application, entry);
+        }
+    }
+
+    /**
+     * Returns the first application of an applicant.
+     *
+     * @param nric the NRIC of the applicant
+     * @return the application, or null if the applicant has none
+     */
+    synchronized Application findByNric(String nric) {
+        return byNric.get(nric);
+    }
+
+    /**
+     * Returns the applications for a project.
+     *
+     * @param project the project
+     * @return the applications in list order
+     */
+    synchronized List<Application> findByProject(Project project) {
+        return applicationsAt(byProject.get(project));
+    }
+
+    /**
+     * Returns the applications with a status.
+     *
+     * @param status the status
+     * @return the applications in list order
+     */
+    synchronized List<Application> findByStatus(Application.ApplicationStatus status) {
+        return applicationsAt(byStatus.get(status));
+    }
+
+    /**
+     * Returns the applications with or without a withdrawal request.
+     *
+     * @param withdrawal the withdrawal flag
+     * @return the applications in list order
+     */
+    synchronized List<Application> findByWithdrawal(boolean withdrawal) {
+        return applicationsAt(withdrawal ? withdrawn : notWithdrawn);
+    }
+
+    /**
+     * Returns the applications for the projects of a manager.
+     *
+     * @param managerName the name of the manager
+     * @return the applications in list order
+     */
+    synchronized List<Application> findByManager(String managerName) {
+        return applicationsAt(byManager.get(managerName));
+    }
+
+    /**
+     * Returns the applications with a status for the projects of a manager.
+     *
+     * @param managerName the name of the manager
+     * @param status      the status
+     * @return the applications in list order
+     */
+    synchronized List<Application> findByManager(String managerName, Application.ApplicationStatus status) {
+        Map<Application.ApplicationStatus, TreeSet<Integer>> statuses = byManagerStatus.get(managerName);
+        return applicationsAt(statuses == null ? null : statuses.get(status));
+    }
+
+    private List<Application> applicationsAt(TreeSet<Integer> positions) {
+        List<Application> result = new ArrayList<>(positions == null ? 0 : positions.size());
+        if (positions != null) {
+            for (int position : positions) {
+                result.add(applications.get(position));
+            }
+        }
+        return result;
+    }
+
+    private void index(Application application, Keys entry) {
+        // Keyed on the newest state: the writer may still have a snapshot of an older one open
+        entry.status = application.getLatestStatus();
+        entry.withdrawal = application.isLatestWithdrawal();
+        (entry.withdrawal ? withdrawn : notWithdrawn).add(entry.position);
+        if (entry.status != null) {
+            byStatus.computeIfAbsent(entry.status, k -> new TreeSet<>()).add(entry.position);
+            String manager = managerOf(application);
+            if (manager != null) {
+                byManagerStatus.computeIfAbsent(manager, k -> new EnumMap<>(Application.ApplicationStatus.class))
+                        .computeIfAbsent(entry.status, k -> new TreeSet<>()).add(entry.position);
+            }
+        }
+    }
+
+    private void unindex(Application application, Keys entry) {
+        (entry.withdrawal ? withdrawn : notWithdrawn).remove(entry.position);
+        if (entry.status != null) {
+            byStatus.get(entry.status).remove(entry.position);
+            String manager = managerOf(application);
+            if (manager != null) {
+                byManagerStatus.get(manager).get(entry.status).remove(entry.position);
+            }
+        }
+    }
+
+    private static String managerOf(Application application) {
+        Project project = application.getProject();
+        return project.getManager() == null ? null : project.getManager().getName();
+    }
+}
@@ -0,0 +1,528 @@
+package Database;
+
+import Entity.Application;
+import Entity.FlatType;
+import Entity.Registration;
+import Entity.User;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Reads and writes all tables as one compact binary file, which loads much faster than the CSV files.
+ *
+ * <p>The file starts with the magic bytes {@code BTOS} and a format version, followed by the
+ * applicant, officer, manager, project, registration, application and enquiry tables, each as a
+ * row count and its rows. Counts, lengths and keys are unsigned varints, other ints are zigzag
+ * varints, dates are epoch days, and strings are UTF-8 prefixed with their length plus one
+ * (zero means null). Rows refer to users and projects by surrogate key, their position in the
+ * file plus one, instead of repeating names and NRICs; a reference that matches no row is written
+ * as key zero followed by the original text, so nothing is lost. The whole file is read with one
+ * mapping and decoded straight into the same raw records the CSV parsers produce.</p>
+ *
+ * <p>The snapshot is optional and only used when the application runs with
+ * {@code -Dbto.snapshot=binary}. It is written alongside the CSV files by log compaction, in the
+ * same {@link Manifest} generation, and dropped from the manifest whenever a table is saved
+ * without it. The CSV files remain the import and export format; see {@link SnapshotConverter}.</p>
+ */
+final class BinarySnapshot {
+    static final String FILE_PATH = "data/snapshot.bin";
+    private static final String PROPERTY = "bto.snapshot";
+    private static final byte[] MAGIC = {'B', 'T', 'O', 'S'};
+    private static final int VERSION = 1;
+
+    private BinarySnapshot() {}
+
+    /**
+     * Checks whether the binary snapshot is enabled for this run.
+     *
+     * @return true if the {@code bto.snapshot} system property is {@code binary}
+     */
+    static boolean isEnabled() {
+        return "binary".equalsIgnoreCase(System.getProperty(PROPERTY));
+    }
+
+    /**
+     * The raw records of every table.
+     */
+    static class Tables {
+        List<UserDatabase.UserRecord> applicants = new ArrayList<>();
+        List<UserDatabase.UserRecord> officers = new ArrayList<>();
+        List<UserDatabase.UserRecord> managers = new ArrayList<>();
+        List<ProjectDatabase.ProjectRecord> projects = new ArrayList<>();
+        List<RegistrationDatabase.RegistrationRecord> registrations = new ArrayList<>();
+        List<ApplicationDatabase.ApplicationRecord> applications = new ArrayList<>();
+        List<EnquiryDatabase.EnquiryRecord> enquiries = new ArrayList<>();
+
+        /**
+         * Copies the current content of every database, e.g. so that it can be written on another thread.
+         * Every table's read lock is held for the whole copy, so no row is added to or removed from
+         * any table while it is taken. A field changed meanwhile under an entity lock is still
+         * pending in its table's tracker and is logged by the next commit, which replays on top.
+         *
+         * @return the copied tables
+         */
+        static Tables capture() {
+            UserDatabase userDatabase = UserDatabase.getInstance();
+            // Taken in the order the tables are logged, which is also the order nested lookups take them
+            List<Lock> locks = List.of(userDatabase.tableReadLock(),
+                    ProjectDatabase.getInstance().tableReadLock(),
+                    RegistrationDatabase.getInstance().tableReadLock(),
+                    ApplicationDatabase.getInstance().tableReadLock(),
+                    EnquiryDatabase.getInstance().tableReadLock());
+            locks.forEach(Lock::lock);
+            try {
+                Tables tables = new Tables();
+                tables.applicants = userDatabase.snapshotRecords(User.UserRole.APPLICANT);
+                tables.officers = userDatabase.snapshotRecords(User.UserRole.OFFICER);
+                tables.managers = userDatabase.snapshotRecords(User.UserRole.MANAGER);
+                tables.projects = ProjectDatabase.getInstance().snapshotRecords();
+                tables.registrations = RegistrationDatabase.getInstance().snapshotRecords();
+                tables.applications = ApplicationDatabase.getInstance().snapshotRecords();
+                tables.enquiries = EnquiryDatabase.getInstance().snapshotRecords();
+                return tables;
+            } finally {
+                locks.forEach(Lock::unlock);
+            }
+        }
+
+        /**
+         * Parses the CSV files of every table from a directory.
+         *
+         * @param directory the directory holding the CSV files under their usual names
+         * @return the parsed tables
+         * @throws IOException if a user or project file is missing or any file cannot be read
+         */
+        static Tables readCsv(Path directory) throws IOException {
+            Tables tables = new Tables();
+            tables.applicants = UserDatabase.readRecords(csvPath(directory, UserDatabase.APPLICANT_FILE));
+            tables.officers = UserDatabase.readRecords(csvPath(directory, UserDatabase.OFFICER_FILE));
+            tables.managers = UserDatabase.readRecords(csvPath(directory, UserDatabase.MANAGER_FILE));
+            tables.projects = ProjectDatabase.readRecords(csvPath(directory, ProjectDatabase.FILE_PATH));
+            tables.registrations = RegistrationDatabase.readRecords(csvPath(directory, RegistrationDatabase.FILE_PATH));
+            tables.applications = ApplicationDatabase.readRecords(csvPath(directory, ApplicationDatabase.FILE_PATH));
+            tables.enquiries = EnquiryDatabase.readRecords(csvPath(directory, EnquiryDatabase.FILE_PATH));
+            return tables;
+        }
+
+        /**
+         * Writes every table as a CSV file into a directory, replacing files of the same name.
+         *
+         * @param directory the directory to write to, created if needed
+         * @throws IOException if a file cannot be written
+         */
+        void writeCsv(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            for (Map.Entry<String, Manifest.TableWriter> table : csvTables().entrySet()) {
+                Manifest.csv(table.getValue()).write(Path.of(csvPath(directory, table.getKey())));
+            }
+        }
+
+        /**
+         * Returns a writer for the CSV content of each table, keyed by the plain path of its file.
+         *
+         * @return the table writers in dependency order
+         */
+        Map<String, Manifest.TableWriter> csvTables() {
+            Map<String, Manifest.TableWriter> tables = new LinkedHashMap<>();
+            tables.put(UserDatabase.APPLICANT_FILE, out -> UserDatabase.writeRecords(out, applicants));
+            tables.put(UserDatabase.OFFICER_FILE, out -> UserDatabase.writeRecords(out, officers));
+            tables.put(UserDatabase.MANAGER_FILE, out -> UserDatabase.writeRecords(out, managers));
+            tables.put(ProjectDatabase.FILE_PATH, out -> ProjectDatabase.writeRecords(out, projects));
+            tables.put(RegistrationDatabase.FILE_PATH, out -> RegistrationDatabase.writeRecords(out, registrations));
+            tables.put(ApplicationDatabase.FILE_PATH, out -> ApplicationDatabase.writeRecords(out, applications));
+            tables.put(EnquiryDatabase.FILE_PATH, out -> EnquiryDatabase.writeRecords(out, enquiries));
+            return tables;
+        }
+
+        private static String csvPath(Path directory, String table) {
+            return directory.resolve(Path.of(table).getFileName()).toString();
+        }
+    }
+
+    /**
+     * Writes all tables to a binary snapshot file and forces it to disk.
+     *
+     * @param tables the tables to write
+     * @param file   the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Tables tables, Path file) throws IOException {
+        Encoder out = new Encoder();
+        out.bytes(MAGIC);
+        out.unsigned(VERSION);
+
+        // Surrogate keys follow the order of rows in the file; the first row wins on duplicates,
+        // as it does when the tables are resolved
+        List<UserDatabase.UserRecord> users = new ArrayList<>(tables.applicants);
+        users.addAll(tables.officers);
+        users.addAll(tables.managers);
+        Map<String, Integer> userKeys = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            userKeys.putIfAbsent(users.get(i).nric, i + 1);
+        }
+        int officerStart = tables.applicants.size();
+        int managerStart = officerStart + tables.officers.size();
+        Map<String, Integer> officerKeys = nameKeys(tables.officers, officerStart);
+        Map<String, Integer> managerKeys = nameKeys(tables.managers, managerStart);
+        Map<String, Integer> projectKeys = new HashMap<>();
+        for (int i = 0; i < tables.projects.size(); i++) {
+            projectKeys.putIfAbsent(tables.projects.get(i).name, i + 1);
+        }
+
+        writeUsers(out, tables.applicants);
+        writeUsers(out, tables.officers);
+        writeUsers(out, tables.managers);
+
+        out.unsigned(tables.projects.size());
+        for (ProjectDatabase.ProjectRecord record : tables.projects) {
+            out.string(record.name);
+            out.string(record.neighbourhood);
+            out.unsigned(record.flatTypes.size());
+            for (FlatType flatType : record.flatTypes) {
+                out.string(flatType.getType());
+                out.signed(flatType.getAvailableUnits());
+                out.signed(flatType.getPrice());
+            }
+            out.date(record.openingDate);
+            out.date(record.closingDate);
+            out.reference(managerKeys, record.managerName);
+            out.signed(record.officerSlots);
+            out.unsigned(record.officerNames.size());
+            for (String officerName : record.officerNames) {
+                out.reference(officerKeys, officerName);
+            }
+        }
+
+        out.unsigned(tables.registrations.size());
+        for (RegistrationDatabase.RegistrationRecord record : tables.registrations) {
+            out.signed(record.id);
+            int officerKey = out.reference(userKeys, record.officerNric);
+            // The name is only stored when it differs from that of the referenced user
+            boolean sameName = officerKey > 0 && users.get(officerKey - 1).name.equals(record.officerName);
+            out.string(sameName ? null : record.officerName);
+            out.reference(projectKeys, record.projectName);
+            out.enumValue(record.status);
+        }
+
+        out.unsigned(tables.applications.size());
+        for (ApplicationDatabase.ApplicationRecord record : tables.applications) {
+            out.reference(userKeys, record.userNric);
+            out.reference(projectKeys, record.projectName);
+            out.enumValue(record.status);
+            out.enumValue(record.flatType);
+            out.unsigned(record.withdrawal ? 1 : 0);
+        }
+
+        out.unsigned(tables.enquiries.size());
+        for (EnquiryDatabase.EnquiryRecord record : tables.enquiries) {
+            out.signed(record.id);
+            out.reference(userKeys, record.userNric);
+            out.reference(projectKeys, record.projectName);
+            out.string(record.message);
+            out.string(record.response);
+        }
+
+        try (FileOutputStream stream = new FileOutputStream(file.toFile())) {
+            stream.write(out.buffer, 0, out.count);
+            stream.getFD().sync();
+        }
+    }
+
+    /**
+     * Reads all tables from a binary snapshot file.
+     *
+     * @param file the snapshot file
+     * @return the decoded tables
+     * @throws IOException if the file cannot be read, is not a snapshot, or is truncated
+     */
+    static Tables read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        Decoder in = new Decoder(buffer);
+
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            int version = in.unsigned();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+
+            Tables tables = new Tables();
+            tables.applicants = readUsers(in);
+            tables.officers = readUsers(in);
+            tables.managers = readUsers(in);
+            List<UserDatabase.UserRecord> users = new ArrayList<>(tables.applicants);
+            users.addAll(tables.officers);
+            users.addAll(tables.managers);
+
+            int projectCount = in.unsigned();
+            for (int i = 0; i < projectCount; i++) {
+                ProjectDatabase.ProjectRecord record = new ProjectDatabase.ProjectRecord();
+                record.name = in.string();
+                record.neighbourhood = in.string();
+                int flatTypeCount = in.unsigned();
+                for (int j = 0; j < flatTypeCount; j++) {
+                    record.flatTypes.add(new FlatType(in.string(), in.signed(), in.signed()));
+                }
+                record.openingDate = in.date();
+                record.closingDate = in.date();
+                record.managerName = userName(in, users);
+                record.officerSlots = in.signed();
+                int officerCount = in.unsigned();
+                for (int j = 0; j < officerCount; j++) {
+                    record.officerNames.add(userName(in, users));
+                }
+                tables.projects.add(record);
+            }
+
+            int registrationCount = in.unsigned();
+            for (int i = 0; i < registrationCount; i++) {
+                RegistrationDatabase.RegistrationRecord record = new RegistrationDatabase.RegistrationRecord();
+                record.id = in.signed();
+                int officerKey = in.unsigned();
+                record.officerNric = officerKey > 0 ? user(users, officerKey).nric : in.string();
+                String name = in.string();
+                record.officerName = name != null || officerKey == 0 ? name : user(users, officerKey).name;
+                record.projectName = projectName(in, tables.projects);
+                record.status = in.enumValue(Registration.Status.values());
+                tables.registrations.add(record);
+            }
+
+            int applicationCount = in.unsigned();
+            for (int i = 0; i < applicationCount; i++) {
+                ApplicationDatabase.ApplicationRecord record = new ApplicationDatabase.ApplicationRecord();
+                record.userNric = userNric(in, users);
+                record.projectName = projectName(in, tables.projects);
+                record.status = in.enumValue(Application.ApplicationStatus.values());
+                record.flatType = in.enumValue(Application.FlatType.values());
+                record.withdrawal = in.unsigned() != 0;
+                tables.applications.add(record);
+            }
+
+            int enquiryCount = in.unsigned();
+            for (int i = 0; i < enquiryCount; i++) {
+                EnquiryDatabase.EnquiryRecord record = new EnquiryDatabase.EnquiryRecord();
+                record.id = in.signed();
+                record.userNric = userNric(in, users);
+                record.projectName = projectName(in, tables.projects);
+                record.message = in.string();
+                record.response = in.string();
+                tables.enquiries.add(record);
+            }
+            return tables;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | DateTimeException e) {
+            throw new IOException("Truncated or corrupt snapshot: " + file, e);
+        }
+    }
+
+    private static Map<String, Integer> nameKeys(List<UserDatabase.UserRecord> users, int firstIndex) {
+        Map<String, Integer> keys = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            keys.putIfAbsent(users.get(i).name, firstIndex + i + 1);
+        }
+        return keys;
+    }
+
+    private static void writeUsers(Encoder out, List<UserDatabase.UserRecord> users) {
+        out.unsigned(users.size());
+        for (UserDatabase.UserRecord record : users) {
+            out.string(record.name);
+            out.string(record.nric);
+            out.signed(record.age);
+            out.string(record.maritalStatus);
+            out.string(record.password);
+        }
+    }
+
+    private static List<UserDatabase.UserRecord> readUsers(Decoder in) {
+        int count = in.unsigned();
+        List<UserDatabase.UserRecord> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UserDatabase.UserRecord record = new UserDatabase.UserRecord();
+            record.name = in.string();
+            record.nric = in.string();
+            record.age = in.signed();
+            record.maritalStatus = in.string();
+            record.password = in.string();
+            users.add(record);
+        }
+        return users;
+    }
+
+    private static UserDatabase.UserRecord user(List<UserDatabase.UserRecord> users, int key) {
+        return users.get(key - 1);
+    }
+
+    private static String userName(Decoder in, List<UserDatabase.UserRecord> users) {
+        int key = in.unsigned();
+        return key > 0 ? user(users, key).name : in.string();
+    }
+
+    private static String userNric(Decoder in, List<UserDatabase.UserRecord> users) {
+        int key = in.unsigned();
+        return key > 0 ? user(users, key).nric : in.string();
+    }
+
+    private static String projectName(Decoder in, List<ProjectDatabase.ProjectRecord> projects) {
+        int key = in.unsigned();
+        return key > 0 ? projects.get(key - 1).name : in.string();
+    }
+
+    /**
+     * Encodes values into a growing byte array.
+     */
+    private static final class Encoder {
+        private byte[] buffer = new byte[64 * 1024];
+        private int count;
+
+        void bytes(byte[] values) {
+            ensure(values.length);
+            System.arraycopy(values, 0, buffer, count, values.length);
+            count += values.length;
+        }
+
+        void unsigned(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[count++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[count++] = (byte) value;
+        }
+
+        void signed(int value) {
+            unsigned(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+        }
+
+        void string(String value) {
+            if (value == null) {
+                unsigned(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            unsigned(bytes.length + 1L);
+            bytes(bytes);
+        }
+
+        void date(LocalDate value) {
+            if (value == null) {
+                unsigned(0);
+                return;
+            }
+            long day = value.toEpochDay();
+            unsigned(((day << 1) ^ (day >> 63)) + 1);
+        }
+
+        void enumValue(Enum<?> value) {
+            unsigned(value == null ? 0 : value.ordinal() + 1);
+        }
+
+        /**
+         * Writes the key of the row a text refers to, or zero followed by the text if no row matches.
+         *
+         * @return the key written, zero if the text was written instead
+         */
+        int reference(Map<String, Integer> keys, String text) {
+            Integer key = text == null ? null : keys.get(text);
+            if (key == null) {
+                unsigned(0);
+                string(text);
+                return 0;
+            }
+            unsigned(key);
+            return key;
+        }
+
+        private void ensure(int length) {
+            if (count + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+            }
+        }
+    }
+
+    /**
+     * Decodes values from a buffer positioned after the header.
+     */
+    private static final class Decoder {
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        long unsignedLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IndexOutOfBoundsException("Varint too long at " + buffer.position());
+        }
+
+        int unsigned() {
+            long value = unsignedLong();
+            if (value > Integer.MAX_VALUE) {
+                throw new IndexOutOfBoundsException("Count out of range at " + buffer.position());
+            }
+            return (int) value;
+        }
+
+        int signed() {
+            int value = (int) unsignedLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String string() {
+            int length = unsigned() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        LocalDate date() {
+            long value = unsignedLong();
+            if (value == 0) {
+                return null;
+            }
+            value--;
+            return LocalDate.ofEpochDay((value >>> 1) ^ -(value & 1));
+        }
+
+        <E extends Enum<E>> E enumValue(E[] values) {
+            int ordinal = unsigned();
+            return ordinal == 0 ? null : values[ordinal - 1];
+        }
+    }
+}
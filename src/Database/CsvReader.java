@@ -0,0 +1,451 @@
+package Database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Reads CSV files through a memory-mapped view of the file, or a heap copy of small files.
+ *
+ * <p>Records are tokenized in place: for the current record only the start and end offsets
+ * of each field are kept, and a field is turned into a String, int, date or enum constant
+ * only when it is asked for. Numbers and {@code yyyy/M/d} dates are parsed straight from the
+ * mapped bytes. Quoted fields (RFC 4180, with {@code ""} as an escaped quote) are supported,
+ * unquoted fields are trimmed of surrounding spaces and tabs, and blank lines are skipped.</p>
+ *
+ * <p>Large files are mapped one window at a time, so files larger than 2 GB can be read.
+ * A record that crosses the end of a window is re-read from a new window starting at that record.</p>
+ *
+ * <p>A window of at most {@value #HEAP_READ_LIMIT} bytes, such as the whole of every table this
+ * system ships with, is read into a heap buffer instead of being mapped. A mapping outlives
+ * {@link #close()} until it is garbage collected, and on Windows a mapped file cannot be deleted
+ * or replaced meanwhile, which would block {@link Manifest} from replacing the file.</p>
+ */
+final class CsvReader implements Closeable {
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int HEAP_READ_LIMIT = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int windowSize;
+    private ByteBuffer buffer;
+    private long windowStart;
+    private int position;
+
+    private int fieldCount;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];
+    private byte[] scratch = new byte[256];
+
+    private CsvReader(FileChannel channel, int windowSize) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        map(0, windowSize);
+        if (buffer.limit() >= 3 && (buffer.get(0) & 0xFF) == 0xEF
+                && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF) {
+            position = 3; // skip UTF-8 byte order mark
+        }
+    }
+
+    /**
+     * Opens a CSV file for reading.
+     *
+     * @param filePath the path to the CSV file
+     * @return a reader positioned before the first record
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    static CsvReader open(String filePath) throws IOException {
+        return open(Path.of(filePath), DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Opens a CSV file for reading, mapping at most {@code windowSize} bytes at a time.
+     *
+     * @param path       the path to the CSV file
+     * @param windowSize the preferred size of each mapped window in bytes
+     * @return a reader positioned before the first record
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    static CsvReader open(Path path, int windowSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new CsvReader(channel, windowSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Advances to the next non-blank record.
+     *
+     * @return true if a record was read, false at the end of the file
+     * @throws IOException if the next window of the file cannot be mapped
+     */
+    boolean next() throws IOException {
+        while (true) {
+            if (position >= buffer.limit() && isLastWindow()) {
+                fieldCount = 0;
+                return false;
+            }
+            int recordStart = position;
+            while (!tokenize()) {
+                // The record runs past the mapped window; remap starting at the record
+                long recordOffset = windowStart + recordStart;
+                int size = recordStart == 0 ? Math.max(buffer.limit(), 1) * 2 : windowSize;
+                map(recordOffset, size);
+                recordStart = 0;
+                position = 0;
+            }
+            if (fieldCount == 1 && starts[0] == ends[0] && !escaped[0] && isBlankLine(recordStart)) {
+                continue;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of fields in the current record.
+     *
+     * @return the field count
+     */
+    int size() {
+        return fieldCount;
+    }
+
+    /**
+     * Checks whether a field of the current record is empty.
+     *
+     * @param index the zero-based field index
+     * @return true if the field has no content
+     */
+    boolean isEmpty(int index) {
+        checkIndex(index);
+        return starts[index] == ends[index];
+    }
+
+    /**
+     * Returns a field of the current record decoded as UTF-8.
+     *
+     * @param index the zero-based field index
+     * @return the field value
+     */
+    String getString(int index) {
+        checkIndex(index);
+        int length = copyToScratch(index);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a field of the current record as a decimal int.
+     *
+     * @param index the zero-based field index
+     * @return the parsed value
+     * @throws NumberFormatException if the field is not a valid int
+     */
+    int getInt(int index) {
+        checkIndex(index);
+        return parseInt(starts[index], ends[index], index);
+    }
+
+    /**
+     * Parses a field of the current record as a boolean, following {@link Boolean#parseBoolean(String)}.
+     *
+     * @param index the zero-based field index
+     * @return true if the field is "true" ignoring case, false otherwise
+     */
+    boolean getBoolean(int index) {
+        checkIndex(index);
+        int start = starts[index];
+        if (ends[index] - start != 4) {
+            return false;
+        }
+        return (buffer.get(start) | 0x20) == 't' && (buffer.get(start + 1) | 0x20) == 'r'
+                && (buffer.get(start + 2) | 0x20) == 'u' && (buffer.get(start + 3) | 0x20) == 'e';
+    }
+
+    /**
+     * Parses a field of the current record as a date in {@code yyyy/M/d} format.
+     *
+     * @param index the zero-based field index
+     * @return the parsed date
+     * @throws DateTimeException if the field is not a valid date
+     */
+    LocalDate getDate(int index) {
+        checkIndex(index);
+        int start = starts[index];
+        int end = ends[index];
+        int firstSlash = indexOf('/', start, end);
+        int secondSlash = firstSlash < 0 ? -1 : indexOf('/', firstSlash + 1, end);
+        if (secondSlash < 0) {
+            throw new DateTimeException("Invalid date: " + getString(index));
+        }
+        try {
+            return LocalDate.of(parseInt(start, firstSlash, index),
+                    parseInt(firstSlash + 1, secondSlash, index),
+                    parseInt(secondSlash + 1, end, index));
+        } catch (NumberFormatException e) {
+            throw new DateTimeException("Invalid date: " + getString(index), e);
+        }
+    }
+
+    /**
+     * Matches a field of the current record against the names of enum constants.
+     *
+     * @param index  the zero-based field index
+     * @param values the candidate constants, usually {@code E.values()}
+     * @param <E>    the enum type
+     * @return the constant whose name equals the field, or null if there is none
+     */
+    <E extends Enum<E>> E getEnum(int index, E[] values) {
+        checkIndex(index);
+        int start = starts[index];
+        int length = ends[index] - start;
+        for (E value : values) {
+            String name = value.name();
+            if (name.length() != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length && buffer.get(start + i) == name.charAt(i)) {
+                i++;
+            }
+            if (i == length) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Closes the underlying file. A mapped window is only released when it is garbage collected.
+     *
+     * @throws IOException if closing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+
+    /**
+     * Makes {@code size} bytes from {@code offset}, or the rest of the file if shorter, the current window.
+     */
+    private void map(long offset, int size) throws IOException {
+        long length = Math.min((long) size, fileSize - offset);
+        if (length <= HEAP_READ_LIMIT) {
+            ByteBuffer heap = ByteBuffer.allocate((int) length);
+            while (heap.hasRemaining()) {
+                if (channel.read(heap, offset + heap.position()) < 0) {
+                    throw new IOException("File shrank while it was being read");
+                }
+            }
+            buffer = heap.flip();
+        } else {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+        windowStart = offset;
+    }
+
+    private boolean isLastWindow() {
+        return windowStart + buffer.limit() >= fileSize;
+    }
+
+    /**
+     * Splits the record starting at {@link #position} into fields.
+     *
+     * @return false if the record is not complete within the current window
+     */
+    private boolean tokenize() {
+        int limit = buffer.limit();
+        boolean last = isLastWindow();
+        int p = position;
+        fieldCount = 0;
+
+        while (true) {
+            int start;
+            int end;
+            boolean hasEscapes = false;
+
+            if (p < limit && buffer.get(p) == '"') {
+                start = ++p;
+                while (true) {
+                    if (p >= limit) {
+                        if (!last) {
+                            return false;
+                        }
+                        end = p;
+                        break;
+                    }
+                    if (buffer.get(p) == '"') {
+                        if (p + 1 >= limit && !last) {
+                            return false;
+                        }
+                        if (p + 1 < limit && buffer.get(p + 1) == '"') {
+                            hasEscapes = true;
+                            p += 2;
+                            continue;
+                        }
+                        end = p++;
+                        break;
+                    }
+                    p++;
+                }
+                // Ignore anything between the closing quote and the next delimiter
+                while (p < limit && !isDelimiter(buffer.get(p))) {
+                    p++;
+                }
+            } else {
+                start = p;
+                while (p < limit && !isDelimiter(buffer.get(p))) {
+                    p++;
+                }
+                end = p;
+                while (start < end && isBlank(buffer.get(start))) {
+                    start++;
+                }
+                while (end > start && isBlank(buffer.get(end - 1))) {
+                    end--;
+                }
+            }
+
+            if (p >= limit && !last) {
+                return false;
+            }
+            addField(start, end, hasEscapes);
+
+            if (p >= limit) {
+                position = p;
+                return true;
+            }
+            byte c = buffer.get(p);
+            if (c == ',') {
+                p++;
+                continue;
+            }
+            if (c == '\r') {
+                if (p + 1 >= limit && !last) {
+                    return false;
+                }
+                p++;
+                if (p < limit && buffer.get(p) == '\n') {
+                    p++;
+                }
+            } else {
+                p++; // '\n'
+            }
+            position = p;
+            return true;
+        }
+    }
+
+    private void addField(int start, int end, boolean hasEscapes) {
+        if (fieldCount == starts.length) {
+            int capacity = fieldCount * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            escaped = Arrays.copyOf(escaped, capacity);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        escaped[fieldCount] = hasEscapes;
+        fieldCount++;
+    }
+
+    private boolean isBlankLine(int recordStart) {
+        int limit = buffer.limit();
+        for (int p = recordStart; p < limit; p++) {
+            byte c = buffer.get(p);
+            if (c == '\n' || c == '\r') {
+                return true;
+            }
+            if (!isBlank(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int copyToScratch(int index) {
+        int start = starts[index];
+        int length = ends[index] - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        if (!escaped[index]) {
+            return length;
+        }
+        int out = 0;
+        for (int i = 0; i < length; i++) {
+            scratch[out++] = scratch[i];
+            if (scratch[i] == '"' && i + 1 < length && scratch[i + 1] == '"') {
+                i++;
+            }
+        }
+        return out;
+    }
+
+    private int parseInt(int start, int end, int index) {
+        if (start >= end) {
+            throw new NumberFormatException("Empty number in field " + index);
+        }
+        boolean negative = false;
+        int p = start;
+        byte first = buffer.get(p);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++p == end) {
+                throw new NumberFormatException("Invalid number: " + getString(index));
+            }
+        }
+        long value = 0;
+        for (; p < end; p++) {
+            int digit = buffer.get(p) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid number: " + getString(index));
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("Number out of range: " + getString(index));
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Number out of range: " + getString(index));
+        }
+        return (int) value;
+    }
+
+    private int indexOf(char c, int start, int end) {
+        for (int p = start; p < end; p++) {
+            if (buffer.get(p) == c) {
+                return p;
+            }
+        }
+        return -1;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + index + " out of bounds for record with " + fieldCount + " fields");
+        }
+    }
+
+    private static boolean isDelimiter(byte c) {
+        return c == ',' || c == '\n' || c == '\r';
+    }
+
+    private static boolean isBlank(byte c) {
+        return c == ' ' || c == '\t';
+    }
+}
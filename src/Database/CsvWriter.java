@@ -0,0 +1,284 @@
+package Database;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes CSV files record by record through a reusable byte buffer.
+ *
+ * <p>Fields are encoded as UTF-8 straight into the buffer, which is flushed to the file only when
+ * it fills up, so no intermediate line strings are built. A field is quoted following RFC 4180
+ * when it contains a comma, a quote or a line break, or when it starts or ends with a space or tab
+ * (which {@link CsvReader} would otherwise trim); quotes inside it are doubled. Records end with a
+ * single {@code \n}, matching the existing data files. One spare buffer is kept for the whole
+ * program and handed back on {@link #close()}, so repeated saves do not allocate a new one while
+ * threads that once saved do not each hold on to a buffer of their own.</p>
+ */
+final class CsvWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final AtomicReference<byte[]> SPARE = new AtomicReference<>();
+
+    private final FileOutputStream out;
+    private final byte[] buffer;
+    private int count;
+    private boolean firstField = true;
+
+    private CsvWriter(FileOutputStream out) {
+        this.out = out;
+        // Take the spare buffer for the lifetime of this writer; a writer opened while another
+        // one holds it gets a buffer of its own, which is dropped again if the spare is back
+        byte[] spare = SPARE.getAndSet(null);
+        this.buffer = spare != null ? spare : new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Opens a CSV file for writing, replacing any existing content.
+     *
+     * @param filePath the path to the CSV file
+     * @return a writer positioned at the start of the file
+     * @throws IOException if the file cannot be created or opened
+     */
+    static CsvWriter open(String filePath) throws IOException {
+        return new CsvWriter(new FileOutputStream(filePath));
+    }
+
+    /**
+     * Opens a CSV file for appending records after its current content, creating it if needed.
+     *
+     * @param filePath the path to the CSV file
+     * @return a writer positioned at the end of the file
+     * @throws IOException if the file cannot be created or opened
+     */
+    static CsvWriter append(String filePath) throws IOException {
+        return new CsvWriter(new FileOutputStream(filePath, true));
+    }
+
+    /**
+     * Writes a complete header record.
+     *
+     * @param columns the column names
+     * @return this writer
+     * @throws IOException if flushing the buffer fails
+     */
+    CsvWriter header(String... columns) throws IOException {
+        for (String column : columns) {
+            field(column);
+        }
+        return endRecord();
+    }
+
+    /**
+     * Appends a text field. A null value is written as an empty field.
+     *
+     * @param value the field value
+     * @return this writer
+     * @throws IOException if flushing the buffer fails
+     */
+    CsvWriter field(String value) throws IOException {
+        separator();
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            writeChars(value);
+            return this;
+        }
+        writeByte('"');
+        int from = 0;
+        int quote;
+        while ((quote = value.indexOf('"', from)) >= 0) {
+            writeChars(value, from, quote + 1);
+            writeByte('"');
+            from = quote + 1;
+        }
+        writeChars(value, from, value.length());
+        writeByte('"');
+        return this;
+    }
+
+    /**
+     * Appends an int field in decimal.
+     *
+     * @param value the field value
+     * @return this writer
+     * @throws IOException if flushing the buffer fails
+     */
+    CsvWriter field(int value) throws IOException {
+        separator();
+        writeInt(value);
+        return this;
+    }
+
+    /**
+     * Appends a boolean field as {@code true} or {@code false}.
+     *
+     * @param value the field value
+     * @return this writer
+     * @throws IOException if flushing the buffer fails
+     */
+    CsvWriter field(boolean value) throws IOException {
+        separator();
+        writeChars(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Appends a date field in {@code yyyy/M/d} format. A null value is written as an empty field.
+     *
+     * @param value the field value
+     * @return this writer
+     * @throws IOException if flushing the buffer fails
+     */
+    CsvWriter field(LocalDate value) throws IOException {
+        separator();
+        if (value != null) {
+            writeInt(value.getYear());
+            writeByte('/');
+            writeInt(value.getMonthValue());
+            writeByte('/');
+            writeInt(value.getDayOfMonth());
+        }
+        return this;
+    }
+
+    /**
+     * Appends an enum constant by name. A null value is written as an empty field.
+     *
+     * @param value the field value
+     * @return this writer
+     * @throws IOException if flushing the buffer fails
+     */
+    CsvWriter field(Enum<?> value) throws IOException {
+        return field(value == null ? null : value.name());
+    }
+
+    /**
+     * Ends the current record.
+     *
+     * @return this writer
+     * @throws IOException if flushing the buffer fails
+     */
+    CsvWriter endRecord() throws IOException {
+        writeByte('\n');
+        firstField = true;
+        return this;
+    }
+
+    /**
+     * Writes any buffered bytes and forces them to the storage device.
+     *
+     * @throws IOException if writing or syncing fails
+     */
+    void sync() throws IOException {
+        flushBuffer();
+        out.getFD().sync();
+    }
+
+    /**
+     * Flushes any buffered bytes and closes the file.
+     *
+     * @throws IOException if writing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            flushBuffer();
+        } finally {
+            SPARE.compareAndSet(null, buffer);
+        }
+    }
+
+    private void separator() throws IOException {
+        if (firstField) {
+            firstField = false;
+        } else {
+            writeByte(',');
+        }
+    }
+
+    private static boolean needsQuotes(String value) {
+        char first = value.charAt(0);
+        char last = value.charAt(value.length() - 1);
+        if (first == ' ' || first == '\t' || last == ' ' || last == '\t') {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeInt(int value) throws IOException {
+        if (value < 0) {
+            writeByte('-');
+            if (value == Integer.MIN_VALUE) {
+                writeChars("2147483648");
+                return;
+            }
+            value = -value;
+        }
+        if (count + 10 > buffer.length) {
+            flushBuffer();
+        }
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = count + digits - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += digits;
+    }
+
+    private void writeChars(String value) throws IOException {
+        writeChars(value, 0, value.length());
+    }
+
+    /**
+     * Encodes {@code value[from, to)} as UTF-8 into the buffer.
+     */
+    private void writeChars(String value, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                writeByte(c);
+            } else if (c < 0x800) {
+                writeByte(0xC0 | (c >> 6));
+                writeByte(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                writeByte(0xF0 | (codePoint >> 18));
+                writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                writeByte(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                writeByte('?'); // unpaired surrogate, as String.getBytes would write
+            } else {
+                writeByte(0xE0 | (c >> 12));
+                writeByte(0x80 | ((c >> 6) & 0x3F));
+                writeByte(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
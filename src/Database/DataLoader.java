@@ -0,0 +1,171 @@
+package Database;
+
+import Entity.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads all persistent data in two phases.
+ * First every CSV file is parsed into raw records, with cross references kept as names or NRICs.
+ * The files do not depend on each other, so they are parsed concurrently on a bounded thread pool.
+ * When the binary snapshot is enabled and present, it is decoded into the same records instead.
+ * Then lookup tables are built once and each table is resolved in a single linear pass as soon as
+ * the tables it refers to are ready: users, then projects, then registrations, applications and
+ * enquiries. Finally the write-ahead log is replayed on top of the loaded tables.
+ * The time spent in each stage is printed once loading finishes.
+ */
+public class DataLoader {
+    private static final int MAX_THREADS = 4;
+
+    private DataLoader() {}
+
+    /**
+     * A loading stage that may fail with an I/O error.
+     */
+    @FunctionalInterface
+    private interface Stage<T> {
+        T run() throws IOException;
+    }
+
+    /**
+     * Loads users, projects, registrations, applications and enquiries from their CSV files.
+     *
+     * @throws IOException if an error occurs while reading any of the files
+     */
+    public static void loadAll() throws IOException {
+        UserDatabase userDatabase = UserDatabase.getInstance();
+        ProjectDatabase projectDatabase = ProjectDatabase.getInstance();
+        RegistrationDatabase registrationDatabase = RegistrationDatabase.getInstance();
+        ApplicationDatabase applicationDatabase = ApplicationDatabase.getInstance();
+        EnquiryDatabase enquiryDatabase = EnquiryDatabase.getInstance();
+
+        int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "data-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<String> timings = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+
+        try {
+            // Phase 1: parse every file without resolving references, or decode the binary snapshot
+            CompletableFuture<List<User>> applicants;
+            CompletableFuture<List<User>> officers;
+            CompletableFuture<List<User>> managers;
+            CompletableFuture<List<ProjectDatabase.ProjectRecord>> projectRecords;
+            CompletableFuture<List<RegistrationDatabase.RegistrationRecord>> registrationRecords;
+            CompletableFuture<List<ApplicationDatabase.ApplicationRecord>> applicationRecords;
+            CompletableFuture<List<EnquiryDatabase.EnquiryRecord>> enquiryRecords;
+
+            if (BinarySnapshot.isEnabled() && Manifest.contains(BinarySnapshot.FILE_PATH)) {
+                Path snapshot = Path.of(Manifest.pathOf(BinarySnapshot.FILE_PATH));
+                CompletableFuture<BinarySnapshot.Tables> tables =
+                        submit("read snapshot", timings, executor, () -> BinarySnapshot.read(snapshot));
+                applicants = tables.thenApply(t -> createUsers(User.UserRole.APPLICANT, t.applicants));
+                officers = tables.thenApply(t -> createUsers(User.UserRole.OFFICER, t.officers));
+                managers = tables.thenApply(t -> createUsers(User.UserRole.MANAGER, t.managers));
+                projectRecords = tables.thenApply(t -> t.projects);
+                registrationRecords = tables.thenApply(t -> t.registrations);
+                applicationRecords = tables.thenApply(t -> t.applications);
+                enquiryRecords = tables.thenApply(t -> t.enquiries);
+            } else {
+                applicants = submit("parse applicants", timings, executor,
+                        () -> userDatabase.readUser(UserDatabase.APPLICANT_FILE, User.UserRole.APPLICANT));
+                officers = submit("parse officers", timings, executor,
+                        () -> userDatabase.readUser(UserDatabase.OFFICER_FILE, User.UserRole.OFFICER));
+                managers = submit("parse managers", timings, executor,
+                        () -> userDatabase.readUser(UserDatabase.MANAGER_FILE, User.UserRole.MANAGER));
+                projectRecords = submit("parse projects", timings, executor, projectDatabase::readRecords);
+                registrationRecords = submit("parse registrations", timings, executor, registrationDatabase::readRecords);
+                applicationRecords = submit("parse applications", timings, executor, applicationDatabase::readRecords);
+                enquiryRecords = submit("parse enquiries", timings, executor, enquiryDatabase::readRecords);
+            }
+
+            // Phase 2: resolve each table once everything it refers to is available
+            CompletableFuture<Void> users = CompletableFuture.allOf(applicants, officers, managers)
+                    .thenRunAsync(() -> timed("resolve users", timings,
+                            () -> userDatabase.setUsers(applicants.join(), officers.join(), managers.join())), executor);
+            CompletableFuture<Void> projects = users.thenCombineAsync(projectRecords,
+                    (ignored, records) -> timed("resolve projects", timings, () -> projectDatabase.resolve(records)), executor);
+            CompletableFuture<Void> registrations = projects.thenCombineAsync(registrationRecords,
+                    (ignored, records) -> timed("resolve registrations", timings, () -> registrationDatabase.resolve(records)), executor);
+            CompletableFuture<Void> applications = projects.thenCombineAsync(applicationRecords,
+                    (ignored, records) -> timed("resolve applications", timings, () -> applicationDatabase.resolve(records)), executor);
+            CompletableFuture<Void> enquiries = projects.thenCombineAsync(enquiryRecords,
+                    (ignored, records) -> timed("resolve enquiries", timings, () -> enquiryDatabase.resolve(records)), executor);
+
+            CompletableFuture.allOf(registrations, applications, enquiries).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Phase 3: bring the snapshots up to date with the changes committed since they were written
+        long replayStart = System.nanoTime();
+        int replayed = WriteAheadLog.getInstance().replay();
+        timings.add(String.format("  %-22s %6d ms (%d records)", "replay log", elapsedMillis(replayStart), replayed));
+
+        System.out.println("Data loaded in " + elapsedMillis(start) + " ms");
+        timings.forEach(System.out::println);
+    }
+
+    /**
+     * Runs a parsing stage on the executor and records how long it took.
+     */
+    private static <T> CompletableFuture<T> submit(String name, List<String> timings,
+                                                   ExecutorService executor, Stage<T> stage) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                return stage.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                timings.add(String.format("  %-22s %6d ms", name, elapsedMillis(start)));
+            }
+        }, executor);
+    }
+
+    /**
+     * Creates users of one role from the raw records of the binary snapshot.
+     */
+    private static List<User> createUsers(User.UserRole role, List<UserDatabase.UserRecord> records) {
+        List<User> users = new ArrayList<>(records.size());
+        for (UserDatabase.UserRecord record : records) {
+            users.add(UserDatabase.createUser(role, record));
+        }
+        return users;
+    }
+
+    /**
+     * Runs a resolving stage on the current thread and records how long it took.
+     */
+    private static Void timed(String name, List<String> timings, Runnable stage) {
+        long start = System.nanoTime();
+        stage.run();
+        timings.add(String.format("  %-22s %6d ms", name, elapsedMillis(start)));
+        return null;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
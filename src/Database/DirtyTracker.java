@@ -0,0 +1,170 @@
+package Database;
+
+import Entity.ChangeListener;
+import Entity.TrackedEntity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records which rows of a table have changed since they were last loaded, saved or logged.
+ * A database registers its tracker on every entity it holds and reports added and removed
+ * rows to it, so a save can skip tables that did not change and a commit can log only the
+ * rows that did. Change notifications can be passed on to a second listener, e.g. an index.
+ */
+class DirtyTracker implements ChangeListener {
+    private boolean dirty;
+    private final Set<TrackedEntity> changed = new LinkedHashSet<>();
+    private final Set<TrackedEntity> removed = new LinkedHashSet<>();
+    private final ChangeListener next;
+
+    /**
+     * The changes a table had pending when its tracker was drained.
+     */
+    static final class Changes {
+        /** The entities added or modified, in the order they first changed. */
+        final List<TrackedEntity> changed;
+        /** The entities removed, in the order they were removed. */
+        final List<TrackedEntity> removed;
+
+        Changes(List<TrackedEntity> changed, List<TrackedEntity> removed) {
+            this.changed = changed;
+            this.removed = removed;
+        }
+    }
+
+    /**
+     * Creates a tracker that only records changes.
+     */
+    DirtyTracker() {
+        this(null);
+    }
+
+    /**
+     * Creates a tracker that records changes and then passes every notification on.
+     *
+     * @param next the listener to notify after each change is recorded
+     */
+    DirtyTracker(ChangeListener next) {
+        this.next = next;
+    }
+
+    /**
+     * Starts tracking an entity held by the table.
+     *
+     * @param entity the entity to track
+     * @param <T>    the entity type
+     * @return the same entity
+     */
+    <T extends TrackedEntity> T track(T entity) {
+        entity.setChangeListener(this);
+        return entity;
+    }
+
+    /**
+     * Starts tracking an entity that was added to the table and records it as changed.
+     *
+     * @param entity the added entity
+     * @param <T>    the entity type
+     * @return the same entity
+     */
+    synchronized <T extends TrackedEntity> T added(T entity) {
+        track(entity);
+        removed.remove(entity);
+        changed.add(entity);
+        dirty = true;
+        return entity;
+    }
+
+    /**
+     * Stops tracking an entity that was removed from the table and records the removal.
+     *
+     * @param entity the removed entity
+     */
+    synchronized void removed(TrackedEntity entity) {
+        entity.setChangeListener(null);
+        changed.remove(entity);
+        removed.add(entity);
+        dirty = true;
+    }
+
+    @Override
+    public void changed(TrackedEntity entity) {
+        synchronized (this) {
+            changed.add(entity);
+            dirty = true;
+        }
+        if (next != null) {
+            next.changed(entity);
+        }
+    }
+
+    @Override
+    public void transientChanged(TrackedEntity entity) {
+        if (next != null) {
+            next.transientChanged(entity);
+        }
+    }
+
+    /**
+     * Marks the table as changed without naming a row, e.g. when a referenced project is renamed.
+     */
+    synchronized void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Checks whether the table has changed since it was last loaded, saved or logged.
+     *
+     * @return true if the table has unsaved changes
+     */
+    synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Returns the pending changes and marks the table as in sync, in one step, so that a change
+     * made by another thread meanwhile is either returned or stays pending, but is never lost.
+     * Read the rows to log or save only after draining.
+     *
+     * @return the entities added, modified or removed since the last drain or clear
+     */
+    synchronized Changes drain() {
+        Changes changes = new Changes(new ArrayList<>(changed), new ArrayList<>(removed));
+        dirty = false;
+        changed.clear();
+        removed.clear();
+        return changes;
+    }
+
+    /**
+     * Puts drained changes back, e.g. when writing them failed, unless the entity has changed
+     * again since in a way that supersedes them.
+     *
+     * @param changes the changes returned by {@link #drain()}
+     */
+    synchronized void restore(Changes changes) {
+        for (TrackedEntity entity : changes.changed) {
+            if (!removed.contains(entity)) {
+                changed.add(entity);
+            }
+        }
+        for (TrackedEntity entity : changes.removed) {
+            if (!changed.contains(entity)) {
+                removed.add(entity);
+            }
+        }
+        dirty = true;
+    }
+
+    /**
+     * Marks the table as in sync with its file and forgets all pending changes.
+     */
+    synchronized void clear() {
+        dirty = false;
+        changed.clear();
+        removed.clear();
+    }
+}
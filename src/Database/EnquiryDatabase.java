@@ -3,22 +3,45 @@ package Database;
 import Entity.Applicant;
 import Entity.Enquiry;
 import Entity.Project;
+import Entity.TrackedEntity;
 import Entity.User;
+import util.DenseIdTable;
+import util.StripedReadWriteLock;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Singleton class that manages the storage, retrieval, and persistence of Enquiry objects.
  * Enquiries are stored in memory and saved to/loaded from a CSV file.
+ *
+ * <p>Enquiries are held in a {@link DenseIdTable} by ID, in ID order, and indexed by the name of
+ * their user and by their project, so lookups and removals do not scan every enquiry.</p>
+ *
+ * <p>The table and its indexes are guarded by a read/write lock. Changes to a single enquiry
+ * are guarded by the stripe lock of its ID, see {@link #lockFor(int)}.</p>
  */
 public class EnquiryDatabase {
     private static final EnquiryDatabase instance = new EnquiryDatabase();
-    private List<Enquiry> enquiries = new ArrayList<>();
+    private final DenseIdTable<Enquiry> enquiries = new DenseIdTable<>();
+    private final Map<String, Set<Enquiry>> byUserName = new HashMap<>();
+    private final Map<Project, Set<Enquiry>> byProject = new IdentityHashMap<>();
     private static int nextId = 10000;
-    private static final String FILE_PATH = "data/EnquiryList.csv";
+    static final String FILE_PATH = "data/EnquiryList.csv";
+    static final String LOG_TABLE = "ENQUIRY";
+    private final DirtyTracker tracker = new DirtyTracker();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StripedReadWriteLock stripes = new StripedReadWriteLock();
 
     
     private EnquiryDatabase() {}
@@ -40,65 +63,228 @@ public class EnquiryDatabase {
      * @throws IOException if an I/O error occurs while reading the file
      */
     public void loadData() throws IOException {
-        enquiries.clear();
-        File file = new File(FILE_PATH);
+        resolve(readRecords());
+    }
+
+    /**
+     * Parses the enquiry CSV file into raw records without resolving users or projects.
+     *
+     * @return list of raw enquiry records, empty if the file does not exist
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    List<EnquiryRecord> readRecords() throws IOException {
+        return readRecords(Manifest.pathOf(FILE_PATH));
+    }
+
+    /**
+     * Parses an enquiry CSV file at the given path into raw records.
+     *
+     * @param filePath the path to the CSV file
+     * @return list of raw enquiry records, empty if the file does not exist
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    static List<EnquiryRecord> readRecords(String filePath) throws IOException {
+        List<EnquiryRecord> records = new ArrayList<>();
+        File file = new File(filePath);
         if (!file.exists()) {
-            return;
+            return records;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean isHeader = true;
-            while ((line = reader.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
+        try (CsvReader in = CsvReader.open(file.getPath())) {
+            in.next(); // skip header
+            while (in.next()) {
+                EnquiryRecord record = readRow(in, 0);
+                if (record != null) {
+                    records.add(record);
                 }
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 5) {
-                    int id = Integer.parseInt(parts[0]);
-                    String userNric = parts[1];
-                    String projectName = parts[2];
-                    String message = parts[3];
-                    String response = parts[4].isEmpty() ? null : parts[4];
-
-                    User user = UserDatabase.getInstance().findByNric(userNric);
-                    Project project = ProjectDatabase.getInstance().findProjectByName(projectName);
-
-                    if (user != null && project != null) {
-                        Enquiry enquiry = new Enquiry(message, user, project);
-                        enquiry.setId(id); // Set ID directly
-                        if (response != null) {
-                            enquiry.reply(response);
-                        }
-                        enquiries.add(enquiry);
-                        nextId = Math.max(nextId, id + 1); // Ensure unique IDs
-                    }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Parses the enquiry columns of the current CSV record.
+     *
+     * @param in    the reader positioned on the record
+     * @param first the index of the ID column
+     * @return the parsed record, or null if columns are missing
+     */
+    static EnquiryRecord readRow(CsvReader in, int first) {
+        if (in.size() < first + 5) {
+            return null;
+        }
+        EnquiryRecord record = new EnquiryRecord();
+        record.id = in.getInt(first);
+        record.userNric = in.getString(first + 1);
+        record.projectName = in.getString(first + 2);
+        record.message = in.getString(first + 3);
+        record.response = in.isEmpty(first + 4) ? null : in.getString(first + 4);
+        return record;
+    }
+
+    /**
+     * Writes the columns of an enquiry record, without ending the CSV record.
+     *
+     * @param out    the writer to append to
+     * @param record the record to write
+     * @throws IOException if an I/O error occurs while writing
+     */
+    static void writeRow(CsvWriter out, EnquiryRecord record) throws IOException {
+        out.field(record.id)
+                .field(record.userNric)
+                .field(record.projectName)
+                .field(record.message)
+                .field(record.response); // null is written as an empty field
+    }
+
+    /**
+     * Resolves raw enquiry records against the user and project indexes and
+     * replaces the in-memory enquiry list. Records whose user or project cannot be found are skipped.
+     *
+     * @param records the raw records produced by {@link #readRecords()}
+     */
+    void resolve(List<EnquiryRecord> records) {
+        UserDatabase userDatabase = UserDatabase.getInstance();
+        ProjectDatabase projectDatabase = ProjectDatabase.getInstance();
+
+        // Add in ID order, which is the order every index lists enquiries in
+        List<EnquiryRecord> sorted = new ArrayList<>(records);
+        sorted.sort(Comparator.comparingInt(record -> record.id));
+        List<Enquiry> resolved = new ArrayList<>(sorted.size());
+        int lastId = Integer.MIN_VALUE;
+        for (EnquiryRecord record : sorted) {
+            User user = userDatabase.findByNric(record.userNric);
+            Project project = projectDatabase.findProjectByName(record.projectName);
+            if (user != null && project != null && record.id != lastId) {
+                Enquiry enquiry = new Enquiry(record.message, user, project);
+                enquiry.setId(record.id); // Set ID directly
+                if (record.response != null) {
+                    enquiry.reply(record.response);
                 }
+                resolved.add(enquiry);
+                lastId = record.id;
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            enquiries.clear();
+            byUserName.clear();
+            byProject.clear();
+            for (Enquiry enquiry : resolved) {
+                index(tracker.track(enquiry));
+                nextId = Math.max(nextId, enquiry.getId() + 1); // Ensure unique IDs
             }
+            tracker.clear();
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
+    /**
+     * Converts an enquiry into a raw record holding its current values.
+     */
+    private static EnquiryRecord toRecord(Enquiry enquiry) {
+        EnquiryRecord record = new EnquiryRecord();
+        record.id = enquiry.getId();
+        record.userNric = enquiry.getUser().getNric();
+        record.projectName = enquiry.getProject().getName();
+        record.message = enquiry.getMessage();
+        record.response = enquiry.getResponse();
+        return record;
+    }
+
+    /**
+     * Returns the read lock of the table, so that all tables can be copied as of one moment.
+     *
+     * @return the table's read lock
+     */
+    Lock tableReadLock() {
+        return lock.readLock();
+    }
+
+    /**
+     * Copies every enquiry into a raw record, e.g. so that a snapshot can be written on another thread.
+     *
+     * @return one record per enquiry in list order
+     */
+    List<EnquiryRecord> snapshotRecords() {
+        List<EnquiryRecord> records = new ArrayList<>(enquiries.size());
+        for (Enquiry enquiry : findAll()) {
+            records.add(toRecord(enquiry));
+        }
+        return records;
+    }
+
     /**
      * Saves the current list of enquiries to a CSV file.
      *
      * @throws IOException if an I/O error occurs while writing the file
      */
     public void saveData() throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH))) {
-            writer.write("ID,User NRIC,Project Name,Message,Response");
-            writer.newLine();
-
-            for (Enquiry enquiry : enquiries) {
-                String line = String.format("%d,%s,%s,%s,%s",
-                        enquiry.getId(),
-                        enquiry.getUser().getNric(),
-                        enquiry.getProject().getName(),
-                        enquiry.getMessage(),
-                        enquiry.getResponse() != null ? enquiry.getResponse() : "");
-                writer.write(line);
-                writer.newLine();
+        // Drain before copying the rows, so a change made meanwhile stays pending for the next save
+        DirtyTracker.Changes changes = tracker.drain();
+        List<EnquiryRecord> records = snapshotRecords();
+        try {
+            Manifest.writeTables(Map.of(FILE_PATH, out -> writeRecords(out, records)));
+        } catch (IOException e) {
+            tracker.restore(changes);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the header and the given enquiry records as the content of the CSV file.
+     *
+     * @param out     the writer of the new file
+     * @param records the records to write
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    static void writeRecords(CsvWriter out, List<EnquiryRecord> records) throws IOException {
+        out.header("ID", "User NRIC", "Project Name", "Message", "Response");
+
+        for (EnquiryRecord record : records) {
+            writeRow(out, record);
+            out.endRecord();
+        }
+    }
+
+    /**
+     * Checks whether any enquiry has been added, removed or modified since the data was last loaded or saved.
+     *
+     * @return true if there are unsaved changes
+     */
+    public boolean hasChanges() {
+        return tracker.isDirty();
+    }
+
+    /**
+     * Saves the enquiries to the CSV file only if they have changed since they were last loaded or saved.
+     *
+     * @return true if the file was written, false if there was nothing to save
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    public boolean saveChanges() throws IOException {
+        if (!tracker.isDirty()) {
+            return false;
+        }
+        saveData();
+        return true;
+    }
+
+    /**
+     * Marks the enquiries as changed if any of them refers to a project that was renamed,
+     * since the project name is what the CSV file stores.
+     *
+     * @param project the renamed project
+     */
+    void projectRenamed(Project project) {
+        lock.readLock().lock();
+        try {
+            if (byProject.containsKey(project)) {
+                tracker.markDirty();
             }
+        } finally {
+            lock.readLock().unlock();
         }
     }
 
@@ -108,8 +294,13 @@ public class EnquiryDatabase {
      * @param enquiry the enquiry to be added
      */
     public void addEnquiry(Enquiry enquiry) {
-        enquiry.setId(nextId++); // Set ID and increment
-        enquiries.add(enquiry);
+        lock.writeLock().lock();
+        try {
+            enquiry.setId(nextId++); // Set ID and increment
+            index(tracker.added(enquiry));
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -118,16 +309,163 @@ public class EnquiryDatabase {
      * @param enquiry the enquiry to remove
      */
     public void removeEnquiry(Enquiry enquiry) {
-        enquiries.remove(enquiry);
+        lock.writeLock().lock();
+        try {
+            if (enquiries.get(enquiry.getId()) == enquiry) {
+                enquiries.remove(enquiry.getId());
+                removeFrom(byUserName, enquiry.getUser().getName(), enquiry);
+                removeFrom(byProject, enquiry.getProject(), enquiry);
+                tracker.removed(enquiry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the lock that guards changes to an enquiry, such as editing, replying to or
+     * deleting it. Enquiry IDs map to a fixed set of lock stripes, so changes to different
+     * enquiries usually run in parallel.
+     *
+     * @param id the ID of the enquiry
+     * @return the read/write lock of the ID's stripe
+     */
+    public ReadWriteLock lockFor(int id) {
+        return stripes.get(id);
+    }
+
+    /**
+     * Runs a change to an enquiry while holding the write lock of its stripe, so that it does not
+     * interleave with other changes to the same enquiry.
+     *
+     * @param id     the ID of the enquiry
+     * @param change the change, which may throw to abort it
+     */
+    public void update(int id, Runnable change) {
+        Lock lock = lockFor(id).writeLock();
+        lock.lock();
+        try {
+            change.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores an enquiry under its ID and adds it to the user and project indexes.
+     * The caller holds the write lock.
+     */
+    private void index(Enquiry enquiry) {
+        enquiries.put(enquiry.getId(), enquiry);
+        byUserName.computeIfAbsent(enquiry.getUser().getName(), k -> new LinkedHashSet<>()).add(enquiry);
+        byProject.computeIfAbsent(enquiry.getProject(), k -> new LinkedHashSet<>()).add(enquiry);
+    }
+
+    private static <K> void removeFrom(Map<K, Set<Enquiry>> index, K key, Enquiry enquiry) {
+        Set<Enquiry> set = index.get(key);
+        if (set != null && set.remove(enquiry) && set.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Forgets all pending changes, e.g. after they were replayed from the write-ahead log.
+     */
+    void markClean() {
+        tracker.clear();
+    }
+
+    /**
+     * Appends the enquiry changes made since the last commit to the write-ahead log:
+     * the full rows of added or modified enquiries, then the IDs of removed ones.
+     *
+     * @param out the log writer
+     * @return the number of log records written
+     * @throws IOException if an I/O error occurs while writing
+     */
+    int logChanges(CsvWriter out) throws IOException {
+        int count = 0;
+        DirtyTracker.Changes changes = tracker.drain();
+        for (TrackedEntity entity : changes.changed) {
+            out.field(LOG_TABLE).field(WriteAheadLog.UPSERT);
+            writeRow(out, toRecord((Enquiry) entity));
+            out.endRecord();
+            count++;
+        }
+        for (TrackedEntity entity : changes.removed) {
+            out.field(LOG_TABLE).field(WriteAheadLog.DELETE).field(((Enquiry) entity).getId()).endRecord();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Parses an enquiry entry of the write-ahead log into an action that replays it.
+     * Upserts replace the enquiry with the same ID or add it with that ID; deleting an
+     * enquiry that no longer exists does nothing, so replaying is idempotent.
+     *
+     * @param operation the log operation
+     * @param in        the reader positioned on the log record, whose columns start at index 2
+     * @return the replay action, or null if the record is malformed
+     */
+    Runnable readLogEntry(String operation, CsvReader in) {
+        switch (operation) {
+            case WriteAheadLog.UPSERT -> {
+                EnquiryRecord record = readRow(in, 2);
+                return record == null ? null : () -> apply(record);
+            }
+            case WriteAheadLog.DELETE -> {
+                int id = in.getInt(2);
+                return () -> {
+                    Enquiry enquiry = findById(id);
+                    if (enquiry != null) {
+                        removeEnquiry(enquiry);
+                    }
+                };
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Applies a logged enquiry row, updating the enquiry with the same ID or adding a new one.
+     */
+    private void apply(EnquiryRecord record) {
+        Enquiry enquiry = findById(record.id);
+        if (enquiry == null) {
+            User user = UserDatabase.getInstance().findByNric(record.userNric);
+            Project project = ProjectDatabase.getInstance().findProjectByName(record.projectName);
+            if (user == null || project == null) {
+                return;
+            }
+            enquiry = new Enquiry(record.message, user, project);
+            enquiry.setId(record.id);
+            lock.writeLock().lock();
+            try {
+                index(tracker.added(enquiry));
+                nextId = Math.max(nextId, record.id + 1);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        enquiry.setMessage(record.message);
+        enquiry.setResponse(record.response);
     }
 
     /**
      * Returns all enquiries currently stored in memory.
      *
-     * @return list of all enquiries
+     * @return list of all enquiries in ID order
      */
     public List<Enquiry> findAll() {
-        return enquiries;
+        lock.readLock().lock();
+        try {
+            return enquiries.values();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -137,10 +475,12 @@ public class EnquiryDatabase {
      * @return the matching enquiry, or null if not found
      */
     public Enquiry findById(int id) {
-        return enquiries.stream()
-                .filter(e -> e.getId() == id)
-                .findFirst()
-                .orElse(null);
+        lock.readLock().lock();
+        try {
+            return enquiries.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -150,9 +490,12 @@ public class EnquiryDatabase {
      * @return list of enquiries by the user
      */
     public List<Enquiry> findByName(String name) {
-        return enquiries.stream()
-                .filter(e -> e.getUser().getName().equals(name))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byUserName.getOrDefault(name, Set.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -162,8 +505,22 @@ public class EnquiryDatabase {
      * @return list of enquiries for the given project
      */
     public List<Enquiry> findByProject(Project project) {
-        return enquiries.stream()
-                .filter(e -> e.getProject().equals(project))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byProject.getOrDefault(project, Set.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * An enquiry row as read from the CSV file, with the user and project still referenced by key.
+     */
+    static class EnquiryRecord {
+        int id;
+        String userNric;
+        String projectName;
+        String message;
+        String response;
     }
 }
@@ -0,0 +1,212 @@
+package Database;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Tracks which file currently holds each table and replaces tables crash-safely.
+ *
+ * <p>Tables are named by their plain path, e.g. {@code data/ProjectList.csv}. A save never
+ * overwrites a live file: each table is written to a temporary file, forced to disk, and
+ * atomically renamed to a name carrying a new generation number, e.g. {@code data/ProjectList.7.csv}.
+ * Only then is {@code data/MANIFEST} replaced, also through a synced temporary file and an atomic
+ * rename, so all tables saved together move to the new generation at once. A crash at any point
+ * leaves the previous manifest and every file it names intact.</p>
+ *
+ * <p>Without a manifest, tables are read from their plain paths. Files of older generations are
+ * deleted once a new manifest no longer refers to them; the plain files are never deleted. A file
+ * that cannot be deleted yet, e.g. on Windows while a large table read through a memory mapping
+ * is still mapped, is left in place and deleted on a later save. Such leftovers are not tracked
+ * across restarts, but they are never read, as the manifest no longer names them.</p>
+ */
+final class Manifest {
+    private static final Path MANIFEST_FILE = Path.of("data", "MANIFEST");
+    private static final String GENERATION = "generation";
+    private static final String TABLE = "table";
+
+    private static boolean loaded;
+    private static long generation;
+    private static final Map<String, String> files = new HashMap<>();
+    private static final Set<String> leftovers = new HashSet<>(); // superseded files not deleted yet
+
+    private Manifest() {}
+
+    /**
+     * Writes the content of one CSV table.
+     */
+    @FunctionalInterface
+    interface TableWriter {
+        void write(CsvWriter out) throws IOException;
+    }
+
+    /**
+     * Writes a complete file in any format and forces it to disk before returning.
+     */
+    @FunctionalInterface
+    interface FileWriter {
+        void write(Path file) throws IOException;
+    }
+
+    /**
+     * Returns the file that currently holds a table.
+     *
+     * @param table the plain path of the table
+     * @return the path named by the manifest, or the plain path if the manifest does not list the table
+     * @throws IOException if the manifest exists but cannot be read
+     */
+    static synchronized String pathOf(String table) throws IOException {
+        load();
+        return files.getOrDefault(table, table);
+    }
+
+    /**
+     * Checks whether the manifest lists a file for a table.
+     *
+     * @param table the plain path of the table
+     * @return true if the current generation includes the table
+     * @throws IOException if the manifest exists but cannot be read
+     */
+    static synchronized boolean contains(String table) throws IOException {
+        load();
+        return files.containsKey(table);
+    }
+
+    /**
+     * Writes one or more tables as a new generation and switches the manifest to it in one step.
+     * Tables not passed in keep their current files.
+     *
+     * @param tables the writers of the tables to replace, keyed by the plain path of each table
+     * @throws IOException if any file cannot be written; the previous generation then stays current
+     */
+    static void writeTables(Map<String, TableWriter> tables) throws IOException {
+        Map<String, FileWriter> writers = new LinkedHashMap<>();
+        tables.forEach((table, writer) -> writers.put(table, csv(writer)));
+        writeFiles(writers);
+    }
+
+    /**
+     * Adapts a CSV table writer to a file writer that opens, writes and syncs the file.
+     *
+     * @param writer the writer of the table content
+     * @return a writer of the whole file
+     */
+    static FileWriter csv(TableWriter writer) {
+        return file -> {
+            try (CsvWriter out = CsvWriter.open(file.toString())) {
+                writer.write(out);
+                out.sync();
+            }
+        };
+    }
+
+    /**
+     * Writes one or more files as a new generation and switches the manifest to it in one step.
+     * Files not passed in keep their current generation, except the binary snapshot, which
+     * covers every table and is dropped whenever a table is replaced without it.
+     *
+     * @param writers the writers of the files to replace, keyed by the plain path of each file
+     * @throws IOException if any file cannot be written; the previous generation then stays current
+     */
+    static synchronized void writeFiles(Map<String, FileWriter> writers) throws IOException {
+        load();
+        long next = generation + 1;
+        Map<String, String> nextFiles = new TreeMap<>(files);
+        if (!writers.containsKey(BinarySnapshot.FILE_PATH)) {
+            nextFiles.remove(BinarySnapshot.FILE_PATH);
+        }
+
+        for (Map.Entry<String, FileWriter> writer : writers.entrySet()) {
+            Path target = Path.of(generationPath(writer.getKey(), next));
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            Path temp = Path.of(target + ".tmp");
+            writer.getValue().write(temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            nextFiles.put(writer.getKey(), target.toString());
+        }
+
+        Path temp = Path.of(MANIFEST_FILE + ".tmp");
+        try (CsvWriter out = CsvWriter.open(temp.toString())) {
+            out.field(GENERATION).field(String.valueOf(next)).endRecord();
+            for (Map.Entry<String, String> file : nextFiles.entrySet()) {
+                out.field(TABLE).field(file.getKey()).field(file.getValue()).endRecord();
+            }
+            out.sync();
+        }
+        Files.move(temp, MANIFEST_FILE, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(MANIFEST_FILE.toAbsolutePath().getParent());
+
+        generation = next;
+        leftovers.addAll(files.values());
+        files.clear();
+        files.putAll(nextFiles);
+        deleteLeftovers();
+    }
+
+    /**
+     * Deletes the superseded files of older generations, keeping those that cannot be deleted
+     * yet for the next save. The new manifest is already in place, so a failure here loses nothing.
+     */
+    private static void deleteLeftovers() {
+        leftovers.removeAll(files.values());
+        leftovers.removeAll(files.keySet()); // never delete the plain files
+        leftovers.removeIf(file -> {
+            try {
+                Files.deleteIfExists(Path.of(file));
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Reads the manifest on first use.
+     */
+    private static void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        if (Files.exists(MANIFEST_FILE)) {
+            try (CsvReader in = CsvReader.open(MANIFEST_FILE.toString())) {
+                while (in.next()) {
+                    String kind = in.getString(0);
+                    if (kind.equals(GENERATION) && in.size() >= 2) {
+                        generation = Long.parseLong(in.getString(1));
+                    } else if (kind.equals(TABLE) && in.size() >= 3) {
+                        files.put(in.getString(1), in.getString(2));
+                    }
+                }
+            }
+        }
+        loaded = true;
+    }
+
+    /**
+     * Returns the file name of a table in a generation, e.g. {@code data/ProjectList.7.csv}.
+     */
+    private static String generationPath(String table, long generation) {
+        int dot = table.lastIndexOf('.');
+        return table.substring(0, dot) + "." + generation + table.substring(dot);
+    }
+
+    /**
+     * Forces a directory entry change, such as a rename, to disk where the platform allows it.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms cannot open or sync directories; the rename itself is still atomic
+        }
+    }
+}
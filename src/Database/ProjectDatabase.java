@@ -1,25 +1,51 @@
 package Database;
 
+import Entity.Application;
+import Entity.FilterSettings;
 import Entity.FlatType;
 import Entity.HDBManager;
 import Entity.HDBOfficer;
 import Entity.Project;
+import Entity.TrackedEntity;
 
 import java.io.*;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
+import util.ChunkedList;
+import util.StripedReadWriteLock;
+import util.VersionChain;
+
 /**
  * Singleton class responsible for managing project data including loading from and saving to a CSV file.
+ *
+ * <p>The project list and name index are guarded by a read/write lock, so lookups run in parallel
+ * and only adding, removing or renaming a project excludes them. Changes to a single project are
+ * guarded by the lock of that project's stripe instead, see {@link #lockFor(Project)}.</p>
  */
 public class ProjectDatabase {
     private static final ProjectDatabase instance = new ProjectDatabase();
-    private List<Project> projects = new ArrayList<>();
+    private final List<Project> projects = new ArrayList<>();
+    private final VersionChain<ChunkedList<Project>> publishedProjects = VersionChain.always(ChunkedList.of());
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StripedReadWriteLock stripes = new StripedReadWriteLock();
+    private final Map<String, Project> projectsByName = new HashMap<>();
     private final UserDatabase userDatabase = UserDatabase.getInstance();
-    private static final String FILE_PATH = "data/ProjectList.csv";
+    static final String FILE_PATH = "data/ProjectList.csv";
+    static final String LOG_TABLE = "PROJECT";
+    private final ProjectIndex index = new ProjectIndex(p -> RegistrationDatabase.getInstance().projectPeriodChanged(p));
+    private final DirtyTracker tracker = new DirtyTracker(index);
+    private final ProjectViews views = new ProjectViews(index);
+    private final List<String[]> pendingRenames = new ArrayList<>();
 
     private ProjectDatabase() {}
 
@@ -38,7 +64,7 @@ public class ProjectDatabase {
      * @throws IOException if an I/O error occurs during reading
      */
     public void loadData() throws IOException {
-        projects = readProjects(FILE_PATH);
+        resolve(readRecords());
     }
 
     /**
@@ -49,64 +75,193 @@ public class ProjectDatabase {
      * @throws IOException if the file cannot be read
      */
     public List<Project> readProjects(String filePath) throws IOException {
-        List<Project> projects = new ArrayList<>();
-        BufferedReader br = new BufferedReader(new FileReader(filePath));
-
-        String line;
-        boolean isHeader = true;
-        while ((line = br.readLine()) != null) {
-            if (isHeader) {
-                isHeader = false;
-                continue;
-            }
+        return toProjects(readRecords(Manifest.pathOf(filePath)));
+    }
+
+    /**
+     * Parses the project CSV file into raw records without resolving manager or officer names.
+     *
+     * @return list of raw project records in file order
+     * @throws IOException if the file cannot be read
+     */
+    List<ProjectRecord> readRecords() throws IOException {
+        return readRecords(Manifest.pathOf(FILE_PATH));
+    }
 
-            String[] data = line.split(",");
-            String name = data[0].trim();
-            String neighbourhood = data[1].trim();
+    /**
+     * Parses a project CSV file into raw records without resolving manager or officer names.
+     *
+     * @param filePath the path to the CSV file
+     * @return list of raw project records in file order
+     * @throws IOException if the file cannot be read
+     */
+    static List<ProjectRecord> readRecords(String filePath) throws IOException {
+        List<ProjectRecord> records = new ArrayList<>();
 
-            List<FlatType> flatTypes = new ArrayList<>();
-            flatTypes.add(new FlatType(data[2].trim(), Integer.parseInt(data[3].trim()), Integer.parseInt(data[4].trim())));
-            flatTypes.add(new FlatType(data[5].trim(), Integer.parseInt(data[6].trim()), Integer.parseInt(data[7].trim())));
+        try (CsvReader in = CsvReader.open(filePath)) {
+            in.next(); // skip header
+            while (in.next()) {
+                records.add(readRow(in, 0));
+            }
+        }
+        return records;
+    }
 
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/M/d");
-            LocalDate openingDate = LocalDate.parse(data[8].trim(), formatter);
-            LocalDate closingDate = LocalDate.parse(data[9].trim(), formatter);
+    /**
+     * Parses the project columns of the current CSV record.
+     *
+     * @param in    the reader positioned on the record
+     * @param first the index of the project name column
+     * @return the parsed record
+     */
+    static ProjectRecord readRow(CsvReader in, int first) {
+        ProjectRecord record = new ProjectRecord();
+        record.name = in.getString(first);
+        record.neighbourhood = in.getString(first + 1);
+        record.flatTypes.add(new FlatType(in.getString(first + 2), in.getInt(first + 3), in.getInt(first + 4)));
+        record.flatTypes.add(new FlatType(in.getString(first + 5), in.getInt(first + 6), in.getInt(first + 7)));
+        record.openingDate = in.getDate(first + 8);
+        record.closingDate = in.getDate(first + 9);
+        record.managerName = in.getString(first + 10);
+        record.officerSlots = in.getInt(first + 11);
 
-            String managerName = data[10].trim();
-            HDBManager manager = userDatabase.findManagers().stream()
-                    .filter(m -> m.getName().equals(managerName)).findFirst().orElse(null);
+        // Officer names are a comma separated list inside one quoted field
+        for (int i = first + 12; i < in.size(); i++) {
+            if (in.isEmpty(i)) {
+                continue;
+            }
+            for (String officerName : in.getString(i).split(",")) {
+                if (!officerName.isEmpty()) {
+                    record.officerNames.add(officerName);
+                }
+            }
+        }
+        return record;
+    }
 
-            int officeSlots = Integer.parseInt(data[11].trim());
+    /**
+     * Writes the columns of a project record, without ending the CSV record.
+     *
+     * @param out    the writer to append to
+     * @param record the record to write
+     * @throws IOException if an I/O error occurs during writing
+     */
+    static void writeRow(CsvWriter out, ProjectRecord record) throws IOException {
+        out.field(record.name).field(record.neighbourhood);
+        for (FlatType flatType : record.flatTypes) {
+            out.field(flatType.getType()).field(flatType.getAvailableUnits()).field(flatType.getPrice());
+        }
+        // All officer names go into one field, which the writer quotes
+        out.field(record.openingDate)
+                .field(record.closingDate)
+                .field(record.managerName)
+                .field(record.officerSlots)
+                .field(String.join(",", record.officerNames));
+    }
 
-            String[] officerNames = new String[officeSlots - 1];
-            for (int i = 12; i < data.length; i++) {
-                officerNames[i - 12] = data[i].replace("\"", "");
+    /**
+     * Resolves raw project records and replaces the in-memory project list with the result.
+     *
+     * @param records the raw records produced by {@link #readRecords(String)}
+     */
+    void resolve(List<ProjectRecord> records) {
+        List<Project> resolved = toProjects(records);
+        lock.writeLock().lock();
+        try {
+            projects.clear();
+            projects.addAll(resolved);
+            projectsByName.clear();
+            for (Project project : projects) {
+                projectsByName.putIfAbsent(project.getName(), project);
+                tracker.track(project);
             }
+            index.rebuild(projects);
+            publishedProjects.set(ChunkedList.copyOf(projects));
+            tracker.clear();
+            pendingRenames.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 
+    /**
+     * Builds Project objects from raw records. Manager and officer names are looked up in the
+     * user database's name indexes, and officers are assigned to the projects they handle.
+     */
+    private List<Project> toProjects(List<ProjectRecord> records) {
+        List<Project> projects = new ArrayList<>(records.size());
+        for (ProjectRecord record : records) {
             List<HDBOfficer> officers = new ArrayList<>();
-            for (String officerName : officerNames) {
-                HDBOfficer officer = userDatabase.findOfficers().stream()
-                        .filter(o -> o.getName().equals(officerName)).findFirst().orElse(null);
-                officers.add(officer);
+            for (String officerName : record.officerNames) {
+                HDBOfficer officer = userDatabase.findOfficerByName(officerName);
+                if (officer != null) {
+                    officers.add(officer);
+                }
             }
 
-            Project project = new Project(name, neighbourhood, flatTypes, openingDate, closingDate, manager, officeSlots, officers);
+            Project project = new Project(record.name, record.neighbourhood, record.flatTypes,
+                    record.openingDate, record.closingDate, userDatabase.findManagerByName(record.managerName),
+                    record.officerSlots, officers);
             project.setVisibility(true);
             projects.add(project);
 
             // Assign project to officers
-            for (String officerName : officerNames) {
-                HDBOfficer officer = userDatabase.findOfficers().stream()
-                        .filter(o -> o.getName().equals(officerName))
-                        .findFirst().orElse(null);
+            for (HDBOfficer officer : officers) {
+                officer.setProjectHandling(project);
+            }
+        }
+        return projects;
+    }
+
+    /**
+     * Converts a project into a raw record holding copies of its current values.
+     */
+    private ProjectRecord toRecord(Project project) {
+        ProjectRecord record = new ProjectRecord();
+        record.name = project.getName();
+        record.neighbourhood = project.getNeighbourhood();
+        record.flatTypes.add(new FlatType(Application.FlatType.TWO_ROOM.getLabel(), project.get2RoomUnits(), project.get2RoomPrice()));
+        record.flatTypes.add(new FlatType(Application.FlatType.THREE_ROOM.getLabel(), project.get3RoomUnits(), project.get3RoomPrice()));
+        record.openingDate = project.getOpeningDate();
+        record.closingDate = project.getClosingDate();
+        record.managerName = project.getManager().getName();
+        record.officerSlots = project.getOfficerSlots();
+        List<HDBOfficer> officerList = project.getOfficers();
+        if (officerList != null) {
+            for (HDBOfficer officer : officerList) {
                 if (officer != null) {
-                    officer.setProjectHandling(project);
+                    record.officerNames.add(officer.getName());
                 }
             }
         }
+        return record;
+    }
 
-        br.close();
-        return projects;
+    /**
+     * Returns the read lock of the table, so that all tables can be copied as of one moment.
+     *
+     * @return the table's read lock
+     */
+    Lock tableReadLock() {
+        return lock.readLock();
+    }
+
+    /**
+     * Copies every project into a raw record, e.g. so that a snapshot can be written on another thread.
+     *
+     * @return one record per project in list order
+     */
+    List<ProjectRecord> snapshotRecords() {
+        lock.readLock().lock();
+        try {
+            List<ProjectRecord> records = new ArrayList<>(projects.size());
+            for (Project project : projects) {
+                records.add(toRecord(project));
+            }
+            return records;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -115,60 +270,202 @@ public class ProjectDatabase {
      * @throws IOException if an I/O error occurs during writing
      */
     public void saveData() throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH))) {
-            writer.write("Project Name,Neighbourhood,Type 1,Number of units for Type 1,Selling price for Type 1," +
-                    "Type 2,Number of units for Type 2,Selling price for Type 2," +
-                    "Application opening date,Application closing date,Manager,Officer Slots,Officer");
-            writer.newLine();
+        // Drain before copying the rows, so a change made meanwhile stays pending for the next save
+        DirtyTracker.Changes changes;
+        lock.writeLock().lock();
+        try {
+            changes = tracker.drain();
+            pendingRenames.clear(); // the saved rows already carry the new names
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<ProjectRecord> records = snapshotRecords();
+        try {
+            Manifest.writeTables(Map.of(FILE_PATH, out -> writeRecords(out, records)));
+        } catch (IOException e) {
+            tracker.restore(changes);
+            throw e;
+        }
+    }
 
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/M/d");
+    /**
+     * Writes the header and the given project records as the content of the CSV file.
+     *
+     * @param out     the writer of the new file
+     * @param records the records to write
+     * @throws IOException if an I/O error occurs during writing
+     */
+    static void writeRecords(CsvWriter out, List<ProjectRecord> records) throws IOException {
+        out.header("Project Name", "Neighbourhood", "Type 1", "Number of units for Type 1", "Selling price for Type 1",
+                    "Type 2", "Number of units for Type 2", "Selling price for Type 2",
+                    "Application opening date", "Application closing date", "Manager", "Officer Slots", "Officer");
 
-            for (Project project : projects) {
-                StringBuilder officersStr = new StringBuilder();
-                List<HDBOfficer> officerList = project.getOfficers();
-                if (officerList != null && !officerList.isEmpty()) {
-                    officersStr.append("\"");
-                    boolean firstOfficer = true;
-                    for (HDBOfficer officer : officerList) {
-                        if (officer != null) {
-                            if (!firstOfficer) {
-                                officersStr.append(",");
-                            }
-                            officersStr.append(officer.getName());
-                            firstOfficer = false;
-                        }
+        for (ProjectRecord record : records) {
+            writeRow(out, record);
+            out.endRecord();
+        }
+    }
+
+    /**
+     * Checks whether any project has been added, removed or modified since the data was last loaded or saved.
+     *
+     * @return true if there are unsaved changes
+     */
+    public boolean hasChanges() {
+        return tracker.isDirty();
+    }
+
+    /**
+     * Saves the projects to the CSV file only if they have changed since they were last loaded or saved.
+     *
+     * @return true if the file was written, false if there was nothing to save
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    public boolean saveChanges() throws IOException {
+        if (!tracker.isDirty()) {
+            return false;
+        }
+        saveData();
+        return true;
+    }
+
+    /**
+     * Forgets all pending changes, e.g. after they were replayed from the write-ahead log.
+     */
+    void markClean() {
+        lock.writeLock().lock();
+        try {
+            tracker.clear();
+            pendingRenames.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the project changes made since the last commit to the write-ahead log:
+     * renames first, in the order they happened, then the full rows of added or modified
+     * projects, then the names of removed projects.
+     *
+     * @param out the log writer
+     * @return the number of log records written
+     * @throws IOException if an I/O error occurs during writing
+     */
+    int logChanges(CsvWriter out) throws IOException {
+        int count = 0;
+        DirtyTracker.Changes changes;
+        lock.writeLock().lock();
+        try {
+            for (String[] rename : pendingRenames) {
+                out.field(LOG_TABLE).field(WriteAheadLog.RENAME).field(rename[0]).field(rename[1]).endRecord();
+                count++;
+            }
+            pendingRenames.clear();
+            changes = tracker.drain();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (TrackedEntity entity : changes.changed) {
+            out.field(LOG_TABLE).field(WriteAheadLog.UPSERT);
+            writeRow(out, toRecord((Project) entity));
+            out.endRecord();
+            count++;
+        }
+        for (TrackedEntity entity : changes.removed) {
+            out.field(LOG_TABLE).field(WriteAheadLog.DELETE).field(((Project) entity).getName()).endRecord();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Parses a project entry of the write-ahead log into an action that replays it.
+     * Upserts replace every column of the project with the same name, or add it if there is none;
+     * renames and deletes of projects that no longer exist are ignored, so replaying is idempotent.
+     *
+     * @param operation the log operation
+     * @param in        the reader positioned on the log record, whose columns start at index 2
+     * @return the replay action, or null if the record is malformed
+     */
+    Runnable readLogEntry(String operation, CsvReader in) {
+        switch (operation) {
+            case WriteAheadLog.UPSERT -> {
+                ProjectRecord record = readRow(in, 2);
+                return () -> apply(record);
+            }
+            case WriteAheadLog.RENAME -> {
+                String oldName = in.getString(2);
+                String newName = in.getString(3);
+                return () -> {
+                    Project project = projectsByName.get(oldName);
+                    if (project != null && !projectsByName.containsKey(newName)) {
+                        renameProject(project, newName);
                     }
-                    officersStr.append("\"");
-                }
+                };
+            }
+            case WriteAheadLog.DELETE -> {
+                String name = in.getString(2);
+                return () -> {
+                    Project project = projectsByName.get(name);
+                    if (project != null) {
+                        removeProject(project);
+                    }
+                };
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
 
-                String line = String.format("%s,%s,%s,%d,%d,%s,%d,%d,%s,%s,%s,%d,%s",
-                        project.getName(),
-                        project.getNeighbourhood(),
-                        "2-Room",  // Flat Type 1
-                        project.get2RoomUnits(),
-                        project.get2RoomPrice(),
-                        "3-Room",  // Flat Type 2
-                        project.get3RoomUnits(),
-                        project.get3RoomPrice(),
-                        project.getOpeningDate().format(formatter),
-                        project.getClosingDate().format(formatter),
-                        project.getManager().getName(),
-                        project.getOfficerSlots(),
-                        officersStr.toString());
+    /**
+     * Applies a logged project row, updating the project with the same name or adding a new one.
+     */
+    private void apply(ProjectRecord record) {
+        List<HDBOfficer> officers = new ArrayList<>();
+        for (String officerName : record.officerNames) {
+            HDBOfficer officer = userDatabase.findOfficerByName(officerName);
+            if (officer != null) {
+                officers.add(officer);
+            }
+        }
 
-                writer.write(line);
-                writer.newLine();
+        Project project = projectsByName.get(record.name);
+        if (project == null) {
+            HDBManager manager = userDatabase.findManagerByName(record.managerName);
+            project = new Project(record.name, record.neighbourhood, record.flatTypes,
+                    record.openingDate, record.closingDate, manager, record.officerSlots, officers);
+            addProject(project);
+        } else {
+            project.setNeighbourhood(record.neighbourhood);
+            for (FlatType flatType : record.flatTypes) {
+                Application.FlatType key = Application.FlatType.fromLabel(flatType.getType());
+                if (key != null) {
+                    project.setUnits(key, flatType.getAvailableUnits());
+                    project.setPrice(key, flatType.getPrice());
+                }
             }
+            project.setOpeningDate(record.openingDate);
+            project.setClosingDate(record.closingDate);
+            project.setOfficerSlots(record.officerSlots);
+            project.getOfficers().clear();
+            project.getOfficers().addAll(officers);
+        }
+        for (HDBOfficer officer : officers) {
+            officer.setProjectHandling(project);
         }
     }
 
     /**
-     * Retrieves the list of all stored projects.
+     * Retrieves the list of all stored projects. Every change to the list publishes a new
+     * immutable version, so iterating the returned list is safe while other sessions add or
+     * remove projects, and a thread with an open {@link util.Snapshot} gets the version of its
+     * snapshot.
      *
-     * @return list of Project objects
+     * @return immutable list of Project objects; projects are added and removed through this database
      */
     public List<Project> findProjects() {
-        return projects;
+        return publishedProjects.get();
     }
 
     /**
@@ -178,18 +475,64 @@ public class ProjectDatabase {
      * @return the matching Project, or null if not found
      */
     public Project findProjectByName(String name) {
-        return findProjects().stream()
-                .filter(p -> p.getName().equals(name)).findFirst().orElse(null);
+        lock.readLock().lock();
+        try {
+            return projectsByName.get(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the lock that guards changes to a project, such as editing its details, changing
+     * the status of its applications, booking its flats or approving its officers. Projects map
+     * to a fixed set of lock stripes, so changes to different projects usually run in parallel.
+     * A project is keyed by identity rather than by name, since its name can be edited.
+     *
+     * @param project the project
+     * @return the read/write lock of the project's stripe
+     */
+    public ReadWriteLock lockFor(Project project) {
+        return stripes.get(project);
+    }
+
+    /**
+     * Runs a change to a project or its applications and registrations while holding the write lock of its stripe, so that it does not
+     * interleave with other changes to the same project.
+     *
+     * @param project the project
+     * @param change  the change, which may throw to abort it
+     */
+    public void update(Project project, Runnable change) {
+        Lock lock = lockFor(project).writeLock();
+        lock.lock();
+        try {
+            change.run();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Adds a new project to the database and sets its visibility to true.
      *
      * @param project the Project object to add
+     * @throws IllegalArgumentException if a project with the same name already exists
      */
     public void addProject(Project project) {
-        findProjects().add(project);
-        project.setVisibility(true);
+        lock.writeLock().lock();
+        try {
+            if (projectsByName.containsKey(project.getName())) {
+                throw new IllegalArgumentException("A project named " + project.getName() + " already exists.");
+            }
+            projects.add(tracker.added(project));
+            projectsByName.put(project.getName(), project);
+            project.setVisibility(true);
+            index.add(project);
+            publishedProjects.set(publishedProjects.latest().plus(project));
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -198,7 +541,142 @@ public class ProjectDatabase {
      * @param project the Project object to remove
      */
     public void removeProject(Project project) {
-        findProjects().remove(project);
+        lock.writeLock().lock();
+        try {
+            if (projects.remove(project)) {
+                projectsByName.remove(project.getName(), project);
+                tracker.removed(project);
+                index.remove(project);
+                publishedProjects.set(publishedProjects.latest().minus(project));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the projects that match the filter criteria of the given settings, using the indexes
+     * instead of testing every project. Sorting options are ignored.
+     *
+     * @param settings the filter settings
+     * @return the ordinals of the matching projects, as used by {@link #ordinalOf(Project)}
+     */
+    public BitSet findMatching(FilterSettings settings) {
+        return index.query(settings);
+    }
+
+    /**
+     * Returns the ordinal under which a project is indexed. Ordinals follow the order of the
+     * project list, so iterating a bitmap of ordinals visits projects in list order.
+     *
+     * @param project the project
+     * @return the ordinal, or -1 if the project is not stored in this database
+     */
+    public int ordinalOf(Project project) {
+        return index.ordinalOf(project);
+    }
+
+    /**
+     * Returns the projects with the given ordinals in list order.
+     *
+     * @param ordinals the ordinals, e.g. from {@link #findMatching(FilterSettings)}
+     * @return list of the selected projects
+     */
+    public List<Project> findProjects(BitSet ordinals) {
+        return index.projectsAt(ordinals);
+    }
+
+    /**
+     * Returns one page of the given projects in the order of a sort type. The database keeps the
+     * orders by name, lowest price and opening date up to date as projects are added, removed and
+     * edited, so the page is read off the matching order instead of being sorted. Projects with
+     * equal sort keys stay in list order.
+     *
+     * @param ordinals the ordinals of the projects, e.g. from {@link #findMatching(FilterSettings)}
+     * @param sortType the order to list the projects in
+     * @param offset   the number of projects to skip
+     * @param limit    the maximum number of projects to return
+     * @return list of the projects on the page, or empty if the order of the sort type cannot be
+     *         used because some project has no name or opening date
+     */
+    public Optional<List<Project>> findSortedPage(BitSet ordinals, FilterSettings.SortType sortType, int offset, int limit) {
+        return index.sortedPage(ordinals, sortType, offset, limit);
+    }
+
+    /**
+     * Retrieves the projects that are currently visible, in list order. The list is shared by all
+     * callers and rebuilt only after a project is shown, hidden, added or removed.
+     *
+     * @return unmodifiable list of visible projects
+     */
+    public List<Project> findVisibleProjects() {
+        return views.visible();
+    }
+
+    /**
+     * Retrieves the visible projects that are open for application on a given day, in list order.
+     * The list is shared by all callers and rebuilt only after the visible projects or their dates
+     * change, or when one of them opens or closes.
+     *
+     * @param day the day, usually today
+     * @return unmodifiable list of visible projects open on that day
+     */
+    public List<Project> findOpenProjects(LocalDate day) {
+        return views.openOn(day);
+    }
+
+    /**
+     * Retrieves all projects, visible or not, that are open for application on a given day, in
+     * list order. Which projects are open is tracked by a schedule of openings and closings
+     * rather than by comparing the dates of every project.
+     *
+     * @param day the day, usually today
+     * @return list of projects open on that day
+     */
+    public List<Project> findAllOpenProjects(LocalDate day) {
+        return index.projectsAt(index.open(day, false));
+    }
+
+    /**
+     * Checks whether a manager has a project whose application period overlaps a date range.
+     *
+     * @param managerName the name of the manager
+     * @param from        the first day of the range
+     * @param to          the last day of the range
+     * @return true if at least one of the manager's projects overlaps the range
+     */
+    public boolean hasManagerProjectDuring(String managerName, LocalDate from, LocalDate to) {
+        return index.managerOverlaps(managerName, from, to);
+    }
+
+    /**
+     * Renames a project and updates the name index accordingly.
+     * Registrations, applications and enquiries store the project by name,
+     * so their tables are marked as changed too if they refer to this project.
+     *
+     * @param project the project to rename
+     * @param newName the new project name
+     * @throws IllegalArgumentException if another project already uses the new name
+     */
+    public void renameProject(Project project, String newName) {
+        lock.writeLock().lock();
+        try {
+            Project existing = projectsByName.get(newName);
+            if (existing != null && existing != project) {
+                throw new IllegalArgumentException("A project named " + newName + " already exists.");
+            }
+            String oldName = project.getName();
+            projectsByName.remove(oldName, project);
+            project.setName(newName);
+            projectsByName.put(newName, project);
+            pendingRenames.add(new String[] {oldName, newName});
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        RegistrationDatabase.getInstance().projectRenamed(project);
+        ApplicationDatabase.getInstance().projectRenamed(project);
+        EnquiryDatabase.getInstance().projectRenamed(project);
     }
 
     /**
@@ -208,7 +686,26 @@ public class ProjectDatabase {
      * @return list of Projects managed by the specified manager
      */
     public List<Project> findByManager(String name) {
-        return findProjects().stream()
-                .filter(p -> p.getManager().getName().equals(name)).collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return projects.stream()
+                    .filter(p -> p.getManager().getName().equals(name)).collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A project row as read from the CSV file, with the manager and officers still referenced by name.
+     */
+    static class ProjectRecord {
+        String name;
+        String neighbourhood;
+        List<FlatType> flatTypes = new ArrayList<>();
+        LocalDate openingDate;
+        LocalDate closingDate;
+        String managerName;
+        int officerSlots;
+        List<String> officerNames = new ArrayList<>();
     }
 }
@@ -0,0 +1,762 @@
+package Database;
+
+import Entity.Application;
+import Entity.ChangeListener;
+import Entity.FilterSettings;
+import Entity.Project;
+import Entity.TrackedEntity;
+import util.IntervalTree;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Secondary indexes over the projects of {@link ProjectDatabase}, used to answer
+ * {@link FilterSettings} queries without testing every project.
+ *
+ * <p>Each project gets a dense ordinal. Ordinals are handed out in the order projects are added
+ * and are not reused until the next rebuild, so ordinal order is also the order of the project
+ * list. Equality criteria (neighbourhood, flat type availability, officer slots, visibility) are
+ * kept as bitmaps over the ordinals; range criteria (prices, units, opening and closing dates) are
+ * kept as {@link SortedIndex sorted arrays}. A query intersects one bitmap per criterion, smallest
+ * first.</p>
+ *
+ * <p>The same sorted arrays, and a tree of ordinals ordered by name, give the orders of the
+ * {@link FilterSettings.SortType sort types}: a listing walks the order forwards or backwards and
+ * keeps the ordinals selected by the query, so no listing is sorted.</p>
+ *
+ * <p>Application periods are kept in one {@link IntervalTree interval tree} per manager, for the
+ * manager's date-overlap checks, and in a {@link ProjectSchedule} that tracks which projects are
+ * open today. Officers' overlaps are checked against their registrations instead, in
+ * {@link RegistrationDatabase}.</p>
+ *
+ * <p>The index is guarded by its own read/write lock rather than the table's, since project
+ * setters change it under their project's stripe lock only. Queries share the read lock and run
+ * in parallel; a change holds the write lock just long enough to move the keys that changed.
+ * Moving the schedule to a new day is the only write a query makes, once per day.</p>
+ *
+ * <p>The index is registered behind the table's {@link DirtyTracker}, so every setter of an indexed
+ * project, including {@code setVisibility}, re-indexes it straight away. Only the entries whose
+ * key changed are moved: a booking that takes a unit usually touches the units order alone.</p>
+ */
+final class ProjectIndex implements ChangeListener {
+    private static final Application.FlatType[] FLAT_TYPES = Application.FlatType.values();
+
+    /**
+     * The indexed values of one project, kept so that an update can remove the old entries.
+     */
+    private static final class Keys {
+        String name;
+        String neighbourhood;
+        boolean[] hasUnits = new boolean[FLAT_TYPES.length];
+        int officerSlots;
+        boolean visible;
+        String managerName;
+        int highestPrice;
+        int lowestPrice;
+        int mostUnits;
+        LocalDate openingDate;
+        LocalDate closingDate;
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Project, Integer> ordinals = new IdentityHashMap<>();
+    private Project[] projects = new Project[16];
+    private Keys[] keys = new Keys[16];
+    private int nextOrdinal;
+
+    private final BitSet live = new BitSet();
+    private final BitSet visible = new BitSet();
+    private final BitSet withOfficerSlots = new BitSet();
+    private final BitSet withoutOfficerSlots = new BitSet();
+    private final BitSet[] withUnits = new BitSet[FLAT_TYPES.length];
+    private final Map<String, BitSet> byNeighbourhood = new HashMap<>();
+    private final SortedIndex highestPrices = new SortedIndex();
+    private final SortedIndex lowestPrices = new SortedIndex();
+    private final SortedIndex mostUnits = new SortedIndex();
+    private final SortedIndex openingDates = new SortedIndex();
+    private final SortedIndex closingDates = new SortedIndex();
+    // Ordinals by project name, then by ordinal; the comparator reads the name from keys
+    private final TreeSet<Integer> names = new TreeSet<>(
+            Comparator.comparing((Integer ordinal) -> keys[ordinal].name).thenComparingInt(ordinal -> ordinal));
+    private final Map<String, IntervalTree<Project>> periodsByManager = new HashMap<>();
+    private final Consumer<Project> periodChanged;
+    private final ProjectSchedule schedule = new ProjectSchedule();
+    // Counts the changes to the set of visible projects or to their application periods
+    private long visibleVersion;
+    // Also counts the openings and closings fired by the schedule
+    private long openVersion;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param periodChanged called after the opening or closing date of an indexed project changed
+     */
+    ProjectIndex(Consumer<Project> periodChanged) {
+        this.periodChanged = periodChanged;
+        for (int i = 0; i < withUnits.length; i++) {
+            withUnits[i] = new BitSet();
+        }
+    }
+
+    /**
+     * Replaces the content of the index with the given projects, numbered in list order.
+     *
+     * @param list the projects to index
+     */
+    void rebuild(List<Project> list) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            projects = new Project[Math.max(16, list.size())];
+            keys = new Keys[projects.length];
+            nextOrdinal = 0;
+            live.clear();
+            visible.clear();
+            withOfficerSlots.clear();
+            withoutOfficerSlots.clear();
+            for (BitSet bitmap : withUnits) {
+                bitmap.clear();
+            }
+            byNeighbourhood.clear();
+            names.clear();
+            schedule.clear();
+            visibleChanged();
+            periodsByManager.clear();
+
+            int count = list.size();
+            int[] ordinalColumn = new int[count];
+            int[] highestPriceColumn = new int[count];
+            int[] lowestPriceColumn = new int[count];
+            int[] mostUnitsColumn = new int[count];
+            int[] openingColumn = new int[count];
+            int[] openingOrdinals = new int[count];
+            int[] closingColumn = new int[count];
+            int[] closingOrdinals = new int[count];
+            int openingCount = 0;
+            int closingCount = 0;
+
+            for (Project project : list) {
+                int ordinal = nextOrdinal++;
+                ordinals.put(project, ordinal);
+                projects[ordinal] = project;
+                Keys entry = keysOf(project);
+                keys[ordinal] = entry;
+                setBitmaps(ordinal, entry, true);
+                addName(ordinal, entry);
+                addPeriod(project, entry);
+                schedule.put(ordinal, entry.openingDate, entry.closingDate);
+
+                ordinalColumn[ordinal] = ordinal;
+                highestPriceColumn[ordinal] = entry.highestPrice;
+                lowestPriceColumn[ordinal] = entry.lowestPrice;
+                mostUnitsColumn[ordinal] = entry.mostUnits;
+                if (entry.openingDate != null) {
+                    openingColumn[openingCount] = epochDay(entry.openingDate);
+                    openingOrdinals[openingCount++] = ordinal;
+                }
+                if (entry.closingDate != null) {
+                    closingColumn[closingCount] = epochDay(entry.closingDate);
+                    closingOrdinals[closingCount++] = ordinal;
+                }
+            }
+
+            // Sorting each column once is much cheaper than inserting projects one at a time
+            highestPrices.build(highestPriceColumn, ordinalColumn, count);
+            lowestPrices.build(lowestPriceColumn, ordinalColumn, count);
+            mostUnits.build(mostUnitsColumn, ordinalColumn, count);
+            openingDates.build(openingColumn, openingOrdinals, openingCount);
+            closingDates.build(closingColumn, closingOrdinals, closingCount);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a project added to the end of the project list.
+     *
+     * @param project the added project
+     */
+    void add(Project project) {
+        lock.writeLock().lock();
+        try {
+            if (ordinals.containsKey(project)) {
+                return;
+            }
+            int ordinal = nextOrdinal++;
+            if (ordinal == projects.length) {
+                projects = Arrays.copyOf(projects, ordinal * 2);
+                keys = Arrays.copyOf(keys, ordinal * 2);
+            }
+            ordinals.put(project, ordinal);
+            projects[ordinal] = project;
+            index(ordinal, keysOf(project));
+            addPeriod(project, keys[ordinal]);
+            schedule.put(ordinal, keys[ordinal].openingDate, keys[ordinal].closingDate);
+            if (keys[ordinal].visible) {
+                visibleChanged();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a project from the index.
+     *
+     * @param project the removed project
+     */
+    void remove(Project project) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(project);
+            if (ordinal != null) {
+                if (keys[ordinal].visible) {
+                    visibleChanged();
+                }
+                removePeriod(project, keys[ordinal]);
+                schedule.remove(ordinal);
+                unindex(ordinal);
+                projects[ordinal] = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void changed(TrackedEntity entity) {
+        update(entity);
+    }
+
+    @Override
+    public void transientChanged(TrackedEntity entity) {
+        update(entity);
+    }
+
+    /**
+     * Re-indexes a project after one of its fields changed.
+     */
+    private void update(TrackedEntity entity) {
+        Project project = (Project) entity;
+        boolean moved;
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(project);
+            if (ordinal == null) {
+                return;
+            }
+            Keys old = keys[ordinal];
+            Keys current = keysOf(project);
+            reindex(ordinal, old, current);
+            moved = !Objects.equals(old.openingDate, current.openingDate)
+                    || !Objects.equals(old.closingDate, current.closingDate);
+            if (moved || !Objects.equals(old.managerName, current.managerName)) {
+                removePeriod(project, old);
+                addPeriod(project, current);
+            }
+            if (moved) {
+                schedule.put(ordinal, current.openingDate, current.closingDate);
+            }
+            if (old.visible != current.visible || (current.visible && moved)) {
+                visibleChanged();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (moved) {
+            periodChanged.accept(project);
+        }
+    }
+
+    /**
+     * Returns the ordinal of a project.
+     *
+     * @param project the project
+     * @return its ordinal, or -1 if the project is not indexed
+     */
+    int ordinalOf(Project project) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(project);
+            return ordinal == null ? -1 : ordinal;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the projects with the given ordinals, in ordinal order.
+     *
+     * @param selection the ordinals
+     * @return the projects, which is also their order in the project list
+     */
+    List<Project> projectsAt(BitSet selection) {
+        lock.readLock().lock();
+        try {
+            List<Project> result = new ArrayList<>(selection.cardinality());
+            for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+                if (projects[i] != null) {
+                    result.add(projects[i]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of the selected projects in the order of a sort type, by walking that order
+     * and keeping the selected ordinals instead of sorting. Descending orders are walked backwards;
+     * equal keys keep their ordinal order in both directions, as with a stable sort.
+     *
+     * @param selection the ordinals of the projects to list
+     * @param sortType  the order to list them in
+     * @param offset    the number of projects to skip
+     * @param limit     the maximum number of projects to return
+     * @return the projects on the page, or empty if some projects lack the sort key
+     */
+    Optional<List<Project>> sortedPage(BitSet selection, FilterSettings.SortType sortType, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            boolean descending = sortType == FilterSettings.SortType.NAME_DESC
+                    || sortType == FilterSettings.SortType.PRICE_DESC
+                    || sortType == FilterSettings.SortType.DATE_DESC;
+            int[] page;
+            switch (sortType) {
+                case NAME_ASC, NAME_DESC -> {
+                    // Projects without a name are missing from the name order
+                    if (names.size() != live.cardinality()) {
+                        return Optional.empty();
+                    }
+                    page = selectByName(selection, descending, offset, limit);
+                }
+                case PRICE_ASC, PRICE_DESC -> page = lowestPrices.select(selection, descending, offset, limit);
+                default -> {
+                    // Likewise for projects without an opening date
+                    if (openingDates.size() != live.cardinality()) {
+                        return Optional.empty();
+                    }
+                    page = openingDates.select(selection, descending, offset, limit);
+                }
+            }
+            List<Project> result = new ArrayList<>(page.length);
+            for (int ordinal : page) {
+                result.add(projects[ordinal]);
+            }
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] selectByName(BitSet selection, boolean descending, int skip, int limit) {
+        int[] result = new int[Math.min(limit, selection.cardinality())];
+        int found = 0;
+        int seen = 0;
+        Iterator<Integer> order = descending ? names.descendingIterator() : names.iterator();
+        List<Integer> run = new ArrayList<>();
+        Integer pending = null;
+        while ((pending != null || order.hasNext()) && found < result.length) {
+            int first = pending != null ? pending : order.next();
+            pending = null;
+            run.clear();
+            run.add(first);
+            if (descending) {
+                // A backward walk meets a run of equal names in reverse ordinal order; names are
+                // unique once loaded, but a CSV file may still hold duplicates
+                while (order.hasNext()) {
+                    int next = order.next();
+                    if (!keys[next].name.equals(keys[first].name)) {
+                        pending = next;
+                        break;
+                    }
+                    run.add(next);
+                }
+                Collections.reverse(run);
+            }
+            for (int ordinal : run) {
+                if (found < result.length && selection.get(ordinal) && seen++ >= skip) {
+                    result[found++] = ordinal;
+                }
+            }
+        }
+        return found == result.length ? result : Arrays.copyOf(result, found);
+    }
+
+    /**
+     * Checks whether any project of a manager has an application period that overlaps a window.
+     *
+     * @param managerName the name of the manager
+     * @param from        the first day of the window
+     * @param to          the last day of the window
+     * @return true if at least one of the manager's projects overlaps
+     */
+    boolean managerOverlaps(String managerName, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            IntervalTree<Project> tree = periodsByManager.get(managerName);
+            return tree != null && tree.overlaps(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a counter that changes whenever a visible project is added or removed, a project is
+     * shown or hidden, or the application period of a visible project changes.
+     *
+     * @return the current version of the visible projects
+     */
+    long visibleVersion() {
+        lock.readLock().lock();
+        try {
+            return visibleVersion;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the schedule to a day and returns a counter that changes whenever the visible
+     * projects open on that day may have changed, including when a project opened or closed.
+     *
+     * @param day the day, usually today
+     * @return the current version of the visible open projects
+     */
+    long openVersion(LocalDate day) {
+        long epochDay = day.toEpochDay();
+        lock.readLock().lock();
+        try {
+            if (schedule.isAt(epochDay)) {
+                return openVersion;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            return advanceTo(epochDay);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ordinals of the projects open on a day, as tracked by the schedule.
+     *
+     * @param day         the day, usually today
+     * @param visibleOnly whether to leave out hidden projects
+     * @return a new bitmap of the open projects
+     */
+    BitSet open(LocalDate day, boolean visibleOnly) {
+        long epochDay = day.toEpochDay();
+        lock.readLock().lock();
+        try {
+            if (schedule.isAt(epochDay)) {
+                return openAt(visibleOnly);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            advanceTo(epochDay);
+            return openAt(visibleOnly);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the schedule to a day; called with the write lock held.
+     */
+    private long advanceTo(long epochDay) {
+        if (schedule.advanceTo(epochDay)) {
+            openVersion++;
+        }
+        return openVersion;
+    }
+
+    private BitSet openAt(boolean visibleOnly) {
+        BitSet result = (BitSet) schedule.open().clone();
+        if (visibleOnly) {
+            result.and(visible);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ordinals of the visible projects.
+     *
+     * @return a new bitmap of the visible projects
+     */
+    BitSet visible() {
+        lock.readLock().lock();
+        try {
+            return (BitSet) visible.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the projects that match every filter criterion of the settings. The criteria are the
+     * same as those of {@code ProjectFilter}; an unknown flat type label matches every project.
+     *
+     * @param settings the filter settings
+     * @return a new bitmap of the matching ordinals
+     */
+    BitSet query(FilterSettings settings) {
+        lock.readLock().lock();
+        try {
+            List<BitSet> criteria = new ArrayList<>();
+            if (settings.getNeighbourhood() != null) {
+                BitSet matches = byNeighbourhood.get(foldCase(settings.getNeighbourhood()));
+                criteria.add(matches != null ? matches : new BitSet());
+            }
+            Application.FlatType flatType = Application.FlatType.fromLabel(settings.getFlatType());
+            if (flatType != null) {
+                criteria.add(withUnits[flatType.ordinal()]);
+            }
+            if (settings.getHasOfficerSlots() != null) {
+                criteria.add(settings.getHasOfficerSlots() ? withOfficerSlots : withoutOfficerSlots);
+            }
+            // "2-Room or 3-Room price at least min" is "the higher of the two at least min", and so on
+            if (settings.getMinPrice() != null) {
+                criteria.add(highestPrices.range(settings.getMinPrice(), Integer.MAX_VALUE));
+            }
+            if (settings.getMaxPrice() != null) {
+                criteria.add(lowestPrices.range(Integer.MIN_VALUE, settings.getMaxPrice()));
+            }
+            if (settings.getMinAvailableUnits() != null) {
+                criteria.add(mostUnits.range(settings.getMinAvailableUnits(), Integer.MAX_VALUE));
+            }
+            if (settings.getStartDate() != null) {
+                criteria.add(openingDates.range(epochDay(settings.getStartDate()), Integer.MAX_VALUE));
+            }
+            if (settings.getEndDate() != null) {
+                criteria.add(closingDates.range(Integer.MIN_VALUE, epochDay(settings.getEndDate())));
+            }
+
+            criteria.sort(Comparator.comparingInt(BitSet::cardinality));
+            BitSet result = (BitSet) live.clone();
+            for (BitSet criterion : criteria) {
+                result.and(criterion);
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(int ordinal, Keys entry) {
+        keys[ordinal] = entry;
+        setBitmaps(ordinal, entry, true);
+        addName(ordinal, entry);
+        highestPrices.insert(entry.highestPrice, ordinal);
+        lowestPrices.insert(entry.lowestPrice, ordinal);
+        mostUnits.insert(entry.mostUnits, ordinal);
+        if (entry.openingDate != null) {
+            openingDates.insert(epochDay(entry.openingDate), ordinal);
+        }
+        if (entry.closingDate != null) {
+            closingDates.insert(epochDay(entry.closingDate), ordinal);
+        }
+    }
+
+    /**
+     * Moves a project from its old keys to its new ones in the bitmaps and sorted arrays whose
+     * key differs, leaving the others alone.
+     */
+    private void reindex(int ordinal, Keys old, Keys current) {
+        boolean renamed = !Objects.equals(old.name, current.name);
+        if (renamed && old.name != null) {
+            names.remove(ordinal); // the comparator still reads the old name
+        }
+        keys[ordinal] = current;
+        if (renamed) {
+            addName(ordinal, current);
+        }
+        if (!Objects.equals(old.neighbourhood, current.neighbourhood)) {
+            setNeighbourhood(ordinal, old.neighbourhood, false);
+            setNeighbourhood(ordinal, current.neighbourhood, true);
+        }
+        if (old.visible != current.visible) {
+            visible.set(ordinal, current.visible);
+        }
+        if (Integer.signum(old.officerSlots) != Integer.signum(current.officerSlots)) {
+            setOfficerSlots(ordinal, old.officerSlots, false);
+            setOfficerSlots(ordinal, current.officerSlots, true);
+        }
+        for (int i = 0; i < FLAT_TYPES.length; i++) {
+            if (old.hasUnits[i] != current.hasUnits[i]) {
+                withUnits[i].set(ordinal, current.hasUnits[i]);
+            }
+        }
+        if (old.highestPrice != current.highestPrice) {
+            highestPrices.move(old.highestPrice, current.highestPrice, ordinal);
+        }
+        if (old.lowestPrice != current.lowestPrice) {
+            lowestPrices.move(old.lowestPrice, current.lowestPrice, ordinal);
+        }
+        if (old.mostUnits != current.mostUnits) {
+            mostUnits.move(old.mostUnits, current.mostUnits, ordinal);
+        }
+        moveDate(openingDates, old.openingDate, current.openingDate, ordinal);
+        moveDate(closingDates, old.closingDate, current.closingDate, ordinal);
+    }
+
+    private static void moveDate(SortedIndex dates, LocalDate from, LocalDate to, int ordinal) {
+        if (Objects.equals(from, to)) {
+            return;
+        }
+        if (from == null) {
+            dates.insert(epochDay(to), ordinal);
+        } else if (to == null) {
+            dates.remove(epochDay(from), ordinal);
+        } else {
+            dates.move(epochDay(from), epochDay(to), ordinal);
+        }
+    }
+
+    private void unindex(int ordinal) {
+        Keys entry = keys[ordinal];
+        setBitmaps(ordinal, entry, false);
+        if (entry.name != null) {
+            names.remove(ordinal);
+        }
+        highestPrices.remove(entry.highestPrice, ordinal);
+        lowestPrices.remove(entry.lowestPrice, ordinal);
+        mostUnits.remove(entry.mostUnits, ordinal);
+        if (entry.openingDate != null) {
+            openingDates.remove(epochDay(entry.openingDate), ordinal);
+        }
+        if (entry.closingDate != null) {
+            closingDates.remove(epochDay(entry.closingDate), ordinal);
+        }
+        keys[ordinal] = null;
+    }
+
+    /**
+     * Sets or clears the bits of one project in every bitmap it belongs to.
+     */
+    private void setBitmaps(int ordinal, Keys entry, boolean value) {
+        live.set(ordinal, value);
+        if (entry.visible) {
+            visible.set(ordinal, value);
+        }
+        setOfficerSlots(ordinal, entry.officerSlots, value);
+        for (int i = 0; i < FLAT_TYPES.length; i++) {
+            if (entry.hasUnits[i]) {
+                withUnits[i].set(ordinal, value);
+            }
+        }
+        setNeighbourhood(ordinal, entry.neighbourhood, value);
+    }
+
+    private void setOfficerSlots(int ordinal, int officerSlots, boolean value) {
+        if (officerSlots > 0) {
+            withOfficerSlots.set(ordinal, value);
+        } else if (officerSlots == 0) {
+            withoutOfficerSlots.set(ordinal, value);
+        }
+    }
+
+    private void setNeighbourhood(int ordinal, String neighbourhood, boolean value) {
+        if (neighbourhood == null) {
+            return;
+        }
+        if (value) {
+            byNeighbourhood.computeIfAbsent(neighbourhood, k -> new BitSet()).set(ordinal);
+        } else {
+            BitSet bitmap = byNeighbourhood.get(neighbourhood);
+            bitmap.clear(ordinal);
+            if (bitmap.isEmpty()) {
+                byNeighbourhood.remove(neighbourhood);
+            }
+        }
+    }
+
+    private void visibleChanged() {
+        visibleVersion++;
+        openVersion++;
+    }
+
+    private void addName(int ordinal, Keys entry) {
+        if (entry.name != null) {
+            names.add(ordinal);
+        }
+    }
+
+    private void addPeriod(Project project, Keys entry) {
+        if (entry.managerName != null) {
+            periodsByManager.computeIfAbsent(entry.managerName, k -> new IntervalTree<>())
+                    .put(project, entry.openingDate, entry.closingDate);
+        }
+    }
+
+    private void removePeriod(Project project, Keys entry) {
+        if (entry.managerName != null) {
+            IntervalTree<Project> tree = periodsByManager.get(entry.managerName);
+            if (tree != null) {
+                tree.remove(project);
+                if (tree.isEmpty()) {
+                    periodsByManager.remove(entry.managerName);
+                }
+            }
+        }
+    }
+
+    private static Keys keysOf(Project project) {
+        Keys entry = new Keys();
+        entry.name = project.getName();
+        entry.neighbourhood = project.getNeighbourhood() == null ? null : foldCase(project.getNeighbourhood());
+        for (Application.FlatType flatType : FLAT_TYPES) {
+            entry.hasUnits[flatType.ordinal()] = project.getUnits(flatType) > 0;
+        }
+        entry.officerSlots = project.getOfficerSlots();
+        entry.visible = project.isVisible();
+        entry.managerName = project.getManager() == null ? null : project.getManager().getName();
+        entry.highestPrice = Math.max(project.get2RoomPrice(), project.get3RoomPrice());
+        entry.lowestPrice = Math.min(project.get2RoomPrice(), project.get3RoomPrice());
+        entry.mostUnits = Math.max(project.get2RoomUnits(), project.get3RoomUnits());
+        entry.openingDate = project.getOpeningDate();
+        entry.closingDate = project.getClosingDate();
+        return entry;
+    }
+
+    /**
+     * Folds a string so that two strings fold to the same value exactly when
+     * {@link String#equalsIgnoreCase(String)} considers them equal.
+     */
+    private static String foldCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static int epochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+}
@@ -0,0 +1,166 @@
+package Database;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.PriorityQueue;
+
+/**
+ * Tracks which projects are open for application, by firing each project's opening and closing
+ * as events instead of comparing dates on every request.
+ *
+ * <p>Projects are identified by their {@link ProjectIndex} ordinal. The schedule is anchored on a
+ * day by the first call to {@link #advanceTo(long)}: projects open on that day are marked open and
+ * the next opening or closing of every project is queued by day. Advancing to a later day fires
+ * the queued events that are due, in order, each exactly once; an opening queues the matching
+ * closing. Rescheduling or removing a project bumps its stamp, which turns its queued events into
+ * no-ops instead of searching the queue for them. Moving back to an earlier day, e.g. when a test
+ * turns the clock back, re-anchors the schedule.</p>
+ */
+final class ProjectSchedule {
+    private static final long UNANCHORED = Long.MIN_VALUE;
+
+    /**
+     * A queued opening or closing of one project.
+     */
+    private static final class Event {
+        final long day;
+        final int ordinal;
+        final int stamp;
+        final boolean opening;
+
+        Event(long day, int ordinal, int stamp, boolean opening) {
+            this.day = day;
+            this.ordinal = ordinal;
+            this.stamp = stamp;
+            this.opening = opening;
+        }
+    }
+
+    private final BitSet scheduled = new BitSet();
+    private long[] opens = new long[16];
+    private long[] closes = new long[16]; // the first day on which the project is closed again
+    private int[] stamps = new int[16];
+    private final PriorityQueue<Event> events = new PriorityQueue<>((a, b) -> Long.compare(a.day, b.day));
+    private final BitSet open = new BitSet();
+    private long today = UNANCHORED;
+
+    /**
+     * Schedules a project, or reschedules it after its dates changed. A project without an
+     * opening or closing date is never open.
+     *
+     * @param ordinal the ordinal of the project
+     * @param opening the application opening date
+     * @param closing the application closing date
+     */
+    void put(int ordinal, LocalDate opening, LocalDate closing) {
+        remove(ordinal);
+        if (opening == null || closing == null) {
+            return;
+        }
+        if (ordinal >= opens.length) {
+            int length = Math.max(ordinal + 1, opens.length * 2);
+            opens = Arrays.copyOf(opens, length);
+            closes = Arrays.copyOf(closes, length);
+            stamps = Arrays.copyOf(stamps, length);
+        }
+        opens[ordinal] = opening.toEpochDay();
+        closes[ordinal] = closing.toEpochDay() + 1;
+        scheduled.set(ordinal);
+        if (today != UNANCHORED) {
+            place(ordinal);
+        }
+    }
+
+    /**
+     * Removes a project from the schedule.
+     *
+     * @param ordinal the ordinal of the project
+     */
+    void remove(int ordinal) {
+        if (scheduled.get(ordinal)) {
+            scheduled.clear(ordinal);
+            stamps[ordinal]++;
+            open.clear(ordinal);
+        }
+    }
+
+    /**
+     * Removes every project and drops the anchor.
+     */
+    void clear() {
+        scheduled.clear();
+        events.clear();
+        open.clear();
+        today = UNANCHORED;
+    }
+
+    /**
+     * Checks whether the schedule is at a day, i.e. moving to it would change nothing.
+     *
+     * @param day the epoch day
+     * @return true if the schedule was last moved to that day
+     */
+    boolean isAt(long day) {
+        return day == today;
+    }
+
+    /**
+     * Moves the schedule to a day, firing the openings and closings that are due by then.
+     *
+     * @param day the epoch day to move to
+     * @return true if any project opened or closed
+     */
+    boolean advanceTo(long day) {
+        if (day == today) {
+            return false;
+        }
+        if (today == UNANCHORED || day < today) {
+            today = day;
+            events.clear();
+            open.clear();
+            for (int i = scheduled.nextSetBit(0); i >= 0; i = scheduled.nextSetBit(i + 1)) {
+                place(i);
+            }
+            return true;
+        }
+
+        today = day;
+        boolean changed = false;
+        while (!events.isEmpty() && events.peek().day <= day) {
+            Event event = events.poll();
+            if (event.stamp != stamps[event.ordinal]) {
+                continue; // the project was rescheduled or removed since
+            }
+            if (event.opening) {
+                open.set(event.ordinal);
+                events.add(new Event(closes[event.ordinal], event.ordinal, event.stamp, false));
+            } else {
+                open.clear(event.ordinal);
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the projects open on the day the schedule was last moved to.
+     *
+     * @return the ordinals of the open projects; the caller must not modify the bitmap
+     */
+    BitSet open() {
+        return open;
+    }
+
+    /**
+     * Marks a project open if it is open today and queues its next event.
+     */
+    private void place(int ordinal) {
+        if (today < opens[ordinal]) {
+            events.add(new Event(opens[ordinal], ordinal, stamps[ordinal], true));
+        } else if (today < closes[ordinal]) {
+            open.set(ordinal);
+            events.add(new Event(closes[ordinal], ordinal, stamps[ordinal], false));
+        }
+    }
+}
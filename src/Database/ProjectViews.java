@@ -0,0 +1,61 @@
+package Database;
+
+import Entity.Project;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shared, read-only lists of the visible projects, computed once and handed to every caller
+ * until they may have changed.
+ *
+ * <p>The list of visible projects is stamped with {@link ProjectIndex#visibleVersion()}, which
+ * changes only when a visible project is added or removed, a project is shown or hidden, or the
+ * dates of a visible project are edited. The list of open projects is stamped with
+ * {@link ProjectIndex#openVersion(LocalDate)}, which also changes when the project schedule fires
+ * an opening or closing, so it is rebuilt when a project opens or closes and not on every new day.</p>
+ */
+final class ProjectViews {
+    private final ProjectIndex index;
+
+    private List<Project> visible;
+    private long visibleVersion = -1;
+
+    private List<Project> open;
+    private long openVersion = -1;
+
+    ProjectViews(ProjectIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Returns the visible projects in list order.
+     *
+     * @return an unmodifiable list shared by all callers
+     */
+    synchronized List<Project> visible() {
+        // Read the version first: a change made while the list is built only makes the next call rebuild it again
+        long version = index.visibleVersion();
+        if (visible == null || version != visibleVersion) {
+            visible = Collections.unmodifiableList(index.projectsAt(index.visible()));
+            visibleVersion = version;
+        }
+        return visible;
+    }
+
+    /**
+     * Returns the visible projects whose application period includes a day, in list order.
+     *
+     * @param day the day
+     * @return an unmodifiable list shared by all callers
+     */
+    synchronized List<Project> openOn(LocalDate day) {
+        long version = index.openVersion(day);
+        if (open == null || version != openVersion) {
+            open = Collections.unmodifiableList(index.projectsAt(index.open(day, true)));
+            openVersion = version;
+        }
+        return open;
+    }
+}
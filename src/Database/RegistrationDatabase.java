@@ -3,21 +3,53 @@ package Database;
 import Entity.HDBOfficer;
 import Entity.Project;
 import Entity.Registration;
+import Entity.TrackedEntity;
+import util.ChunkedList;
+import util.DateRanges;
+import util.DenseIdTable;
+import util.IntervalTree;
+import util.VersionChain;
 
 import java.io.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Singleton class for managing registration records between HDB Officers and Projects.
  * Handles loading from and saving to a CSV file.
+ *
+ * <p>Registrations are indexed by ID in a {@link DenseIdTable} and by officer NRIC. The pending
+ * and approved registrations of each officer are kept in an {@link IntervalTree}
+ * keyed by the application period of the registered project, so date conflicts are found without
+ * walking the officer's registrations. The tree is updated whenever a registration or the dates of
+ * its project change.</p>
+ *
+ * <p>The registration list and its indexes are guarded by a read/write lock. Changes to a
+ * registration are guarded by the stripe lock of its project, see
+ * {@link ProjectDatabase#lockFor(Project)}.</p>
  */
 public class RegistrationDatabase {
     private static final RegistrationDatabase instance = new RegistrationDatabase();
-    private List<Registration> registrations = new ArrayList<>();
+    private final List<Registration> registrations = new ArrayList<>();
+    private final VersionChain<ChunkedList<Registration>> publishedRegistrations = VersionChain.always(ChunkedList.of());
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private static int nextId = 1000;
-    private static final String FILE_PATH = "data/RegistrationList.csv";
+    static final String FILE_PATH = "data/RegistrationList.csv";
+    static final String LOG_TABLE = "REGISTRATION";
+    private final DirtyTracker tracker = new DirtyTracker(entity -> reindex((Registration) entity));
+    private final Map<String, IntervalTree<Registration>> activeByOfficer = new HashMap<>();
+    private final Map<Registration, String> indexedOfficers = new IdentityHashMap<>();
+    private final DenseIdTable<Registration> byId = new DenseIdTable<>();
+    private final Map<String, Set<Registration>> byOfficer = new HashMap<>();
+    private final Map<Registration, String> officerOf = new IdentityHashMap<>();
 
     private RegistrationDatabase() {}
 
@@ -36,47 +68,157 @@ public class RegistrationDatabase {
      * @throws IOException if an I/O error occurs while reading the file
      */
     public void loadData() throws IOException {
-        registrations.clear();
-        File file = new File(FILE_PATH);
+        resolve(readRecords());
+    }
+
+    /**
+     * Parses the registration CSV file into raw records without resolving officers or projects.
+     * Rows with an invalid status are skipped.
+     *
+     * @return list of raw registration records, empty if the file does not exist
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    List<RegistrationRecord> readRecords() throws IOException {
+        return readRecords(Manifest.pathOf(FILE_PATH));
+    }
+
+    /**
+     * Parses a registration CSV file at the given path into raw records.
+     *
+     * @param filePath the path to the CSV file
+     * @return list of raw registration records, empty if the file does not exist
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    static List<RegistrationRecord> readRecords(String filePath) throws IOException {
+        List<RegistrationRecord> records = new ArrayList<>();
+        File file = new File(filePath);
         if (!file.exists()) {
-            return;
+            return records;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            boolean isHeader = true;
-            while ((line = reader.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
+        try (CsvReader in = CsvReader.open(file.getPath())) {
+            in.next(); // skip header
+            while (in.next()) {
+                RegistrationRecord record = readRow(in, 0);
+                if (record != null) {
+                    records.add(record);
                 }
+            }
+        }
+        return records;
+    }
 
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 5) {
-                    int id = Integer.parseInt(parts[0]);
-                    String officerNric = parts[1];
-                    String officerName = parts[2];
-                    String projectName = parts[3];
-                    String statusStr = parts[4];
-
-                    HDBOfficer officer = (HDBOfficer) UserDatabase.getInstance().findByNric(officerNric);
-                    Project project = ProjectDatabase.getInstance().findProjectByName(projectName);
-                    Registration.Status status;
-
-                    try {
-                        status = Registration.Status.valueOf(statusStr);
-                    } catch (IllegalArgumentException e) {
-                        continue; // Skip invalid enum value
-                    }
-
-                    if (officer != null && project != null && officer.getName().equals(officerName)) {
-                        Registration registration = new Registration(officer, project, status);
-                        registration.setId(id);
-                        registrations.add(registration);
-                        nextId = Math.max(nextId, id + 1);
-                    }
-                }
+    /**
+     * Parses the registration columns of the current CSV record.
+     *
+     * @param in    the reader positioned on the record
+     * @param first the index of the ID column
+     * @return the parsed record, or null if columns are missing or the status is invalid
+     */
+    static RegistrationRecord readRow(CsvReader in, int first) {
+        if (in.size() < first + 5) {
+            return null;
+        }
+        RegistrationRecord record = new RegistrationRecord();
+        record.status = in.getEnum(first + 4, Registration.Status.values());
+        if (record.status == null) {
+            return null; // Skip invalid enum value
+        }
+        record.id = in.getInt(first);
+        record.officerNric = in.getString(first + 1);
+        record.officerName = in.getString(first + 2);
+        record.projectName = in.getString(first + 3);
+        return record;
+    }
+
+    /**
+     * Writes the columns of a registration record, without ending the CSV record.
+     *
+     * @param out    the writer to append to
+     * @param record the record to write
+     * @throws IOException if an I/O error occurs while writing
+     */
+    static void writeRow(CsvWriter out, RegistrationRecord record) throws IOException {
+        out.field(record.id)
+                .field(record.officerNric)
+                .field(record.officerName)
+                .field(record.projectName)
+                .field(record.status);
+    }
+
+    /**
+     * Resolves raw registration records against the user and project indexes and
+     * replaces the in-memory registration list. Records whose officer or project cannot be found are skipped.
+     *
+     * @param records the raw records produced by {@link #readRecords()}
+     */
+    void resolve(List<RegistrationRecord> records) {
+        UserDatabase userDatabase = UserDatabase.getInstance();
+        ProjectDatabase projectDatabase = ProjectDatabase.getInstance();
+
+        List<Registration> resolved = new ArrayList<>(records.size());
+        for (RegistrationRecord record : records) {
+            HDBOfficer officer = userDatabase.findOfficerByNric(record.officerNric);
+            Project project = projectDatabase.findProjectByName(record.projectName);
+            if (officer != null && project != null && officer.getName().equals(record.officerName)) {
+                Registration registration = new Registration(officer, project, record.status);
+                registration.setId(record.id);
+                resolved.add(registration);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            registrations.clear();
+            clearIndex();
+            for (Registration registration : resolved) {
+                registrations.add(tracker.track(registration));
+                index(registration);
+                nextId = Math.max(nextId, registration.getId() + 1);
             }
+            publishedRegistrations.set(ChunkedList.copyOf(registrations));
+            tracker.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Converts a registration into a raw record holding its current values.
+     */
+    private static RegistrationRecord toRecord(Registration registration) {
+        RegistrationRecord record = new RegistrationRecord();
+        record.id = registration.getId();
+        record.officerNric = registration.getOfficer().getNric();
+        record.officerName = registration.getOfficer().getName();
+        record.projectName = registration.getProject().getName();
+        record.status = registration.getStatus();
+        return record;
+    }
+
+    /**
+     * Returns the read lock of the table, so that all tables can be copied as of one moment.
+     *
+     * @return the table's read lock
+     */
+    Lock tableReadLock() {
+        return lock.readLock();
+    }
+
+    /**
+     * Copies every registration into a raw record, e.g. so that a snapshot can be written on another thread.
+     *
+     * @return one record per registration in list order
+     */
+    List<RegistrationRecord> snapshotRecords() {
+        lock.readLock().lock();
+        try {
+            List<RegistrationRecord> records = new ArrayList<>(registrations.size());
+            for (Registration registration : registrations) {
+                records.add(toRecord(registration));
+            }
+            return records;
+        } finally {
+            lock.readLock().unlock();
         }
     }
 
@@ -86,30 +228,83 @@ public class RegistrationDatabase {
      * @throws IOException if an I/O error occurs while writing the file
      */
     public void saveData() throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_PATH))) {
-            writer.write("ID,Officer NRIC,Officer Name,Project Name,Status");
-            writer.newLine();
+        // Drain before copying the rows, so a change made meanwhile stays pending for the next save
+        DirtyTracker.Changes changes = tracker.drain();
+        List<RegistrationRecord> records = snapshotRecords();
+        try {
+            Manifest.writeTables(Map.of(FILE_PATH, out -> writeRecords(out, records)));
+        } catch (IOException e) {
+            tracker.restore(changes);
+            throw e;
+        }
+    }
 
-            for (Registration registration : registrations) {
-                String line = String.format("%d,%s,%s,%s,%s",
-                        registration.getId(),
-                        registration.getOfficer().getNric(),
-                        registration.getOfficer().getName(),
-                        registration.getProject().getName(),
-                        registration.getStatus().name());
-                writer.write(line);
-                writer.newLine();
+    /**
+     * Writes the header and the given registration records as the content of the CSV file.
+     *
+     * @param out     the writer of the new file
+     * @param records the records to write
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    static void writeRecords(CsvWriter out, List<RegistrationRecord> records) throws IOException {
+        out.header("ID", "Officer NRIC", "Officer Name", "Project Name", "Status");
+
+        for (RegistrationRecord record : records) {
+            writeRow(out, record);
+            out.endRecord();
+        }
+    }
+
+    /**
+     * Checks whether any registration has been added, removed or modified since the data was last loaded or saved.
+     *
+     * @return true if there are unsaved changes
+     */
+    public boolean hasChanges() {
+        return tracker.isDirty();
+    }
+
+    /**
+     * Saves the registrations to the CSV file only if they have changed since they were last loaded or saved.
+     *
+     * @return true if the file was written, false if there was nothing to save
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    public boolean saveChanges() throws IOException {
+        if (!tracker.isDirty()) {
+            return false;
+        }
+        saveData();
+        return true;
+    }
+
+    /**
+     * Marks the registrations as changed if any of them refers to a project that was renamed,
+     * since the project name is what the CSV file stores.
+     *
+     * @param project the renamed project
+     */
+    void projectRenamed(Project project) {
+        lock.readLock().lock();
+        try {
+            if (registrations.stream().anyMatch(x -> x.getProject() == project)) {
+                tracker.markDirty();
             }
+        } finally {
+            lock.readLock().unlock();
         }
     }
 
     /**
      * Returns all registrations in memory.
      *
-     * @return list of Registration objects
+     * The list is an immutable version published by the last addition, or the version of the
+     * current thread's {@link util.Snapshot} if one is open.
+     *
+     * @return immutable list of Registration objects; registrations are added through this database
      */
     public List<Registration> findAll() {
-        return registrations;
+        return publishedRegistrations.get();
     }
 
     /**
@@ -118,8 +313,84 @@ public class RegistrationDatabase {
      * @param registration the Registration object to add
      */
     public void addRegistration(Registration registration) {
-        registration.setId(nextId++);
-        registrations.add(registration);
+        lock.writeLock().lock();
+        try {
+            registration.setId(nextId++);
+            registrations.add(tracker.added(registration));
+            index(registration);
+            publishedRegistrations.set(publishedRegistrations.latest().plus(registration));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets all pending changes, e.g. after they were replayed from the write-ahead log.
+     */
+    void markClean() {
+        tracker.clear();
+    }
+
+    /**
+     * Appends the full rows of registrations added or modified since the last commit to the write-ahead log.
+     *
+     * @param out the log writer
+     * @return the number of log records written
+     * @throws IOException if an I/O error occurs while writing
+     */
+    int logChanges(CsvWriter out) throws IOException {
+        int count = 0;
+        DirtyTracker.Changes changes = tracker.drain();
+        for (TrackedEntity entity : changes.changed) {
+            out.field(LOG_TABLE).field(WriteAheadLog.UPSERT);
+            writeRow(out, toRecord((Registration) entity));
+            out.endRecord();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Parses a registration entry of the write-ahead log into an action that replays it.
+     * An upsert updates the registration with the same ID or adds it with that ID,
+     * so replaying is idempotent.
+     *
+     * @param operation the log operation
+     * @param in        the reader positioned on the log record, whose columns start at index 2
+     * @return the replay action, or null if the record is malformed
+     */
+    Runnable readLogEntry(String operation, CsvReader in) {
+        if (!operation.equals(WriteAheadLog.UPSERT)) {
+            return null;
+        }
+        RegistrationRecord record = readRow(in, 2);
+        if (record == null) {
+            return null;
+        }
+        return () -> {
+            HDBOfficer officer = UserDatabase.getInstance().findOfficerByNric(record.officerNric);
+            Project project = ProjectDatabase.getInstance().findProjectByName(record.projectName);
+            if (officer == null || project == null) {
+                return;
+            }
+            Registration registration = findById(record.id);
+            if (registration == null) {
+                registration = new Registration(officer, project, record.status);
+                registration.setId(record.id);
+                lock.writeLock().lock();
+                try {
+                    registrations.add(tracker.added(registration));
+                    index(registration);
+                    nextId = Math.max(nextId, record.id + 1);
+                    publishedRegistrations.set(publishedRegistrations.latest().plus(registration));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            registration.setOfficer(officer);
+            registration.setProject(project);
+            registration.setStatus(record.status);
+        };
     }
 
     /**
@@ -129,9 +400,139 @@ public class RegistrationDatabase {
      * @return list of matching Registration objects
      */
     public List<Registration> findByOfficerNric(String nric) {
-        return registrations.stream()
-                .filter(r -> r.getOfficer().getNric().equals(nric))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byOfficer.getOrDefault(nric, Set.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether an officer has a pending or approved registration for a project whose
+     * application period overlaps a date range.
+     *
+     * @param nric the NRIC of the officer
+     * @param from the first day of the range
+     * @param to   the last day of the range
+     * @return true if at least one such registration overlaps the range
+     */
+    public boolean hasActiveRegistrationDuring(String nric, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            IntervalTree<Registration> tree = activeByOfficer.get(nric);
+            return tree != null && tree.overlaps(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the days covered by the application periods of an officer's pending and approved
+     * registrations, so that many date ranges can be checked against them with one lookup.
+     *
+     * @param nric the NRIC of the officer
+     * @return the union of the periods; a new object the caller may add to
+     */
+    public DateRanges findActivePeriods(String nric) {
+        lock.readLock().lock();
+        try {
+            IntervalTree<Registration> tree = activeByOfficer.get(nric);
+            return tree == null ? new DateRanges() : tree.union();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes the registrations for a project after its opening or closing date changed.
+     *
+     * @param project the project whose application period changed
+     */
+    void projectPeriodChanged(Project project) {
+        lock.writeLock().lock();
+        try {
+            for (Registration registration : registrations) {
+                if (registration.getProject() == project) {
+                    updateIndex(registration);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a registration that was just added to the list to every index.
+     * The caller holds the write lock.
+     */
+    private void index(Registration registration) {
+        if (byId.get(registration.getId()) == null) {
+            byId.put(registration.getId(), registration); // the first registration with an ID wins
+        }
+        updateIndex(registration);
+    }
+
+    /**
+     * Moves a registration to the tree and the list of its current officer, dropping it from the
+     * tree if it was rejected.
+     */
+    private void reindex(Registration registration) {
+        lock.writeLock().lock();
+        try {
+            updateIndex(registration);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void updateIndex(Registration registration) {
+        String owner = registration.getOfficer() == null ? null : registration.getOfficer().getNric();
+        String indexedOwner = officerOf.get(registration);
+        if (indexedOwner == null || !indexedOwner.equals(owner)) {
+            if (indexedOwner != null) {
+                Set<Registration> set = byOfficer.get(indexedOwner);
+                set.remove(registration);
+                if (set.isEmpty()) {
+                    byOfficer.remove(indexedOwner);
+                }
+                officerOf.remove(registration);
+            }
+            if (owner != null) {
+                byOfficer.computeIfAbsent(owner, k -> new LinkedHashSet<>()).add(registration);
+                officerOf.put(registration, owner);
+            }
+        }
+
+        String previous = indexedOfficers.remove(registration);
+        if (previous != null) {
+            IntervalTree<Registration> tree = activeByOfficer.get(previous);
+            tree.remove(registration);
+            if (tree.isEmpty()) {
+                activeByOfficer.remove(previous);
+            }
+        }
+        if (registration.getStatus() == Registration.Status.REJECTED
+                || registration.getOfficer() == null || registration.getProject() == null) {
+            return;
+        }
+        Project project = registration.getProject();
+        String nric = registration.getOfficer().getNric();
+        IntervalTree<Registration> tree = activeByOfficer.computeIfAbsent(nric, k -> new IntervalTree<>());
+        tree.put(registration, project.getOpeningDate(), project.getClosingDate());
+        if (tree.contains(registration)) {
+            indexedOfficers.put(registration, nric);
+        } else if (tree.isEmpty()) {
+            activeByOfficer.remove(nric);
+        }
+    }
+
+    private void clearIndex() {
+        activeByOfficer.clear();
+        indexedOfficers.clear();
+        byId.clear();
+        byOfficer.clear();
+        officerOf.clear();
     }
 
     /**
@@ -141,8 +542,22 @@ public class RegistrationDatabase {
      * @return the matching Registration object, or null if not found
      */
     public Registration findById(int id) {
-        return registrations.stream()
-                .filter(r -> r.getId() == id)
-                .findFirst().orElse(null);
+        lock.readLock().lock();
+        try {
+            return byId.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A registration row as read from the CSV file, with the officer and project still referenced by key.
+     */
+    static class RegistrationRecord {
+        int id;
+        String officerNric;
+        String officerName;
+        String projectName;
+        Registration.Status status;
     }
 }
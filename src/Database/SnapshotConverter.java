@@ -0,0 +1,55 @@
+package Database;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Converts between the CSV files and the binary snapshot format of {@link BinarySnapshot}.
+ *
+ * <p>Usage:</p>
+ * <pre>
+ * java Database.SnapshotConverter import &lt;csv directory&gt; &lt;snapshot file&gt;
+ * java Database.SnapshotConverter export &lt;snapshot file&gt; &lt;csv directory&gt;
+ * </pre>
+ *
+ * <p>The CSV files use their usual names, e.g. {@code ProjectList.csv}. The converter works on
+ * the given paths only and does not change {@code data/MANIFEST}; an application started with
+ * {@code -Dbto.snapshot=binary} writes its own snapshot on startup when the manifest has none.</p>
+ */
+public class SnapshotConverter {
+    private SnapshotConverter() {}
+
+    /**
+     * Runs the converter.
+     *
+     * @param args the direction ({@code import} or {@code export}), the source and the target
+     */
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            printUsage();
+            return;
+        }
+        try {
+            switch (args[0]) {
+                case "import" -> {
+                    BinarySnapshot.Tables tables = BinarySnapshot.Tables.readCsv(Path.of(args[1]));
+                    BinarySnapshot.write(tables, Path.of(args[2]));
+                    System.out.println("Wrote snapshot " + args[2]);
+                }
+                case "export" -> {
+                    BinarySnapshot.Tables tables = BinarySnapshot.read(Path.of(args[1]));
+                    tables.writeCsv(Path.of(args[2]));
+                    System.out.println("Wrote CSV files to " + args[2]);
+                }
+                default -> printUsage();
+            }
+        } catch (IOException e) {
+            System.out.println("Error converting snapshot: " + e.getMessage());
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java Database.SnapshotConverter import <csv directory> <snapshot file>");
+        System.out.println("       java Database.SnapshotConverter export <snapshot file> <csv directory>");
+    }
+}
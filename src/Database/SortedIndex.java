@@ -0,0 +1,180 @@
+package Database;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A sorted array of (key, ordinal) pairs that answers range queries with two binary searches.
+ *
+ * <p>Each pair is packed into one long, with the key in the high 32 bits and the non-negative
+ * ordinal in the low 32 bits, so the natural order of the longs is the order by key and then by
+ * ordinal, and an entry can be found exactly with {@link Arrays#binarySearch(long[], int, int, long)}.
+ * Inserting or removing a single entry shifts the tail of the array; changing the key of an entry
+ * only shifts the entries between its old and new place.</p>
+ */
+final class SortedIndex {
+    private long[] entries = new long[16];
+    private int size;
+
+    /**
+     * Replaces the content of the index with the given pairs.
+     *
+     * @param keys     the keys
+     * @param ordinals the ordinals, one per key
+     * @param count    the number of pairs to use
+     */
+    void build(int[] keys, int[] ordinals, int count) {
+        entries = new long[Math.max(16, count)];
+        for (int i = 0; i < count; i++) {
+            entries[i] = pack(keys[i], ordinals[i]);
+        }
+        size = count;
+        Arrays.sort(entries, 0, size);
+    }
+
+    /**
+     * Adds a pair.
+     *
+     * @param key     the key
+     * @param ordinal the ordinal
+     */
+    void insert(int key, int ordinal) {
+        long entry = pack(key, ordinal);
+        int i = Arrays.binarySearch(entries, 0, size, entry);
+        if (i >= 0) {
+            return;
+        }
+        i = -i - 1;
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        System.arraycopy(entries, i, entries, i + 1, size - i);
+        entries[i] = entry;
+        size++;
+    }
+
+    /**
+     * Removes a pair if it is present.
+     *
+     * @param key     the key the pair was inserted with
+     * @param ordinal the ordinal
+     */
+    void remove(int key, int ordinal) {
+        int i = Arrays.binarySearch(entries, 0, size, pack(key, ordinal));
+        if (i >= 0) {
+            System.arraycopy(entries, i + 1, entries, i, size - i - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Changes the key of a pair, shifting only the pairs between its old and new position, so
+     * that a small change of a key, such as one unit taken by a booking, costs little.
+     *
+     * @param oldKey  the key the pair was inserted with
+     * @param newKey  the new key
+     * @param ordinal the ordinal
+     */
+    void move(int oldKey, int newKey, int ordinal) {
+        int i = Arrays.binarySearch(entries, 0, size, pack(oldKey, ordinal));
+        if (i < 0) {
+            insert(newKey, ordinal);
+            return;
+        }
+        long entry = pack(newKey, ordinal);
+        if (entry > entries[i]) {
+            int j = -Arrays.binarySearch(entries, i + 1, size, entry) - 1;
+            System.arraycopy(entries, i + 1, entries, i, j - i - 1);
+            entries[j - 1] = entry;
+        } else if (entry < entries[i]) {
+            int j = -Arrays.binarySearch(entries, 0, i, entry) - 1;
+            System.arraycopy(entries, j, entries, j + 1, i - j);
+            entries[j] = entry;
+        }
+    }
+
+    /**
+     * Removes every pair.
+     */
+    void clear() {
+        entries = new long[16];
+        size = 0;
+    }
+
+    /**
+     * Returns the number of pairs.
+     *
+     * @return the pair count
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Lists the selected ordinals in key order, skipping a number of them and stopping at a limit.
+     * Equal keys are listed in ordinal order in both directions, which is the order a stable sort
+     * of the ordinals would give them.
+     *
+     * @param selection  the ordinals to list
+     * @param descending whether to start from the largest key
+     * @param skip       the number of selected ordinals to skip
+     * @param limit      the maximum number of ordinals to return
+     * @return the ordinals, in order
+     */
+    int[] select(BitSet selection, boolean descending, int skip, int limit) {
+        int[] result = new int[Math.min(limit, selection.cardinality())];
+        int found = 0;
+        int seen = 0;
+        if (!descending) {
+            for (int i = 0; i < size && found < result.length; i++) {
+                int ordinal = (int) entries[i];
+                if (selection.get(ordinal) && seen++ >= skip) {
+                    result[found++] = ordinal;
+                }
+            }
+        } else {
+            int groupEnd = size;
+            while (groupEnd > 0 && found < result.length) {
+                // Walk the run of equal keys that ends at groupEnd forwards
+                int key = (int) (entries[groupEnd - 1] >> 32);
+                int groupStart = groupEnd - 1;
+                while (groupStart > 0 && (int) (entries[groupStart - 1] >> 32) == key) {
+                    groupStart--;
+                }
+                for (int i = groupStart; i < groupEnd && found < result.length; i++) {
+                    int ordinal = (int) entries[i];
+                    if (selection.get(ordinal) && seen++ >= skip) {
+                        result[found++] = ordinal;
+                    }
+                }
+                groupEnd = groupStart;
+            }
+        }
+        return found == result.length ? result : Arrays.copyOf(result, found);
+    }
+
+    /**
+     * Returns the ordinals whose key lies in a range.
+     *
+     * @param from the smallest key to include
+     * @param to   the largest key to include
+     * @return a new bitmap with the bits of the matching ordinals set
+     */
+    BitSet range(int from, int to) {
+        BitSet result = new BitSet();
+        if (from > to) {
+            return result;
+        }
+        // Neither bound can match an entry, since ordinals never use the top bit of the low half
+        int start = from == Integer.MIN_VALUE ? 0 : -Arrays.binarySearch(entries, 0, size, pack(from, 0) - 1) - 1;
+        int end = -Arrays.binarySearch(entries, 0, size, ((long) to << 32) | 0xFFFFFFFFL) - 1;
+        for (int i = start; i < end; i++) {
+            result.set((int) entries[i]);
+        }
+        return result;
+    }
+
+    private static long pack(int key, int ordinal) {
+        return ((long) key << 32) | ordinal;
+    }
+}
@@ -3,23 +3,54 @@ package Database;
 import Entity.Applicant;
 import Entity.HDBManager;
 import Entity.HDBOfficer;
+import Entity.TrackedEntity;
 import Entity.User;
 
+import util.ChunkedList;
+import util.StripedReadWriteLock;
+import util.VersionChain;
+
 import java.io.*;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * Singleton class that manages the loading, storing, and retrieval of user data,
  * including Applicants, HDB Officers, and HDB Managers.
+ *
+ * <p>The user lists and the NRIC index are guarded by a read/write lock. Changes made on behalf
+ * of a single user are guarded by the stripe lock of their NRIC, see {@link #lockFor(String)}.</p>
  */
 public class UserDatabase {
     private static final UserDatabase instance = new UserDatabase();
-    private List<Applicant> applicants = new ArrayList<>();
-    private List<HDBOfficer> officers = new ArrayList<>();
-    private List<HDBManager> managers = new ArrayList<>();
+    private final List<Applicant> applicants = new ArrayList<>();
+    private final List<HDBOfficer> officers = new ArrayList<>();
+    private final List<HDBManager> managers = new ArrayList<>();
+    private final VersionChain<ChunkedList<Applicant>> publishedApplicants = VersionChain.always(ChunkedList.of());
+    private final VersionChain<ChunkedList<HDBOfficer>> publishedOfficers = VersionChain.always(ChunkedList.of());
+    private final VersionChain<ChunkedList<HDBManager>> publishedManagers = VersionChain.always(ChunkedList.of());
+    private final Map<String, User> usersByNric = new HashMap<>();
+    // Projects refer to their manager and officers by name; the first user with a name wins
+    private final Map<String, HDBOfficer> officersByName = new HashMap<>();
+    private final Map<String, HDBManager> managersByName = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final StripedReadWriteLock stripes = new StripedReadWriteLock();
+    private final DirtyTracker applicantTracker = new DirtyTracker();
+    private final DirtyTracker officerTracker = new DirtyTracker();
+    private final DirtyTracker managerTracker = new DirtyTracker();
+    static final String APPLICANT_FILE = "data/ApplicantList.csv";
+    static final String OFFICER_FILE = "data/OfficerList.csv";
+    static final String MANAGER_FILE = "data/ManagerList.csv";
+    static final String LOG_TABLE = "USER";
 
     private UserDatabase() {}
 
@@ -38,14 +69,129 @@ public class UserDatabase {
      * @throws IOException if an error occurs while reading the CSV files
      */
     public void loadData() throws IOException {
-        applicants = readUser("data/ApplicantList.csv", User.UserRole.APPLICANT)
-                .stream().map(u -> (Applicant) u).collect(Collectors.toList());
+        setUsers(readUser(APPLICANT_FILE, User.UserRole.APPLICANT),
+                readUser(OFFICER_FILE, User.UserRole.OFFICER),
+                readUser(MANAGER_FILE, User.UserRole.MANAGER));
+    }
+
+    /**
+     * Replaces the in-memory user lists with already parsed users and rebuilds the NRIC index.
+     *
+     * @param applicants users read from the applicant file
+     * @param officers   users read from the officer file
+     * @param managers   users read from the manager file
+     */
+    void setUsers(List<User> applicants, List<User> officers, List<User> managers) {
+        lock.writeLock().lock();
+        try {
+            this.applicants.clear();
+            this.officers.clear();
+            this.managers.clear();
+            applicants.forEach(u -> this.applicants.add((Applicant) u));
+            officers.forEach(u -> this.officers.add((HDBOfficer) u));
+            managers.forEach(u -> this.managers.add((HDBManager) u));
+            rebuildIndex();
+            publish(User.UserRole.APPLICANT);
+            publish(User.UserRole.OFFICER);
+            publish(User.UserRole.MANAGER);
+            this.applicants.forEach(applicantTracker::track);
+            this.officers.forEach(officerTracker::track);
+            this.managers.forEach(managerTracker::track);
+            applicantTracker.clear();
+            officerTracker.clear();
+            managerTracker.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the tracker of the file that stores users of the given role.
+     */
+    private DirtyTracker trackerFor(User.UserRole role) {
+        return switch (role) {
+            case APPLICANT -> applicantTracker;
+            case OFFICER -> officerTracker;
+            case MANAGER -> managerTracker;
+        };
+    }
+
+    /**
+     * Publishes a new immutable version of the list of users with a role, copied from the stored
+     * list. The caller holds the write lock.
+     */
+    private void publish(User.UserRole role) {
+        switch (role) {
+            case APPLICANT -> publishedApplicants.set(ChunkedList.copyOf(applicants));
+            case OFFICER -> publishedOfficers.set(ChunkedList.copyOf(officers));
+            case MANAGER -> publishedManagers.set(ChunkedList.copyOf(managers));
+        }
+    }
+
+    /**
+     * Publishes a version of the list of users with a role that has one user more. Only the
+     * chunk the user lands in is copied. The caller holds the write lock.
+     */
+    private void publishAdded(User user) {
+        switch (user.getRole()) {
+            case APPLICANT -> publishedApplicants.set(publishedApplicants.latest().plus((Applicant) user));
+            case OFFICER -> publishedOfficers.set(publishedOfficers.latest().plus((HDBOfficer) user));
+            case MANAGER -> publishedManagers.set(publishedManagers.latest().plus((HDBManager) user));
+        }
+    }
+
+    /**
+     * Publishes a version of the list of users with a role that has one user less. Only the
+     * chunk the user is removed from is copied. The caller holds the write lock.
+     */
+    private void publishRemoved(User user) {
+        switch (user.getRole()) {
+            case APPLICANT -> publishedApplicants.set(publishedApplicants.latest().minus(user));
+            case OFFICER -> publishedOfficers.set(publishedOfficers.latest().minus(user));
+            case MANAGER -> publishedManagers.set(publishedManagers.latest().minus(user));
+        }
+    }
+
+    /**
+     * Rebuilds the NRIC and name indexes from the applicant, officer and manager lists.
+     * If an NRIC or name appears more than once, the first user in that order is kept.
+     */
+    private void rebuildIndex() {
+        usersByNric.clear();
+        officersByName.clear();
+        managersByName.clear();
+        applicants.forEach(a -> usersByNric.putIfAbsent(a.getNric(), a));
+        officers.forEach(o -> usersByNric.putIfAbsent(o.getNric(), o));
+        managers.forEach(m -> usersByNric.putIfAbsent(m.getNric(), m));
+        officers.forEach(o -> officersByName.putIfAbsent(o.getName(), o));
+        managers.forEach(m -> managersByName.putIfAbsent(m.getName(), m));
+    }
 
-        officers = readUser("data/OfficerList.csv", User.UserRole.OFFICER)
-                .stream().map(u -> (HDBOfficer) u).collect(Collectors.toList());
+    /**
+     * Returns the first user of a list with a name, e.g. to re-index a name after its indexed user was removed.
+     */
+    private static <U extends User> U firstNamed(List<U> users, String name) {
+        for (U user : users) {
+            if (user.getName().equals(name)) {
+                return user;
+            }
+        }
+        return null;
+    }
 
-        managers = readUser("data/ManagerList.csv", User.UserRole.MANAGER)
-                .stream().map(u -> (HDBManager) u).collect(Collectors.toList());
+    /**
+     * Returns the first user with an NRIC in the order {@link #rebuildIndex()} indexes them, so that a
+     * duplicate NRIC loaded from the data files takes over the index when the indexed user is removed.
+     */
+    private User firstWithNric(String nric) {
+        for (List<? extends User> users : List.of(applicants, officers, managers)) {
+            for (User user : users) {
+                if (user.getNric().equals(nric)) {
+                    return user;
+                }
+            }
+        }
+        return null;
     }
 
     /**
@@ -58,109 +204,282 @@ public class UserDatabase {
      */
     public List<User> readUser(String filePath, User.UserRole role) throws IOException {
         List<User> users = new ArrayList<>();
-        BufferedReader br = new BufferedReader(new FileReader(filePath));
-
-        String line;
-        boolean isHeader = true;
-        while ((line = br.readLine()) != null) {
-            if (isHeader) {
-                isHeader = false;
-                continue;
-            }
-            String[] data = line.split(",");
-            String name = data[0].trim();
-            String nric = data[1].trim();
-            int age = Integer.parseInt(data[2].trim());
-            String status = data[3].trim().toUpperCase();
-            String password = data[4].trim();
-
-            User user;
-            switch (role) {
-                case APPLICANT -> user = new Applicant(name, nric, age, status, password);
-                case OFFICER -> user = new HDBOfficer(name, nric, age, status, password);
-                case MANAGER -> user = new HDBManager(name, nric, age, status, password);
-                default -> throw new IllegalArgumentException("Invalid role");
-            }
-            users.add(user);
+        for (UserRecord record : readRecords(Manifest.pathOf(filePath))) {
+            users.add(createUser(role, record));
         }
-        br.close();
         return users;
     }
 
     /**
-     * Saves all current user data to the CSV file.
+     * Parses a user CSV file at the given path into raw records.
      *
-     * @throws IOException if an I/O error occurs while writing the file
+     * @param filePath the path to the CSV file
+     * @return list of raw user records in file order
+     * @throws IOException if an error occurs while reading the file
      */
-    public void saveData() throws IOException {
-        File directory = new File("data");
-        if (!directory.exists()) {
-            directory.mkdir();
+    static List<UserRecord> readRecords(String filePath) throws IOException {
+        List<UserRecord> records = new ArrayList<>();
+        try (CsvReader in = CsvReader.open(filePath)) {
+            in.next(); // skip header
+            while (in.next()) {
+                records.add(readRow(in, 0));
+            }
         }
+        return records;
+    }
+
+    /**
+     * Parses the user columns of the current CSV record.
+     *
+     * @param in    the reader positioned on the record
+     * @param first the index of the name column
+     * @return the parsed record
+     */
+    static UserRecord readRow(CsvReader in, int first) {
+        UserRecord record = new UserRecord();
+        record.name = in.getString(first);
+        record.nric = in.getString(first + 1);
+        record.age = in.getInt(first + 2);
+        record.maritalStatus = in.getString(first + 3).toUpperCase();
+        record.password = in.getString(first + 4);
+        return record;
+    }
+
+    /**
+     * Writes the columns of a user record, without ending the CSV record.
+     *
+     * @param out    the writer to append to
+     * @param record the record to write
+     * @throws IOException if an error occurs while writing
+     */
+    static void writeRow(CsvWriter out, UserRecord record) throws IOException {
+        out.field(record.name)
+                .field(record.nric)
+                .field(record.age)
+                .field(record.maritalStatus)
+                .field(record.password);
+    }
 
-        saveApplicants();
-        saveOfficers();
-        saveManagers();
+    /**
+     * Creates a user of the given role from a raw record.
+     */
+    static User createUser(User.UserRole role, UserRecord record) {
+        return switch (role) {
+            case APPLICANT -> new Applicant(record.name, record.nric, record.age, record.maritalStatus, record.password);
+            case OFFICER -> new HDBOfficer(record.name, record.nric, record.age, record.maritalStatus, record.password);
+            case MANAGER -> new HDBManager(record.name, record.nric, record.age, record.maritalStatus, record.password);
+        };
     }
 
-    private void saveApplicants() throws IOException {
-        File file = new File("data/ApplicantList.csv");
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+    /**
+     * Converts a user into a raw record holding their current values.
+     */
+    private static UserRecord toRecord(User user) {
+        UserRecord record = new UserRecord();
+        record.name = user.getName();
+        record.nric = user.getNric();
+        record.age = user.getAge();
+        record.maritalStatus = user.getMaritalStatus();
+        record.password = user.getPassword();
+        return record;
+    }
 
-            writer.write("Name,NRIC,Age,Marital Status,Password");
-            writer.newLine();
+    /**
+     * Returns the read lock of the table, so that all tables can be copied as of one moment.
+     *
+     * @return the table's read lock
+     */
+    Lock tableReadLock() {
+        return lock.readLock();
+    }
 
-            for (Applicant applicant : applicants) {
-                if (applicant.getRole() == User.UserRole.APPLICANT) {
-                    String line = String.format("%s,%s,%d,%s,%s",
-                            applicant.getName(),
-                            applicant.getNric(),
-                            applicant.getAge(),
-                            applicant.getMaritalStatus(),
-                            applicant.getPassword());
-                    writer.write(line);
-                    writer.newLine();
+    /**
+     * Copies every user of a role into a raw record, e.g. so that a snapshot can be written on another thread.
+     *
+     * @param role the role whose file the records belong to
+     * @return one record per user of that role in list order
+     */
+    List<UserRecord> snapshotRecords(User.UserRole role) {
+        lock.readLock().lock();
+        try {
+            List<? extends User> users = switch (role) {
+                case APPLICANT -> applicants;
+                case OFFICER -> officers;
+                case MANAGER -> managers;
+            };
+            List<UserRecord> records = new ArrayList<>(users.size());
+            for (User user : users) {
+                if (user.getRole() == role) {
+                    records.add(toRecord(user));
                 }
             }
+            return records;
+        } finally {
+            lock.readLock().unlock();
         }
     }
 
-    private void saveOfficers() throws IOException {
-        File file = new File("data/OfficerList.csv");
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+    /**
+     * Saves all current user data to the CSV file.
+     *
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    public void saveData() throws IOException {
+        saveRoles(List.of(User.UserRole.values()));
+    }
 
-            writer.write("Name,NRIC,Age,Marital Status,Password");
-            writer.newLine();
+    /**
+     * Checks whether any user has been added, removed or modified since the data was last loaded or saved.
+     *
+     * @return true if there are unsaved changes
+     */
+    public boolean hasChanges() {
+        return applicantTracker.isDirty() || officerTracker.isDirty() || managerTracker.isDirty();
+    }
 
-            for (HDBOfficer officer : officers) {
-                String line = String.format("%s,%s,%d,%s,%s",
-                        officer.getName(),
-                        officer.getNric(),
-                        officer.getAge(),
-                        officer.getMaritalStatus(),
-                        officer.getPassword());
-                writer.write(line);
-                writer.newLine();
+    /**
+     * Saves only the user files whose users have changed since they were last loaded or saved.
+     *
+     * @return true if at least one file was written, false if there was nothing to save
+     * @throws IOException if an I/O error occurs while writing the files
+     */
+    public boolean saveChanges() throws IOException {
+        List<User.UserRole> changed = new ArrayList<>();
+        for (User.UserRole role : User.UserRole.values()) {
+            if (trackerFor(role).isDirty()) {
+                changed.add(role);
             }
         }
+        if (changed.isEmpty()) {
+            return false;
+        }
+        saveRoles(changed);
+        return true;
     }
 
-    private void saveManagers() throws IOException {
-        File file = new File("data/ManagerList.csv");
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+    /**
+     * Writes the user files of the given roles as one new generation and marks them as saved.
+     */
+    private void saveRoles(List<User.UserRole> roles) throws IOException {
+        // Drain before copying the rows, so a change made meanwhile stays pending for the next save
+        Map<User.UserRole, DirtyTracker.Changes> changes = new EnumMap<>(User.UserRole.class);
+        Map<String, Manifest.TableWriter> tables = new LinkedHashMap<>();
+        for (User.UserRole role : roles) {
+            changes.put(role, trackerFor(role).drain());
+            List<UserRecord> records = snapshotRecords(role);
+            tables.put(fileFor(role), out -> writeRecords(out, records));
+        }
+        try {
+            Manifest.writeTables(tables);
+        } catch (IOException e) {
+            changes.forEach((role, drained) -> trackerFor(role).restore(drained));
+            throw e;
+        }
+    }
 
-            writer.write("Name,NRIC,Age,Marital Status,Password");
-            writer.newLine();
+    /**
+     * Returns the plain path of the file that stores users of the given role.
+     *
+     * @param role the user role
+     * @return the CSV file of that role
+     */
+    static String fileFor(User.UserRole role) {
+        return switch (role) {
+            case APPLICANT -> APPLICANT_FILE;
+            case OFFICER -> OFFICER_FILE;
+            case MANAGER -> MANAGER_FILE;
+        };
+    }
+
+    /**
+     * Writes the header and the given user records as the content of a user CSV file.
+     *
+     * @param out     the writer of the new file
+     * @param records the records to write
+     * @throws IOException if an I/O error occurs while writing the file
+     */
+    static void writeRecords(CsvWriter out, List<UserRecord> records) throws IOException {
+        out.header("Name", "NRIC", "Age", "Marital Status", "Password");
+
+        for (UserRecord record : records) {
+            writeRow(out, record);
+            out.endRecord();
+        }
+    }
+
+    /**
+     * Forgets all pending changes, e.g. after they were replayed from the write-ahead log.
+     */
+    void markClean() {
+        applicantTracker.clear();
+        officerTracker.clear();
+        managerTracker.clear();
+    }
 
-            for (HDBManager manager : managers) {
-                String line = String.format("%s,%s,%d,%s,%s",
-                        manager.getName(),
-                        manager.getNric(),
-                        manager.getAge(),
-                        manager.getMaritalStatus(),
-                        manager.getPassword());
-                writer.write(line);
-                writer.newLine();
+    /**
+     * Appends the user changes made since the last commit to the write-ahead log:
+     * the role and full row of every added or modified user, then the NRICs of removed users.
+     *
+     * @param out the log writer
+     * @return the number of log records written
+     * @throws IOException if an I/O error occurs while writing
+     */
+    int logChanges(CsvWriter out) throws IOException {
+        int count = 0;
+        for (DirtyTracker tracker : new DirtyTracker[] {applicantTracker, officerTracker, managerTracker}) {
+            DirtyTracker.Changes changes = tracker.drain();
+            for (TrackedEntity entity : changes.changed) {
+                User user = (User) entity;
+                out.field(LOG_TABLE).field(WriteAheadLog.UPSERT).field(user.getRole());
+                writeRow(out, toRecord(user));
+                out.endRecord();
+                count++;
+            }
+            for (TrackedEntity entity : changes.removed) {
+                out.field(LOG_TABLE).field(WriteAheadLog.DELETE).field(((User) entity).getNric()).endRecord();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Parses a user entry of the write-ahead log into an action that replays it.
+     * An upsert adds the user if the NRIC is unknown and otherwise updates the password,
+     * the only user field that can change; deleting an unknown NRIC does nothing.
+     *
+     * @param operation the log operation
+     * @param in        the reader positioned on the log record, whose columns start at index 2
+     * @return the replay action, or null if the record is malformed
+     */
+    Runnable readLogEntry(String operation, CsvReader in) {
+        switch (operation) {
+            case WriteAheadLog.UPSERT -> {
+                User.UserRole role = in.getEnum(2, User.UserRole.values());
+                if (role == null) {
+                    return null;
+                }
+                UserRecord record = readRow(in, 3);
+                return () -> {
+                    User user = findByNric(record.nric);
+                    if (user == null) {
+                        addUser(createUser(role, record));
+                    } else {
+                        user.setPassword(record.password);
+                    }
+                };
+            }
+            case WriteAheadLog.DELETE -> {
+                String nric = in.getString(2);
+                return () -> {
+                    User user = findByNric(nric);
+                    if (user != null) {
+                        removeUser(user);
+                    }
+                };
+            }
+            default -> {
+                return null;
             }
         }
     }
@@ -168,28 +487,37 @@ public class UserDatabase {
     /**
      * Returns a list of all applicants.
      *
-     * @return list of Applicant objects
+     * The list is an immutable version published by the last change, or the version of the
+     * current thread's {@link util.Snapshot} if one is open.
+     *
+     * @return immutable list of Applicant objects; users are added and removed through this database
      */
     public List<Applicant> findApplicants() {
-        return applicants;
+        return publishedApplicants.get();
     }
 
     /**
      * Returns a list of all HDB officers.
      *
-     * @return list of HDBOfficer objects
+     * The list is an immutable version published by the last change, or the version of the
+     * current thread's {@link util.Snapshot} if one is open.
+     *
+     * @return immutable list of HDBOfficer objects; users are added and removed through this database
      */
     public List<HDBOfficer> findOfficers() {
-        return officers;
+        return publishedOfficers.get();
     }
 
     /**
      * Returns a list of all HDB managers.
      *
-     * @return list of HDBManager objects
+     * The list is an immutable version published by the last change, or the version of the
+     * current thread's {@link util.Snapshot} if one is open.
+     *
+     * @return immutable list of HDBManager objects; users are added and removed through this database
      */
     public List<HDBManager> findManagers() {
-        return managers;
+        return publishedManagers.get();
     }
 
     /**
@@ -198,9 +526,43 @@ public class UserDatabase {
      * @return list of all User objects
      */
     public List<User> findUsers() {
-        return Stream.of(findApplicants(), findOfficers(), findManagers())
-                .flatMap(List::stream)
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return Stream.of(applicants, officers, managers)
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the lock that guards changes made on behalf of a user, such as changing their
+     * password or submitting their application. NRICs map to a fixed set of lock stripes, so
+     * changes for different users usually run in parallel.
+     *
+     * @param nric the NRIC of the user
+     * @return the read/write lock of the NRIC's stripe
+     */
+    public ReadWriteLock lockFor(String nric) {
+        return stripes.get(nric);
+    }
+
+    /**
+     * Runs a change on behalf of a user while holding the write lock of its stripe, so that it does not
+     * interleave with other changes for the same user.
+     *
+     * @param nric   the NRIC of the user
+     * @param change the change, which may throw to abort it
+     */
+    public void update(String nric, Runnable change) {
+        Lock lock = lockFor(nric).writeLock();
+        lock.lock();
+        try {
+            change.run();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -210,8 +572,157 @@ public class UserDatabase {
      * @return the matching User object, or null if not found
      */
     public User findByNric(String nric) {
-        return findUsers().stream()
-                .filter(user -> user.getNric().equals(nric))
-                .findFirst().orElse(null);
+        lock.readLock().lock();
+        try {
+            return usersByNric.get(nric);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds an applicant by their NRIC.
+     *
+     * @param nric the NRIC of the applicant
+     * @return the matching Applicant, or null if no applicant has this NRIC
+     */
+    public Applicant findApplicantByNric(String nric) {
+        User user = findByNric(nric);
+        return user != null && user.getRole() == User.UserRole.APPLICANT ? (Applicant) user : null;
+    }
+
+    /**
+     * Finds an HDB officer by their NRIC.
+     *
+     * @param nric the NRIC of the officer
+     * @return the matching HDBOfficer, or null if no officer has this NRIC
+     */
+    public HDBOfficer findOfficerByNric(String nric) {
+        User user = findByNric(nric);
+        return user != null && user.getRole() == User.UserRole.OFFICER ? (HDBOfficer) user : null;
+    }
+
+    /**
+     * Finds an HDB manager by their NRIC.
+     *
+     * @param nric the NRIC of the manager
+     * @return the matching HDBManager, or null if no manager has this NRIC
+     */
+    public HDBManager findManagerByNric(String nric) {
+        User user = findByNric(nric);
+        return user != null && user.getRole() == User.UserRole.MANAGER ? (HDBManager) user : null;
+    }
+
+    /**
+     * Finds an HDB officer by name, as projects refer to their officers.
+     *
+     * @param name the name of the officer
+     * @return the first officer with this name, or null if there is none
+     */
+    public HDBOfficer findOfficerByName(String name) {
+        lock.readLock().lock();
+        try {
+            return officersByName.get(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds an HDB manager by name, as projects refer to their manager.
+     *
+     * @param name the name of the manager
+     * @return the first manager with this name, or null if there is none
+     */
+    public HDBManager findManagerByName(String name) {
+        lock.readLock().lock();
+        try {
+            return managersByName.get(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a user to the list matching their role and indexes them by NRIC.
+     *
+     * @param user the user to add
+     * @throws IllegalArgumentException if another user already has the same NRIC
+     */
+    public void addUser(User user) {
+        lock.writeLock().lock();
+        try {
+            if (usersByNric.containsKey(user.getNric())) {
+                throw new IllegalArgumentException("A user with NRIC " + user.getNric() + " already exists.");
+            }
+            switch (user.getRole()) {
+                case APPLICANT -> applicants.add((Applicant) user);
+                case OFFICER -> {
+                    officers.add((HDBOfficer) user);
+                    officersByName.putIfAbsent(user.getName(), (HDBOfficer) user);
+                }
+                case MANAGER -> {
+                    managers.add((HDBManager) user);
+                    managersByName.putIfAbsent(user.getName(), (HDBManager) user);
+                }
+            }
+            usersByNric.put(user.getNric(), user);
+            trackerFor(user.getRole()).added(user);
+            publishAdded(user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a user from the database and from the NRIC index. If the data files held another
+     * user with the same NRIC, that user is indexed in its place.
+     *
+     * @param user the user to remove
+     */
+    public void removeUser(User user) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = switch (user.getRole()) {
+                case APPLICANT -> applicants.remove(user);
+                case OFFICER -> officers.remove(user);
+                case MANAGER -> managers.remove(user);
+            };
+            if (removed) {
+                if (usersByNric.remove(user.getNric(), user)) {
+                    User next = firstWithNric(user.getNric());
+                    if (next != null) {
+                        usersByNric.put(user.getNric(), next);
+                    }
+                }
+                String name = user.getName();
+                if (user.getRole() == User.UserRole.OFFICER && officersByName.remove(name, user)) {
+                    HDBOfficer next = firstNamed(officers, name);
+                    if (next != null) {
+                        officersByName.put(name, next);
+                    }
+                } else if (user.getRole() == User.UserRole.MANAGER && managersByName.remove(name, user)) {
+                    HDBManager next = firstNamed(managers, name);
+                    if (next != null) {
+                        managersByName.put(name, next);
+                    }
+                }
+                trackerFor(user.getRole()).removed(user);
+                publishRemoved(user);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A user row as read from a CSV file.
+     */
+    static class UserRecord {
+        String name;
+        String nric;
+        int age;
+        String maritalStatus;
+        String password;
     }
 }
@@ -0,0 +1,269 @@
+package Database;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Singleton append-only log of committed changes, kept next to the CSV snapshots.
+ *
+ * <p>A commit appends one CSV record per changed row, tagged with its table and an operation
+ * ({@code UPSERT} with the full row, {@code DELETE} with the key, or {@code RENAME} for projects),
+ * followed by a {@code COMMIT,<count>} record, and forces the log to disk. Every operation is
+ * idempotent, so on startup the log can simply be replayed on top of the last snapshot; a batch
+ * whose {@code COMMIT} record is missing or does not match was cut off by a crash and is ignored.</p>
+ *
+ * <p>The log is split into numbered segment files. Once the active segment passes
+ * {@link #COMPACTION_THRESHOLD} it is sealed, the in-memory tables are copied into raw records,
+ * and a background thread writes them out as a new snapshot generation (see {@link Manifest})
+ * and then deletes the sealed segments. Each startup begins a new segment, so new commits never
+ * follow a torn batch.</p>
+ *
+ * <p>Commits are refused until the log has been replayed. If loading fails before or during the
+ * replay, the segments on disk may hold changes that are not in memory; appending to them, or
+ * compacting the partial tables over them, would lose those changes.</p>
+ */
+public class WriteAheadLog {
+    static final String UPSERT = "UPSERT";
+    static final String DELETE = "DELETE";
+    static final String RENAME = "RENAME";
+    private static final String COMMIT = "COMMIT";
+
+    private static final String LOG_DIRECTORY = "data";
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final long COMPACTION_THRESHOLD = 1024 * 1024;
+
+    private static final WriteAheadLog instance = new WriteAheadLog();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "log-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long activeSegment = 1;
+    private boolean replayed;
+
+    private WriteAheadLog() {}
+
+    /**
+     * Returns the singleton instance of WriteAheadLog.
+     *
+     * @return the single WriteAheadLog instance
+     */
+    public static WriteAheadLog getInstance() {
+        return instance;
+    }
+
+    /**
+     * Replays every committed batch in the log on top of the loaded snapshots, oldest segment first,
+     * then starts a new segment for the commits of this run.
+     *
+     * @return the number of log records applied
+     * @throws IOException if a segment cannot be read
+     */
+    synchronized int replay() throws IOException {
+        List<Long> segments = listSegments();
+        int applied = 0;
+        long size = 0;
+        for (long segment : segments) {
+            Path path = segmentPath(segment);
+            applied += replaySegment(path);
+            size += Files.size(path);
+        }
+
+        // Replaying went through the normal update methods; none of it needs to be logged again
+        UserDatabase.getInstance().markClean();
+        ProjectDatabase.getInstance().markClean();
+        RegistrationDatabase.getInstance().markClean();
+        ApplicationDatabase.getInstance().markClean();
+        EnquiryDatabase.getInstance().markClean();
+
+        activeSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1;
+        // A missing binary snapshot is written now, so the next start can load it
+        if (size > COMPACTION_THRESHOLD
+                || BinarySnapshot.isEnabled() && !Manifest.contains(BinarySnapshot.FILE_PATH)) {
+            scheduleCompaction(activeSegment - 1);
+        }
+        replayed = true;
+        return applied;
+    }
+
+    /**
+     * Replays the complete batches of one segment.
+     */
+    private int replaySegment(Path path) throws IOException {
+        int applied = 0;
+        List<Runnable> batch = new ArrayList<>();
+        boolean valid = true;
+
+        try (CsvReader in = CsvReader.open(path.toString())) {
+            while (in.next()) {
+                String table = in.getString(0);
+                if (table.equals(COMMIT)) {
+                    if (valid && in.size() > 1 && in.getString(1).equals(String.valueOf(batch.size()))) {
+                        batch.forEach(Runnable::run);
+                        applied += batch.size();
+                    }
+                    batch.clear();
+                    valid = true;
+                    continue;
+                }
+
+                Runnable action = null;
+                if (in.size() > 1) {
+                    try {
+                        action = readEntry(table, in.getString(1), in);
+                    } catch (RuntimeException e) {
+                        action = null; // torn or corrupt record
+                    }
+                }
+                if (action == null) {
+                    valid = false;
+                } else {
+                    batch.add(action);
+                }
+            }
+        }
+        // A trailing batch without its COMMIT record was cut off and is dropped
+        return applied;
+    }
+
+    /**
+     * Dispatches a log record to the database that owns its table.
+     */
+    private Runnable readEntry(String table, String operation, CsvReader in) {
+        return switch (table) {
+            case UserDatabase.LOG_TABLE -> UserDatabase.getInstance().readLogEntry(operation, in);
+            case ProjectDatabase.LOG_TABLE -> ProjectDatabase.getInstance().readLogEntry(operation, in);
+            case RegistrationDatabase.LOG_TABLE -> RegistrationDatabase.getInstance().readLogEntry(operation, in);
+            case ApplicationDatabase.LOG_TABLE -> ApplicationDatabase.getInstance().readLogEntry(operation, in);
+            case EnquiryDatabase.LOG_TABLE -> EnquiryDatabase.getInstance().readLogEntry(operation, in);
+            default -> null;
+        };
+    }
+
+    /**
+     * Appends every change made since the last commit to the log as one batch and forces it to disk.
+     * Tables are logged in dependency order so that replay can resolve references.
+     * Schedules a compaction once the active segment grows past the threshold.
+     *
+     * @return true if anything was written, false if there were no changes
+     * @throws IOException if the log cannot be written, or has not been replayed in this run
+     */
+    public synchronized boolean commit() throws IOException {
+        UserDatabase userDatabase = UserDatabase.getInstance();
+        ProjectDatabase projectDatabase = ProjectDatabase.getInstance();
+        RegistrationDatabase registrationDatabase = RegistrationDatabase.getInstance();
+        ApplicationDatabase applicationDatabase = ApplicationDatabase.getInstance();
+        EnquiryDatabase enquiryDatabase = EnquiryDatabase.getInstance();
+
+        if (!userDatabase.hasChanges() && !projectDatabase.hasChanges() && !registrationDatabase.hasChanges()
+                && !applicationDatabase.hasChanges() && !enquiryDatabase.hasChanges()) {
+            return false;
+        }
+        if (!replayed) {
+            throw new IOException("The data was not fully loaded, so changes are not saved to protect the existing log.");
+        }
+
+        Files.createDirectories(Path.of(LOG_DIRECTORY));
+        Path path = segmentPath(activeSegment);
+        try (CsvWriter out = CsvWriter.append(path.toString())) {
+            int count = userDatabase.logChanges(out);
+            count += projectDatabase.logChanges(out);
+            count += registrationDatabase.logChanges(out);
+            count += applicationDatabase.logChanges(out);
+            count += enquiryDatabase.logChanges(out);
+            if (count == 0) {
+                return false;
+            }
+            out.field(COMMIT).field(count).endRecord();
+            out.sync();
+        }
+
+        if (Files.size(path) > COMPACTION_THRESHOLD) {
+            scheduleCompaction(activeSegment++);
+        }
+        return true;
+    }
+
+    /**
+     * Copies the current tables and hands them to the compactor thread, which writes them as
+     * the new CSV snapshots, plus the binary snapshot when it is enabled, and then deletes all
+     * segments up to and including {@code lastSegment}. Must be called right after a commit or
+     * replay, so the copy holds exactly the committed state.
+     */
+    private void scheduleCompaction(long lastSegment) {
+        BinarySnapshot.Tables tables = BinarySnapshot.Tables.capture();
+        boolean binary = BinarySnapshot.isEnabled();
+
+        compactor.execute(() -> {
+            try {
+                // All tables, and the binary snapshot if enabled, move to the new generation together
+                Map<String, Manifest.FileWriter> files = new LinkedHashMap<>();
+                tables.csvTables().forEach((table, writer) -> files.put(table, Manifest.csv(writer)));
+                if (binary) {
+                    files.put(BinarySnapshot.FILE_PATH, file -> BinarySnapshot.write(tables, file));
+                }
+                Manifest.writeFiles(files);
+
+                for (long segment : listSegments()) {
+                    if (segment <= lastSegment) {
+                        Files.deleteIfExists(segmentPath(segment));
+                    }
+                }
+            } catch (IOException e) {
+                // The segments are kept, so nothing is lost; the next compaction tries again
+                System.out.println("Error compacting log: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Waits for any running compaction to finish. Call before the application exits.
+     */
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the numbers of all segment files in ascending order.
+     */
+    private static List<Long> listSegments() throws IOException {
+        List<Long> segments = new ArrayList<>();
+        Path directory = Path.of(LOG_DIRECTORY);
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                String number = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                try {
+                    segments.add(Long.parseLong(number));
+                } catch (NumberFormatException e) {
+                    // not a segment file
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static Path segmentPath(long segment) {
+        return Path.of(LOG_DIRECTORY, String.format("%s%06d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+}
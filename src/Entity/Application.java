@@ -1,10 +1,16 @@
 package Entity;
 
+import util.VersionChain;
+
 /**
  * Represents an application submitted by a user for an HDB project.
  * Includes details such as the applicant, project, application status, flat type, and withdrawal flag.
+ *
+ * <p>The status and withdrawal flag change over time and are kept as immutable versions in a
+ * {@link VersionChain}: a change publishes a new version, and a thread with an open
+ * {@link util.Snapshot} keeps reading the version of its snapshot.</p>
  */
-public class Application {
+public class Application extends TrackedEntity {
 
     /**
      * Enum representing the status of an application.
@@ -17,19 +23,61 @@ public class Application {
      * Enum representing the type of flat applied for.
      */
     public enum FlatType {
-        TWO_ROOM, THREE_ROOM
+        TWO_ROOM("2-Room"), THREE_ROOM("3-Room");
+
+        private static final FlatType[] VALUES = values();
+        private final String label;
+
+        FlatType(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the label used for this flat type in project data, e.g. "2-Room".
+         *
+         * @return the display label
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Finds the flat type with the given label.
+         *
+         * @param label the label, e.g. "3-Room"
+         * @return the matching flat type, or null if there is none
+         */
+        public static FlatType fromLabel(String label) {
+            for (FlatType flatType : VALUES) {
+                if (flatType.label.equals(label)) {
+                    return flatType;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One version of the changing fields of an application.
+     */
+    private static final class State {
+        final ApplicationStatus status;
+        final boolean withdrawal;
+
+        State(ApplicationStatus status, boolean withdrawal) {
+            this.status = status;
+            this.withdrawal = withdrawal;
+        }
     }
 
     private User user;
 
     private Project project;
 
-    private ApplicationStatus status;
+    private final VersionChain<State> state;
 
     private FlatType flatType;
 
-    private boolean withdrawal = false;
-
     /**
      * Constructs a new Application instance.
      *
@@ -41,7 +89,7 @@ public class Application {
     public Application(User user, Project project, ApplicationStatus status, FlatType flatType) {
         this.user = user;
         this.project = project;
-        this.status = status;
+        this.state = new VersionChain<>(new State(status, false));
         this.flatType = flatType;
     }
 
@@ -69,7 +117,8 @@ public class Application {
      * @return the application status
      */
     public ApplicationStatus getStatus() {
-        return status;
+        State current = state.get();
+        return current == null ? null : current.status;
     }
 
     /**
@@ -87,7 +136,38 @@ public class Application {
      * @return true if withdrawn, false otherwise
      */
     public boolean isWithdrawal() {
-        return withdrawal;
+        State current = state.get();
+        return current != null && current.withdrawal;
+    }
+
+    /**
+     * Gets the newest status of the application, ignoring any snapshot open on the current
+     * thread, e.g. for keeping an index or a data file up to date.
+     *
+     * @return the latest application status
+     */
+    public ApplicationStatus getLatestStatus() {
+        return state.latest().status;
+    }
+
+    /**
+     * Returns the newest withdrawal flag of the application, ignoring any snapshot open on the
+     * current thread, e.g. for keeping an index or a data file up to date.
+     *
+     * @return true if withdrawn as of the latest change, false otherwise
+     */
+    public boolean isLatestWithdrawal() {
+        return state.latest().withdrawal;
+    }
+
+    /**
+     * Checks whether the application already existed when the current thread's snapshot was
+     * taken. Always true for a thread without an open snapshot.
+     *
+     * @return true if the snapshot can see the application
+     */
+    public boolean existsInSnapshot() {
+        return state.get() != null;
     }
 
     /**
@@ -96,7 +176,10 @@ public class Application {
      * @param status the new application status
      */
     public void setStatus(ApplicationStatus status) {
-        this.status = status;
+        synchronized (this) {
+            state.set(new State(status, state.latest().withdrawal));
+        }
+        markChanged();
     }
 
     /**
@@ -105,6 +188,9 @@ public class Application {
      * @param withdrawal true if the application is withdrawn, false otherwise
      */
     public void setWithdrawal(boolean withdrawal) {
-        this.withdrawal = withdrawal;
+        synchronized (this) {
+            state.set(new State(state.latest().status, withdrawal));
+        }
+        markChanged();
     }
 }
@@ -0,0 +1,22 @@
+package Entity;
+
+/**
+ * Receives a notification whenever a field of a tracked entity changes.
+ */
+public interface ChangeListener {
+
+    /**
+     * Called after a persisted field of the entity has been modified.
+     *
+     * @param entity the entity that changed
+     */
+    void changed(TrackedEntity entity);
+
+    /**
+     * Called after a field that is kept only in memory, such as the visibility of a project,
+     * has been modified. Such changes are never saved, but in-memory indexes may depend on them.
+     *
+     * @param entity the entity that changed
+     */
+    default void transientChanged(TrackedEntity entity) {}
+}
@@ -4,7 +4,7 @@ package Entity;
  * Represents an enquiry made by a user regarding a project.
  * Contains the user's message and the response (if any) from an officer or manager.
  */
-public class Enquiry {
+public class Enquiry extends TrackedEntity {
     private int id;
     private User user;
     private Project project;
@@ -32,6 +32,7 @@ public class Enquiry {
      */
     public void reply(String response) {
         this.response = response;
+        markChanged();
     }
 
     /**
@@ -86,6 +87,7 @@ public class Enquiry {
      */
     public void setId(int id) {
         this.id = id;
+        markChanged();
     }
 
     /**
@@ -95,6 +97,7 @@ public class Enquiry {
      */
     public void setMessage(String message) {
         this.message = message;
+        markChanged();
     }
 
     /**
@@ -104,5 +107,6 @@ public class Enquiry {
      */
     public void setResponse(String response) {
         this.response = response;
+        markChanged();
     }
 }
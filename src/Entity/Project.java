@@ -1,17 +1,26 @@
 package Entity;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * Represents a public housing project managed by the HDB.
  * Contains information about the project's name, location, unit types, availability, timeline, and assigned officers.
  */
-public class Project {
+public class Project extends TrackedEntity {
+    private static final int TWO_ROOM = Application.FlatType.TWO_ROOM.ordinal();
+    private static final int THREE_ROOM = Application.FlatType.THREE_ROOM.ordinal();
+
     private boolean visibility;
     private String name;
     private String neighbourhood;
-    private List<FlatType> flatTypes;
+    // Units and prices are kept in slots indexed by flat type ordinal, so reading them is a plain array access.
+    // Units are atomic so that concurrent bookings can take them with compare-and-set.
+    private final AtomicIntegerArray units = new AtomicIntegerArray(Application.FlatType.values().length);
+    private final int[] prices = new int[Application.FlatType.values().length];
+    private final boolean[] offered = new boolean[Application.FlatType.values().length];
     private LocalDate openingDate;
     private LocalDate closingDate;
     private HDBManager manager;
@@ -23,7 +32,7 @@ public class Project {
      *
      * @param name           the project name
      * @param neighbourhood  the location of the project
-     * @param flatTypes      list of flat types and their details
+     * @param flatTypes      list of flat types and their details; types with an unknown label are ignored
      * @param openingDate    the opening date of the project
      * @param closingDate    the closing date of the project
      * @param manager        the HDB manager in charge
@@ -34,7 +43,14 @@ public class Project {
                    int officerSlots, List<HDBOfficer> officers) {
         this.name = name;
         this.neighbourhood = neighbourhood;
-        this.flatTypes = flatTypes;
+        for (FlatType flatType : flatTypes) {
+            Application.FlatType key = Application.FlatType.fromLabel(flatType.getType());
+            if (key != null) {
+                units.set(key.ordinal(), flatType.getAvailableUnits());
+                prices[key.ordinal()] = flatType.getPrice();
+                offered[key.ordinal()] = true;
+            }
+        }
         this.openingDate = openingDate;
         this.closingDate = closingDate;
         this.manager = manager;
@@ -63,49 +79,73 @@ public class Project {
      */
     public String getNeighbourhood() { return neighbourhood; }
 
+    /**
+     * Gets the number of available units of a flat type.
+     *
+     * @param flatType the flat type
+     * @return number of units, or 0 if the project does not offer the type
+     */
+    public int getUnits(Application.FlatType flatType) { return units.get(flatType.ordinal()); }
+
+    /**
+     * Gets the price of a flat type.
+     *
+     * @param flatType the flat type
+     * @return price of one unit, or 0 if the project does not offer the type
+     */
+    public int getPrice(Application.FlatType flatType) { return prices[flatType.ordinal()]; }
+
+    /**
+     * Checks whether the project offers a flat type.
+     *
+     * @param flatType the flat type
+     * @return true if the project was created with or has since been given the type
+     */
+    public boolean offers(Application.FlatType flatType) { return offered[flatType.ordinal()]; }
+
+    /**
+     * Returns the flat types offered by the project, in flat type order.
+     * The list is a copy; changing it does not change the project.
+     *
+     * @return list of flat types with their units and prices
+     */
+    public List<FlatType> getFlatTypes() {
+        List<FlatType> flatTypes = new ArrayList<>();
+        for (Application.FlatType flatType : Application.FlatType.values()) {
+            if (offered[flatType.ordinal()]) {
+                flatTypes.add(new FlatType(flatType.getLabel(), getUnits(flatType), getPrice(flatType)));
+            }
+        }
+        return flatTypes;
+    }
+
     /**
      * Gets the number of available 2-Room units.
      *
      * @return number of 2-Room units
      */
-    public int get2RoomUnits() {
-        return this.flatTypes.stream()
-                .filter(r -> r.getType().equals("2-Room")).findFirst().get()
-                .getAvailableUnits();
-    }
+    public int get2RoomUnits() { return units.get(TWO_ROOM); }
 
     /**
      * Gets the number of available 3-Room units.
      *
      * @return number of 3-Room units
      */
-    public int get3RoomUnits() {
-        return this.flatTypes.stream()
-                .filter(r -> r.getType().equals("3-Room")).findFirst().get()
-                .getAvailableUnits();
-    }
+    public int get3RoomUnits() { return units.get(THREE_ROOM); }
 
     /**
      * Gets the price for a 2-Room flat.
      *
      * @return price of a 2-Room unit
      */
-    public int get2RoomPrice() {
-        return this.flatTypes.stream()
-                .filter(r -> r.getType().equals("2-Room")).findFirst().get()
-                .getPrice();
-    }
+    public int get2RoomPrice() { return prices[TWO_ROOM]; }
 
     /**
      * Gets the price for a 3-Room flat.
      *
      * @return price of a 3-Room unit
      */
-    public int get3RoomPrice() {
-        return this.flatTypes.stream()
-                .filter(r -> r.getType().equals("3-Room")).findFirst().get()
-                .getPrice();
-    }
+    public int get3RoomPrice() { return prices[THREE_ROOM]; }
 
     /**
      * Returns the opening date of the project.
@@ -142,12 +182,27 @@ public class Project {
      */
     public List<HDBOfficer> getOfficers() { return officers; }
 
+    /**
+     * Assigns an officer to the project.
+     *
+     * @param officer the officer to add
+     */
+    public void addOfficer(HDBOfficer officer) {
+        this.officers.add(officer);
+        markChanged();
+    }
+
     /**
      * Sets the project name.
+     * Projects already stored in the database should be renamed through
+     * {@code ProjectDatabase.renameProject} so that name lookups stay consistent.
      *
      * @param name the new project name
      */
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) {
+        this.name = name;
+        markChanged();
+    }
 
     /**
      * Sets the neighbourhood of the project.
@@ -156,6 +211,62 @@ public class Project {
      */
     public void setNeighbourhood(String neighbourhood) {
         this.neighbourhood = neighbourhood;
+        markChanged();
+    }
+
+    /**
+     * Sets the number of available units of a flat type, adding the type to the project if needed.
+     *
+     * @param flatType       the flat type
+     * @param availableUnits number of units
+     */
+    public void setUnits(Application.FlatType flatType, int availableUnits) {
+        units.set(flatType.ordinal(), availableUnits);
+        offered[flatType.ordinal()] = true;
+        markChanged();
+    }
+
+    /**
+     * Takes one unit of a flat type if any is left. The check and the decrement are a single
+     * compare-and-set, so concurrent bookings can never take more units than there are.
+     *
+     * @param flatType the flat type
+     * @return true if a unit was taken, false if none was left
+     */
+    public boolean tryReserve(Application.FlatType flatType) {
+        int slot = flatType.ordinal();
+        int available = units.get(slot);
+        while (available > 0) {
+            if (units.compareAndSet(slot, available, available - 1)) {
+                markChanged();
+                return true;
+            }
+            available = units.get(slot);
+        }
+        return false;
+    }
+
+    /**
+     * Returns a unit of a flat type taken by {@link #tryReserve(Application.FlatType)}, e.g. when
+     * the booking it was taken for is withdrawn.
+     *
+     * @param flatType the flat type
+     */
+    public void release(Application.FlatType flatType) {
+        units.incrementAndGet(flatType.ordinal());
+        markChanged();
+    }
+
+    /**
+     * Sets the price of a flat type, adding the type to the project if needed.
+     *
+     * @param flatType the flat type
+     * @param price    price of one unit
+     */
+    public void setPrice(Application.FlatType flatType, int price) {
+        prices[flatType.ordinal()] = price;
+        offered[flatType.ordinal()] = true;
+        markChanged();
     }
 
     /**
@@ -164,9 +275,7 @@ public class Project {
      * @param availableUnits number of 2-Room units
      */
     public void set2RoomUnits(int availableUnits) {
-        this.flatTypes.stream()
-                .filter(r -> r.getType().equals("2-Room")).findFirst().get()
-                .setAvailableUnits(availableUnits);
+        setUnits(Application.FlatType.TWO_ROOM, availableUnits);
     }
 
     /**
@@ -175,9 +284,7 @@ public class Project {
      * @param availableUnits number of 3-Room units
      */
     public void set3RoomUnits(int availableUnits) {
-        this.flatTypes.stream()
-                .filter(r -> r.getType().equals("3-Room")).findFirst().get()
-                .setAvailableUnits(availableUnits);
+        setUnits(Application.FlatType.THREE_ROOM, availableUnits);
     }
 
     /**
@@ -186,9 +293,7 @@ public class Project {
      * @param price price for a 2-Room unit
      */
     public void set2RoomPrice(int price) {
-        this.flatTypes.stream()
-                .filter(r -> r.getType().equals("2-Room")).findFirst().get()
-                .setPrice(price);
+        setPrice(Application.FlatType.TWO_ROOM, price);
     }
 
     /**
@@ -197,9 +302,7 @@ public class Project {
      * @param price price for a 3-Room unit
      */
     public void set3RoomPrice(int price) {
-        this.flatTypes.stream()
-                .filter(r -> r.getType().equals("3-Room")).findFirst().get()
-                .setPrice(price);
+        setPrice(Application.FlatType.THREE_ROOM, price);
     }
 
     /**
@@ -207,26 +310,38 @@ public class Project {
      *
      * @param openingDate the new opening date
      */
-    public void setOpeningDate(LocalDate openingDate) { this.openingDate = openingDate; }
+    public void setOpeningDate(LocalDate openingDate) {
+        this.openingDate = openingDate;
+        markChanged();
+    }
 
     /**
      * Sets the closing date of the project.
      *
      * @param closingDate the new closing date
      */
-    public void setClosingDate(LocalDate closingDate) { this.closingDate = closingDate; }
+    public void setClosingDate(LocalDate closingDate) {
+        this.closingDate = closingDate;
+        markChanged();
+    }
 
     /**
      * Sets the number of officer slots.
      *
      * @param officerSlots the new officer slot count
      */
-    public void setOfficerSlots(int officerSlots) { this.officerSlots = officerSlots; }
+    public void setOfficerSlots(int officerSlots) {
+        this.officerSlots = officerSlots;
+        markChanged();
+    }
 
     /**
      * Sets the visibility of the project.
      *
      * @param visibility true to make visible, false to hide
      */
-    public void setVisibility(boolean visibility) { this.visibility = visibility; }
+    public void setVisibility(boolean visibility) {
+        this.visibility = visibility;
+        markTransientChanged();
+    }
 }
@@ -0,0 +1,61 @@
+package Entity;
+
+import java.util.List;
+
+/**
+ * Represents one page of a filtered and sorted project listing.
+ */
+public class ProjectPage {
+    private final List<Project> projects;
+    private final int offset;
+    private final int total;
+
+    /**
+     * Constructs a page.
+     *
+     * @param projects the projects on the page, in listing order
+     * @param offset   the position of the first project on the page within the whole listing
+     * @param total    the number of projects in the whole listing
+     */
+    public ProjectPage(List<Project> projects, int offset, int total) {
+        this.projects = projects;
+        this.offset = offset;
+        this.total = total;
+    }
+
+    /**
+     * Returns the projects on the page.
+     *
+     * @return list of projects
+     */
+    public List<Project> getProjects() {
+        return projects;
+    }
+
+    /**
+     * Returns the position of the first project on the page within the whole listing.
+     *
+     * @return the offset of the page
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the number of projects in the whole listing.
+     *
+     * @return the total number of matching projects
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Checks whether the listing continues after this page.
+     *
+     * @return true if there is a next page
+     */
+    public boolean hasNext() {
+        return offset + projects.size() < total;
+    }
+}
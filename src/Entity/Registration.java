@@ -4,7 +4,7 @@ package Entity;
  * Represents a registration made by an HDB officer for a specific project.
  * A registration has a status that can be pending, approved, or rejected.
  */
-public class Registration {
+public class Registration extends TrackedEntity {
 
     /**
      * Enum representing the registration status.
@@ -74,6 +74,7 @@ public class Registration {
      */
     public void setId(int id) {
         this.id = id;
+        markChanged();
     }
 
     /**
@@ -83,6 +84,7 @@ public class Registration {
      */
     public void setOfficer(HDBOfficer officer) {
         this.officer = officer;
+        markChanged();
     }
 
     /**
@@ -92,6 +94,7 @@ public class Registration {
      */
     public void setProject(Project project) {
         this.project = project;
+        markChanged();
     }
 
     /**
@@ -101,5 +104,6 @@ public class Registration {
      */
     public void setStatus(Status status) {
         this.status = status;
+        markChanged();
     }
 }
@@ -0,0 +1,68 @@
+package Entity;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Base class for entities that are persisted to a data file.
+ * Setters of persisted fields call {@link #markChanged()}, which notifies the listener
+ * registered by the database holding the entity, so that only changed tables are saved.
+ *
+ * <p>Every such change also advances the entity's version, so that a user who read the entity
+ * before deciding on a change can have the change refused if someone else changed the entity in
+ * the meantime, without locking it while they decide. Versions are kept in memory only.</p>
+ */
+public abstract class TrackedEntity {
+    private static final AtomicIntegerFieldUpdater<TrackedEntity> VERSION =
+            AtomicIntegerFieldUpdater.newUpdater(TrackedEntity.class, "version");
+
+    private ChangeListener changeListener;
+    private volatile int version;
+
+    /**
+     * Registers the listener to notify when this entity changes, replacing any previous one.
+     *
+     * @param changeListener the listener, or null to stop tracking this entity
+     */
+    public void setChangeListener(ChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * Returns the version of the entity, which changes whenever a persisted field changes.
+     *
+     * @return the current version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks whether the entity is unchanged since its version was read.
+     *
+     * @param expectedVersion the version read earlier, from {@link #getVersion()}
+     * @return true if no persisted field has changed since
+     */
+    public boolean hasVersion(int expectedVersion) {
+        return version == expectedVersion;
+    }
+
+    /**
+     * Advances the version and notifies the registered listener, if any, that a persisted
+     * field has changed.
+     */
+    protected void markChanged() {
+        VERSION.incrementAndGet(this);
+        if (changeListener != null) {
+            changeListener.changed(this);
+        }
+    }
+
+    /**
+     * Notifies the registered listener, if any, that a field which is not persisted has changed.
+     */
+    protected void markTransientChanged() {
+        if (changeListener != null) {
+            changeListener.transientChanged(this);
+        }
+    }
+}
@@ -5,7 +5,7 @@ package Entity;
  * defines common attributes and methods for all user types including Applicant,
  * HDBOfficer, and HDBManager.
  */
-public abstract class User {
+public abstract class User extends TrackedEntity {
 
     /**
      * Enum representing the roles a user can have in the system.
@@ -96,5 +96,6 @@ public abstract class User {
      */
     public void setPassword(String password) {
         this.password = password;
+        markChanged();
     }
 }
@@ -5,7 +5,9 @@ import View.ApplicationView;
 import View.ProjectView;
 import View.EnquiryView;
 
+import java.io.PrintStream;
 import java.util.List;
+import java.util.Scanner;
 /**
  * This class provides the interface for Applicants to interact with the HDB application system.
  * It allows applicants to view and apply for projects, manage their enquiries,
@@ -18,9 +20,11 @@ public class ApplicantInterface extends BaseInterface {
     /**
      * Constructs an ApplicantInterface with the given user context.
      * @param currentUser The currently logged-in applicant.
+     * @param sc The scanner to read the applicant's input from.
+     * @param out The stream to print to.
      */
-    public ApplicantInterface(User currentUser) {
-        super(currentUser);
+    public ApplicantInterface(User currentUser, Scanner sc, PrintStream out) {
+        super(currentUser, sc, out);
         this.applicantService = new ApplicantService((Applicant) currentUser);
         this.projectService = new ProjectService();
         super.setProjectService(this.projectService);
@@ -34,60 +38,58 @@ public class ApplicantInterface extends BaseInterface {
         List<Project> projects = applicantService.getVisibleProjects();
 
         //handle eligible projects
-        System.out.println(filterSettings.getFilterSummary());
-        projects = applyProjectFilters(projects);
-        if (projects.isEmpty()) {
-            System.out.println("Project not found.");
+        out.println(filterSettings.getFilterSummary());
+        if (!displayFilteredProjects(projects, page -> ProjectView.displayProjectList(out, page, currentUser))) {
+            out.println("Project not found.");
         }
 
-        ProjectView.displayProjectList(projects, currentUser);
-        System.out.println("1 - Apply for a Project");
-        System.out.println("2 - Manage Filters");
-        System.out.println("3 - Back");
+        out.println("1 - Apply for a Project");
+        out.println("2 - Manage Filters");
+        out.println("3 - Back");
         choice = readIntInput("Enter your choice: ");
 
         switch (choice) {
             case 1 -> {
                 if (applicantService.haveProject()) {
-                    System.out.println("You have already applied for a project.");
+                    out.println("You have already applied for a project.");
                     break;
                 }
-                System.out.println("Enter project name: ");
+                out.println("Enter project name: ");
                 String name = sc.nextLine();
                 Project project = projectService.findProjectByName(name);
                 if (project == null) {
-                    System.out.println("Project not found.");
+                    out.println("Project not found.");
                     break;
                 }
 
                 try {
-                    System.out.println("Select flat type: ");
-                    System.out.println("1 - 2-Room");
+                    out.println("Select flat type: ");
+                    out.println("1 - 2-Room");
                     if (!applicantService.isSingle())
-                        System.out.println("2 - 3-Room");
+                        out.println("2 - 3-Room");
                     int flatType = readIntInput("Enter your choice: ");
 
                     Application application = applicantService.newApplication(project, flatType);
                     if (application == null) {
                         throw (new IllegalArgumentException("Invalid Application."));
                     }
-                    System.out.println("Confirm application details: ");
-                    ApplicationView.displayApplication(application);
-                    System.out.println("1 - Send Application");
-                    System.out.println("2 - Back");
+                    out.println("Confirm application details: ");
+                    ApplicationView.displayApplication(out, application);
+                    out.println("1 - Send Application");
+                    out.println("2 - Back");
                     choice = readIntInput("Enter your choice: ");
 
                     if (choice == 1) {
                         applicantService.sendApplication(application);
-                        System.out.println("Application submitted successfully.");
+                        out.println("Application submitted successfully.");
                     }
                 } catch (IllegalArgumentException e) {
-                    System.out.println(e.getMessage());
+                    out.println(e.getMessage());
                 }
             }
             case 2 -> manageFilters();
             case 3 -> {}
-            default -> System.out.println("Invalid choice");
+            default -> out.println("Invalid choice");
         }
     }
 
@@ -96,12 +98,12 @@ public class ApplicantInterface extends BaseInterface {
      */
     public void viewMyProjects() {
         if (applicantService.haveProject()) {
-            System.out.println("Here is your project: ");
+            out.println("Here is your project: ");
             Project project = applicantService.getProject();
-            ProjectView.displayProject(project, currentUser);// down-casting!
+            ProjectView.displayProject(out, project, currentUser);// down-casting!
         }
         else
-            System.out.println("You have not applied for a project.");
+            out.println("You have not applied for a project.");
     }
 
     /**
@@ -110,11 +112,11 @@ public class ApplicantInterface extends BaseInterface {
     public void bookAFlat() {
         try {
             if (applicantService.isAvailableToBookFlat()) {
-                System.out.println("You can book a flat now.");
+                out.println("You can book a flat now.");
             } else
-                System.out.println("Application must be SUCCESSFUL to book.");
+                out.println("Application must be SUCCESSFUL to book.");
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -124,9 +126,9 @@ public class ApplicantInterface extends BaseInterface {
     public void withdrawApplication() {
         try {
             applicantService.withdrawalApplication();
-            System.out.println("Submitted withdrawal successfully.");
+            out.println("Submitted withdrawal successfully.");
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -139,8 +141,8 @@ public class ApplicantInterface extends BaseInterface {
             if (projects.isEmpty())
                 throw (new IllegalArgumentException("Project not found."));
 
-            ProjectView.displayProjectList(projects, currentUser);
-            System.out.println("Enter the project name you want to enquire about: ");
+            ProjectView.displayProjectList(out, projects, currentUser);
+            out.println("Enter the project name you want to enquire about: ");
             String name = sc.nextLine();
             Project enqProject = projectService.findProjectByName(name);
             if (enqProject == null)
@@ -148,12 +150,12 @@ public class ApplicantInterface extends BaseInterface {
             if (!applicantService.isEligibleForProject(enqProject))
                 throw (new IllegalArgumentException("You are not allowed to enquire about this project."));
 
-            System.out.println("Enter your enquiry: ");
+            out.println("Enter your enquiry: ");
             String query = sc.nextLine();
             applicantService.submitEnquiry(query, enqProject);
-            System.out.println("Enquiry submitted successfully.");
+            out.println("Enquiry submitted successfully.");
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -167,9 +169,9 @@ public class ApplicantInterface extends BaseInterface {
             if (enquiries.isEmpty()) {
                 throw (new IllegalArgumentException("No enquiries found."));
             }
-            System.out.println("Here are your enquiries: ");
-            EnquiryView.displayEnquiries(enquiries);
-            System.out.println("Enter enquiry ID to edit or delete: ");
+            out.println("Here are your enquiries: ");
+            EnquiryView.displayEnquiries(out, enquiries);
+            out.println("Enter enquiry ID to edit or delete: ");
             int enquiryId = sc.nextInt();
             sc.nextLine();
 
@@ -180,24 +182,24 @@ public class ApplicantInterface extends BaseInterface {
             if (enquiry.getResponse() != null) {
                 throw new IllegalArgumentException("This enquiry has already been replied.");
             }
-            System.out.println("1 - Edit\n2 - Delete\n3 - Back");
+            out.println("1 - Edit\n2 - Delete\n3 - Back");
             choice = readIntInput("Enter your choice: ");
 
             switch (choice) {
                 case 1 -> {
-                    System.out.println("Enter new enquiry message: ");
+                    out.println("Enter new enquiry message: ");
                     String newQuery = sc.nextLine();
                     applicantService.editEnquiry(newQuery, enquiry);
-                    System.out.println("Enquiry edited successfully.");
+                    out.println("Enquiry edited successfully.");
                 }
                 case 2 -> {
                     applicantService.deleteEnquiry(enquiry);
-                    System.out.println("Enquiry deleted successfully.");
+                    out.println("Enquiry deleted successfully.");
                 }
                 case 3 -> {}
             }
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -208,16 +210,16 @@ public class ApplicantInterface extends BaseInterface {
      */
     public void start() {
         while(true) {
-            System.out.println("Welcome, " + currentUser.getName() + "!");
-            System.out.println("Applicant Menu: ");
-            System.out.println("1 - View or Apply Projects");
-            System.out.println("2 - View My Project");
-            System.out.println("3 - Book a Flat");
-            System.out.println("4 - Request Withdrawal for Application");
-            System.out.println("5 - Submit an Enquiry");
-            System.out.println("6 - Edit or Delete Enquiries");
-            System.out.println("7 - Change password");
-            System.out.println("8 - Log Out");
+            out.println("Welcome, " + currentUser.getName() + "!");
+            out.println("Applicant Menu: ");
+            out.println("1 - View or Apply Projects");
+            out.println("2 - View My Project");
+            out.println("3 - Book a Flat");
+            out.println("4 - Request Withdrawal for Application");
+            out.println("5 - Submit an Enquiry");
+            out.println("6 - Edit or Delete Enquiries");
+            out.println("7 - Change password");
+            out.println("8 - Log Out");
 
             choice = readIntInput("Enter your choice: ");
 
@@ -231,7 +233,7 @@ public class ApplicantInterface extends BaseInterface {
                 case 6 -> editOrDeleteEnquiry();
                 case 7 -> { if (changePassword()) { return;} }
                 case 8 -> { return; }
-                default -> System.out.println("Invalid choice");
+                default -> out.println("Invalid choice");
             }
         }
     }
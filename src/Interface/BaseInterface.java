@@ -2,16 +2,19 @@ package Interface;
 
 import Entity.FilterSettings;
 import Entity.Project;
+import Entity.ProjectPage;
 import Entity.User;
 import Service.AuthService;
 import Service.IProjectService;
 
+import java.io.PrintStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Consumer;
 
 /**
  * Abstract base class for all user interface types (e.g., ApplicantInterface, OfficerInterface).
@@ -19,18 +22,27 @@ import java.util.Scanner;
  * password changing, and project filtering.
  */
 public abstract class BaseInterface {
-    Scanner sc = new Scanner(System.in);
+    /** The number of projects shown per page of a project listing. */
+    protected static final int PAGE_SIZE = 10;
+
+    final Scanner sc;
+    final PrintStream out;
     final User currentUser;
     int choice;
     protected FilterSettings filterSettings;
     protected IProjectService projectService;
 
     /**
-     * Constructs a BaseInterface with the given user.
+     * Constructs a BaseInterface with the given user, reading and printing through the streams
+     * of the user's session.
      * @param currentUser the currently logged-in user
+     * @param sc the scanner to read the user's input from
+     * @param out the stream to print to
      */
-    public BaseInterface(User currentUser) {
+    public BaseInterface(User currentUser, Scanner sc, PrintStream out) {
         this.currentUser = currentUser;
+        this.sc = sc;
+        this.out = out;
         this.filterSettings = new FilterSettings();
     }
 
@@ -41,14 +53,14 @@ public abstract class BaseInterface {
      */
     protected int readIntInput(String prompt) {
         while (true) {
-            System.out.print(prompt);
+            out.print(prompt);
             try {
                 int input = sc.nextInt();
                 sc.nextLine();
                 return input;
             } catch (InputMismatchException e) {
                 sc.nextLine();
-                System.out.println("Please enter a valid number.");
+                out.println("Please enter a valid number.");
             }
         }
     }
@@ -62,13 +74,13 @@ public abstract class BaseInterface {
      */
     protected LocalDate parseDate(String prompt) {
         while (true) {
-            System.out.println(prompt);
+            out.println(prompt);
             try {
                 String date = sc.nextLine();
                 DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/M/d");
                 return LocalDate.parse(date, formatter);
             } catch (DateTimeParseException e) {
-                System.out.println("Invalid date format, try again.");
+                out.println("Invalid date format, try again.");
             }
         }
     }
@@ -95,23 +107,23 @@ public abstract class BaseInterface {
      */
     protected boolean changePassword() {
         AuthService authService = new AuthService();
-        System.out.println("Enter your old password: ");
+        out.println("Enter your old password: ");
         String oldPassword = sc.next();
         sc.nextLine();
         if (authService.checkUser(currentUser.getNric(), oldPassword)){
-            System.out.println("Enter your new password: ");
+            out.println("Enter your new password: ");
             String newPassword = sc.next();
             sc.nextLine();
             if (newPassword != null && !newPassword.trim().isEmpty()) {
                 authService.changePassword(currentUser, newPassword);
-                System.out.println("Password changed successfully.");
+                out.println("Password changed successfully.");
                 return true;
             }
             else
-                System.out.println("Invalid password.");
+                out.println("Invalid password.");
         }
         else {
-            System.out.println("Incorrect old password.");
+            out.println("Incorrect old password.");
         }
         return false;
     }
@@ -122,30 +134,30 @@ public abstract class BaseInterface {
      */
     protected void manageFilters() {
         while (true) {
-            System.out.println("\nProject Filter Settings:");
-            System.out.println(filterSettings.getFilterSummary());
-            System.out.println("\n1 - Set Neighbourhood Filter");
-            System.out.println("2 - Set Flat Type Filter");
-            System.out.println("3 - Set Price Range");
-            System.out.println("4 - Set Application Date Range");
-            System.out.println("5 - Set Minimum Available Units");
-            System.out.println("6 - Filter Projects with Officer Slots");
-            System.out.println("7 - Change Sort Order");
-            System.out.println("8 - Reset All Filters");
-            System.out.println("9 - Return to Previous Menu");
+            out.println("\nProject Filter Settings:");
+            out.println(filterSettings.getFilterSummary());
+            out.println("\n1 - Set Neighbourhood Filter");
+            out.println("2 - Set Flat Type Filter");
+            out.println("3 - Set Price Range");
+            out.println("4 - Set Application Date Range");
+            out.println("5 - Set Minimum Available Units");
+            out.println("6 - Filter Projects with Officer Slots");
+            out.println("7 - Change Sort Order");
+            out.println("8 - Reset All Filters");
+            out.println("9 - Return to Previous Menu");
             choice = readIntInput("Enter your choice: ");
 
             switch (choice) {
                 case 1 -> {
-                    System.out.println("Enter neighbourhood name (or leave empty to clear this filter): ");
+                    out.println("Enter neighbourhood name (or leave empty to clear this filter): ");
                     String neighbourhood = sc.nextLine();
                     filterSettings.setNeighbourhood(neighbourhood.isEmpty() ? null : neighbourhood);
                 }
                 case 2 -> {
-                    System.out.println("Select flat type filter:");
-                    System.out.println("1 - 2-Room");
-                    System.out.println("2 - 3-Room");
-                    System.out.println("3 - Clear this filter");
+                    out.println("Select flat type filter:");
+                    out.println("1 - 2-Room");
+                    out.println("2 - 3-Room");
+                    out.println("3 - Clear this filter");
                     int flatChoice = readIntInput("Enter your choice: ");
 
                     if (flatChoice == 1) {
@@ -155,7 +167,7 @@ public abstract class BaseInterface {
                     } else if (flatChoice == 3) {
                         filterSettings.setFlatType(null);
                     } else {
-                        System.out.println("Invalid choice. Filter not changed.");
+                        out.println("Invalid choice. Filter not changed.");
                     }
                 }
                 case 3 -> {
@@ -166,7 +178,7 @@ public abstract class BaseInterface {
                 }
                 case 4 -> {
                     try {
-                        System.out.println("Enter earliest application opening date (format: yyyy/M/d, or leave empty to clear): ");
+                        out.println("Enter earliest application opening date (format: yyyy/M/d, or leave empty to clear): ");
                         String startDateStr = sc.nextLine();
                         if (!startDateStr.isEmpty()) {
                             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/M/d");
@@ -176,7 +188,7 @@ public abstract class BaseInterface {
                             filterSettings.setStartDate(null);
                         }
 
-                        System.out.println("Enter latest application closing date (format: yyyy/M/d, or leave empty to clear): ");
+                        out.println("Enter latest application closing date (format: yyyy/M/d, or leave empty to clear): ");
                         String endDateStr = sc.nextLine();
                         if (!endDateStr.isEmpty()) {
                             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/M/d");
@@ -186,7 +198,7 @@ public abstract class BaseInterface {
                             filterSettings.setEndDate(null);
                         }
                     } catch (Exception e) {
-                        System.out.println("Error parsing date. Please use format yyyy/M/d.");
+                        out.println("Error parsing date. Please use format yyyy/M/d.");
                     }
                 }
                 case 5 -> {
@@ -194,10 +206,10 @@ public abstract class BaseInterface {
                     filterSettings.setMinAvailableUnits(minUnits < 0 ? null : minUnits);
                 }
                 case 6 -> {
-                    System.out.println("Filter projects with available officer slots?");
-                    System.out.println("1 - Yes (show only projects with available slots)");
-                    System.out.println("2 - No (show only projects without available slots)");
-                    System.out.println("3 - Clear this filter (show all projects)");
+                    out.println("Filter projects with available officer slots?");
+                    out.println("1 - Yes (show only projects with available slots)");
+                    out.println("2 - No (show only projects without available slots)");
+                    out.println("3 - Clear this filter (show all projects)");
                     int slotChoice = readIntInput("Enter your choice: ");
 
                     if (slotChoice == 1) {
@@ -207,14 +219,14 @@ public abstract class BaseInterface {
                     } else if (slotChoice == 3) {
                         filterSettings.setHasOfficerSlots(null);
                     } else {
-                        System.out.println("Invalid choice. Filter not changed.");
+                        out.println("Invalid choice. Filter not changed.");
                     }
                 }
                 case 7 -> {
-                    System.out.println("Select sort order:");
+                    out.println("Select sort order:");
                     FilterSettings.SortType[] sortTypes = FilterSettings.SortType.values();
                     for (int i = 0; i < sortTypes.length; i++) {
-                        System.out.println((i + 1) + " - " + sortTypes[i].getDescription());
+                        out.println((i + 1) + " - " + sortTypes[i].getDescription());
                     }
 
                     int sortChoice = sc.nextInt();
@@ -223,40 +235,58 @@ public abstract class BaseInterface {
                     if (sortChoice >= 1 && sortChoice <= sortTypes.length) {
                         filterSettings.setSortType(sortTypes[sortChoice - 1]);
                     } else {
-                        System.out.println("Invalid choice. Sort order not changed.");
+                        out.println("Invalid choice. Sort order not changed.");
                     }
                 }
                 case 8 -> {
                     filterSettings.resetAllFilters();
-                    System.out.println("All filters have been reset.");
+                    out.println("All filters have been reset.");
                 }
                 case 9 -> { return; }
-                default -> System.out.println("Invalid choice.");
+                default -> out.println("Invalid choice.");
             }
         }
     }
 
 
     /**
-     * Applies the current set of filters to a list of projects using the project service.
+     * Applies the current set of filters to a list of projects using the project service and
+     * displays the result one page at a time. Each page is fetched from the project service only
+     * when the user asks for it.
      * @param projects the original list of projects
-     * @return a filtered list of projects
+     * @param display prints one page of projects
+     * @return true if at least one project passed the filters
      */
-    protected List<Project> applyProjectFilters(List<Project> projects) {
+    protected boolean displayFilteredProjects(List<Project> projects, Consumer<List<Project>> display) {
         if (projectService == null) {
-            System.out.println("Warning: Project service not set. Filters will not be applied.");
-            return projects;
+            out.println("Warning: Project service not set. Filters will not be applied.");
+            display.accept(projects);
+            return !projects.isEmpty();
         }
 
         // apply filters
-        List<Project> filteredProjects = projectService.applyFilters(projects, filterSettings);
+        ProjectPage page = projectService.findPage(projects, filterSettings, 0, PAGE_SIZE);
 
         // show the filter
         if (filterSettings.isAnyFilterApplied()) {
-            System.out.println("Applied filters: " + projects.size() + " projects filtered to " +
-                    filteredProjects.size() + " projects.");
+            out.println("Applied filters: " + projects.size() + " projects filtered to " +
+                    page.getTotal() + " projects.");
+        }
+        if (page.getTotal() == 0) {
+            return false;
         }
 
-        return filteredProjects;
+        display.accept(page.getProjects());
+        int pages = (page.getTotal() + PAGE_SIZE - 1) / PAGE_SIZE;
+        while (page.hasNext()) {
+            out.print("Page " + (page.getOffset() / PAGE_SIZE + 1) + " of " + pages +
+                    ". Enter n for the next page, or press Enter to continue: ");
+            if (!sc.nextLine().trim().equalsIgnoreCase("n")) {
+                break;
+            }
+            page = projectService.findPage(projects, filterSettings, page.getOffset() + PAGE_SIZE, PAGE_SIZE);
+            display.accept(page.getProjects());
+        }
+        return true;
     }
 }
@@ -5,9 +5,10 @@ import Entity.HDBOfficer;
 import Entity.HDBManager;
 import Entity.User;
 
+import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Scanner;
 
 
 /**
@@ -18,8 +19,16 @@ import java.util.function.Function;
  * implementation of {@link BaseInterface} (e.g., {@link ApplicantInterface}, 
  * {@link OfficerInterface}, {@link ManagerInterface}).</p>
  */
-public class InterfaceFactory { //to create "new Interface(currentUser)"
-    private static final Map<User.UserRole, Function<User, BaseInterface>> creators = new HashMap<>();
+public class InterfaceFactory { //to create "new Interface(currentUser, sc, out)"
+    /**
+     * Creates the interface of one role for a user's session.
+     */
+    @FunctionalInterface
+    private interface Creator {
+        BaseInterface create(User user, Scanner sc, PrintStream out);
+    }
+
+    private static final Map<User.UserRole, Creator> creators = new HashMap<>();
 
     static {
         creators.put(User.UserRole.APPLICANT, ApplicantInterface::new);
@@ -32,19 +41,21 @@ public class InterfaceFactory { //to create "new Interface(currentUser)"
      * Returns the appropriate interface implementation based on the user's role.
      *
      * @param user the currently logged-in user
+     * @param sc   the scanner to read the user's input from
+     * @param out  the stream to print to
      * @return the interface implementation specific to the user's role
      * @throws IllegalArgumentException if the user is null or has an unsupported role
      */
-    public static BaseInterface getInterface(User user) {
+    public static BaseInterface getInterface(User user, Scanner sc, PrintStream out) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null.");
         }
 
-        Function<User, BaseInterface> creator = creators.get(user.getRole());
+        Creator creator = creators.get(user.getRole());
         if (creator == null) {
             throw new IllegalArgumentException("No interface defined for role: " + user.getRole());
         }
 
-        return creator.apply(user);
+        return creator.create(user, sc, out);
     }
 }
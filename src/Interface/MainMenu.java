@@ -0,0 +1,130 @@
+package Interface;
+
+import Database.WriteAheadLog;
+import Entity.User;
+import Service.AuthService;
+
+import javax.naming.AuthenticationException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.InputMismatchException;
+import java.util.Scanner;
+
+/**
+ * The login menu shown before a user signs in.
+ * Handles user login, role-based interface delegation, and saving the changes of each session.
+ * It reads and prints through the streams it is given, and hands them on to the interface of the
+ * user who signs in, so the same menu serves the console and every connection of the server.
+ */
+public class MainMenu {
+
+    private final Scanner scanner;
+    private final PrintStream out;
+
+    /**
+     * Creates the menu for the console.
+     */
+    public MainMenu() {
+        this(new Scanner(System.in), System.out);
+    }
+
+    /**
+     * Creates the menu for one session.
+     *
+     * @param scanner the scanner to read the session's input from
+     * @param out     the stream to print to
+     */
+    public MainMenu(Scanner scanner, PrintStream out) {
+        this.scanner = scanner;
+        this.out = out;
+    }
+
+    /**
+     * Runs the menu until the user chooses to exit.
+     */
+    public void run() {
+        while (true) {
+            out.println("Welcome to BTO Management System!");
+            out.println("1 - Login");
+            out.println("2 - Exit");
+
+            int choice = readIntInput("Enter your choice: ");
+
+            switch (choice) {
+                case 1 -> {
+                    AuthService authService = new AuthService();
+
+                    // Prompt for NRIC and validate format
+                    out.print("Enter your NRIC number: ");
+                    String inputNRIC = scanner.nextLine();
+                    while (!authService.isValidNRIC(inputNRIC)) {
+                        out.println("Invalid NRIC format, try again");
+                        out.print("Enter your NRIC number: ");
+                        inputNRIC = scanner.nextLine();
+                    }
+
+                    // Prompt for password
+                    out.print("Enter your password: ");
+                    String inputPassword = scanner.nextLine();
+
+                    try {
+                        // Authenticate and retrieve the current user
+                        User currentUser = authService.authenticate(inputNRIC, inputPassword);
+
+                        // Delegate control to role-specific user interface
+                        BaseInterface baseInterface = InterfaceFactory.getInterface(currentUser, scanner, out);
+                        baseInterface.start();
+
+                        // Save all data changes
+                        saveData(out);
+
+                    } catch (AuthenticationException e) {
+                        out.println("Error: " + e.getMessage());
+                    }
+                }
+                case 2 -> {
+                    return;
+                }
+                default -> out.println("Invalid choice");
+            }
+        }
+    }
+
+    private int readIntInput(String prompt) {
+        while (true) {
+            out.print(prompt);
+            try {
+                int input = scanner.nextInt();
+                scanner.nextLine(); // consume newline
+                return input;
+            } catch (InputMismatchException e) {
+                scanner.nextLine(); // consume invalid input
+                out.println("Please enter a valid number.");
+            }
+        }
+    }
+
+    /**
+     * Appends the changes made so far to the write-ahead log, reporting on the console.
+     */
+    public static void saveData() {
+        saveData(System.out);
+    }
+
+    /**
+     * Appends the changes made so far to the write-ahead log.
+     *
+     * @param out the stream to report the result to
+     */
+    public static void saveData(PrintStream out) {
+        try {
+            // Changes made during the session are appended to the write-ahead log
+            if (WriteAheadLog.getInstance().commit()) {
+                out.println("All data saved successfully.");
+            }
+        } catch (IOException e) {
+            out.println("Error saving data: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
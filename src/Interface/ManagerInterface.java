@@ -3,10 +3,13 @@ package Interface;
 import Entity.*;
 import Service.*;
 import View.*;
+import util.Snapshot;
 
+import java.io.PrintStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Scanner;
 
 
 /**
@@ -25,9 +28,13 @@ public class ManagerInterface extends BaseInterface {
      * ManagerInterface provides the command-line interface functionalities 
      * available to HDB Managers. It enables managers to manage projects, 
      * registrations, applications, generate reports, and handle enquiries.
+     *
+     * @param currentUser the currently logged-in manager
+     * @param sc          the scanner to read the manager's input from
+     * @param out         the stream to print to
      */
-    public ManagerInterface(User currentUser) {
-        super(currentUser);//in this case, for currentUser: reference - User; object - roles
+    public ManagerInterface(User currentUser, Scanner sc, PrintStream out) {
+        super(currentUser, sc, out);//in this case, for currentUser: reference - User; object - roles
         this.managerService = new ManagerService((HDBManager) currentUser);
         this.projectService = new ProjectService();
         super.setProjectService(this.projectService);
@@ -36,20 +43,18 @@ public class ManagerInterface extends BaseInterface {
     //case 1
     public void manageProjects() {
         List<Project> projects = projectService.findAllProjects();
-        System.out.println(filterSettings.getFilterSummary());
-        projects = applyProjectFilters(projects);
+        out.println(filterSettings.getFilterSummary());
 
-        if (projects.isEmpty()) {
-            System.out.println("Project not found");
+        if (!displayFilteredProjects(projects, page -> ProjectView.displayManagedList(out, page))) {
+            out.println("Project not found");
         }
 
-        ProjectView.displayManagedList(projects);
-        System.out.println("1 - Create A New Project");
-        System.out.println("2 - Edit or Delete A Project");
-        System.out.println("3 - Toggle visibility of a Project");
-        System.out.println("4 - Filter projects you created");
-        System.out.println("5 - Manage Filters");
-        System.out.println("6 - Back");
+        out.println("1 - Create A New Project");
+        out.println("2 - Edit or Delete A Project");
+        out.println("3 - Toggle visibility of a Project");
+        out.println("4 - Filter projects you created");
+        out.println("5 - Manage Filters");
+        out.println("6 - Back");
         choice = readIntInput("Enter your choice: ");
 
         switch (choice) {
@@ -59,7 +64,7 @@ public class ManagerInterface extends BaseInterface {
             case 4 -> filterProjectsManagerCreated();
             case 5 -> manageFilters();
             case 6 -> {}
-            default -> System.out.println("Invalid choice");
+            default -> out.println("Invalid choice");
         }
     }
 
@@ -70,10 +75,10 @@ public class ManagerInterface extends BaseInterface {
      */
     public void createAProject() {
         try {
-            System.out.println("Enter information.");
-            System.out.println("Project Name: ");
+            out.println("Enter information.");
+            out.println("Project Name: ");
             String projectName = sc.nextLine();
-            System.out.println("Neighbourhood: ");
+            out.println("Neighbourhood: ");
             String neighbourhood = sc.nextLine();
             int UnitsOf2Room = readIntInput("# of Units of 2-Room Flat Type:");
             int PriceOf2Room = readIntInput("2-room Flat Price:");
@@ -90,23 +95,23 @@ public class ManagerInterface extends BaseInterface {
                     neighbourhood, UnitsOf2Room, PriceOf2Room,
                     UnitsOf3Room, PriceOf3Room, openingDate, closingDate,
                     officerSlots, currentUser);
-            System.out.println("Confirm Details:");
-            ProjectView.displayManagedProject(project);
+            out.println("Confirm Details:");
+            ProjectView.displayManagedProject(out, project);
 
-            System.out.println("1 - Create Project");
-            System.out.println("2 - Back");
+            out.println("1 - Create Project");
+            out.println("2 - Back");
             choice = readIntInput("Enter your choice: ");
             switch (choice) {
                 case 1 -> {
                     projectService.addProject(project);
-                    System.out.println("Project created successfully.");
+                    out.println("Project created successfully.");
                 }
                 case 2 -> {}
-                default -> System.out.println("Invalid choice.");
+                default -> out.println("Invalid choice.");
             }
 
         } catch (Exception e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
     //case 1: edit or delete a project
@@ -115,42 +120,42 @@ public class ManagerInterface extends BaseInterface {
      * after verifying authorization and project existence.
      */
     public void editOrDeleteProject() {
-        System.out.println("Enter project name: ");
+        out.println("Enter project name: ");
         String name = sc.nextLine();
         Project project = projectService.findProjectByName(name);
         if (project == null) {
-            System.out.println("Project not found.");
+            out.println("Project not found.");
             return;
         }
         if (!managerService.checkAuthForProject(project)) {
-            System.out.println("You are not authorized to edit this project.");
+            out.println("You are not authorized to edit this project.");
             return;
         }
-        System.out.println("Edit or Delete:\n1 - Edit\n2 - Delete");
+        out.println("Edit or Delete:\n1 - Edit\n2 - Delete");
         choice = readIntInput("Enter your choice: ");
 
         switch (choice) {
             case 1 -> {
-                System.out.println("Which attribute do you want to edit? Enter your choice: ");
-                System.out.println("1 - name\n2 - neighbourhood\n" +
+                out.println("Which attribute do you want to edit? Enter your choice: ");
+                out.println("1 - name\n2 - neighbourhood\n" +
                         "3 - 2-Room available units\n4 - 2-Room flat price\n" +
                         "5 - 3-Room available units\n6 - 3-Room flat price\n" +
                         "7 - Application Opening Date\n8 - Application Closing Date\n" +
                         "9 - officer slots");
                 choice = readIntInput("Enter your choice: ");
                 try {
-                    managerService.editProject(choice, project);
-                    System.out.println("Project updated successfully. Here are the details:");
-                    ProjectView.displayManagedProject(project);
+                    managerService.editProject(choice, project, sc, out);
+                    out.println("Project updated successfully. Here are the details:");
+                    ProjectView.displayManagedProject(out, project);
                 } catch (Exception e) {
-                    System.out.println(e.getMessage());
+                    out.println(e.getMessage());
                 }
             }
             case 2 -> {
                 projectService.deleteProject(project);
-                System.out.println("Project deleted successfully.");
+                out.println("Project deleted successfully.");
             }
-            default -> System.out.println("Invalid choice.");
+            default -> out.println("Invalid choice.");
         }
     }
     //case 1: toggle visibility
@@ -159,19 +164,19 @@ public class ManagerInterface extends BaseInterface {
      * by the current user.
      */
     public void toggleVisibility() {
-        System.out.println("Enter the project name you want to toggle: ");
+        out.println("Enter the project name you want to toggle: ");
         String name3 = sc.nextLine();
         Project project3 = projectService.findProjectByName(name3);
         if (project3 == null) {
-            System.out.println("Project not found.");
+            out.println("Project not found.");
             return;
         }
         if (!managerService.checkAuthForProject(project3)) {
-            System.out.println("You are not authorized to edit this project.");
+            out.println("You are not authorized to edit this project.");
             return;
         }
         managerService.shiftVisibility(project3);
-        System.out.println("Project visibility shifted successfully.");
+        out.println("Project visibility shifted successfully.");
     }
     //case 1: filter projects the manager created
     /**
@@ -180,11 +185,11 @@ public class ManagerInterface extends BaseInterface {
     public void filterProjectsManagerCreated() {
         List<Project> projects = projectService.findByManager(currentUser.getName());
         if (projects.isEmpty()) {
-            System.out.println("Project not found.");
+            out.println("Project not found.");
             return;
         }
-        System.out.println("Here are the projects you created:");
-        ProjectView.displayProjectList(projects, currentUser);
+        out.println("Here are the projects you created:");
+        ProjectView.displayProjectList(out, projects, currentUser);
     }
 
     //case 2
@@ -195,13 +200,13 @@ public class ManagerInterface extends BaseInterface {
     public void manageRegistrations() {
         List<Registration> registrations = managerService.getRegistrations();
         if (registrations.isEmpty()) {
-            System.out.println("No pending or approved registrations found.");
+            out.println("No pending or approved registrations found.");
             return;
         }
-        System.out.println("Below are registrations.");
-        RegistrationView.displayRegistrations(registrations);
-        System.out.println("1 - Approve or reject registration");
-        System.out.println("2 - Back");
+        out.println("Below are registrations.");
+        RegistrationView.displayRegistrations(out, registrations);
+        out.println("1 - Approve or reject registration");
+        out.println("2 - Back");
         choice = readIntInput("Enter your choice: ");
 
         switch (choice) {
@@ -214,32 +219,34 @@ public class ManagerInterface extends BaseInterface {
                     if (registration.getStatus().equals(Registration.Status.APPROVED)) {
                         throw (new Exception("Registration is already approved."));
                     }
+                    // Remember what the decision is based on, so a change made meanwhile is not overwritten
+                    int version = registration.getVersion();
 
                     boolean canApprove = registration.getProject().getOfficerSlots() > 0;
                     if (canApprove) {
-                        System.out.println("1 - Approve");
-                        System.out.println("2 - Reject");
+                        out.println("1 - Approve");
+                        out.println("2 - Reject");
                     } else {
-                        System.out.println("1 - Reject (No officer slots available)");
+                        out.println("1 - Reject (No officer slots available)");
                     }
                     int choice = readIntInput("Enter your choice: ");
 
 
                     if (canApprove && choice == 1) {
-                        managerService.approveRegistration(registration);
-                        System.out.println("Registration approved successfully.");
+                        managerService.approveRegistration(registration, version);
+                        out.println("Registration approved successfully.");
                     } else if (choice == 1 || choice == 2) {
-                        managerService.rejectRegistration(registration);
-                        System.out.println("Registration rejected successfully.");
+                        managerService.rejectRegistration(registration, version);
+                        out.println("Registration rejected successfully.");
                     } else {
-                        System.out.println("Invalid choice.");
+                        out.println("Invalid choice.");
                     }
                 } catch (Exception e) {
-                    System.out.println(e.getMessage());
+                    out.println(e.getMessage());
                 }
             }
             case 2 -> {}
-            default -> System.out.println("Invalid choice.");
+            default -> out.println("Invalid choice.");
         }
     }
 
@@ -249,19 +256,26 @@ public class ManagerInterface extends BaseInterface {
      * to either approve/reject applications or handle withdrawal requests.
      */
     public void manageApplications() {
-        List<Application> applications = managerService.getApplications();
-        if (applications.isEmpty()) {
-            System.out.println("No pending or approved applications found.");
+        // List the applications as of one snapshot, released before waiting for input
+        boolean listed = Snapshot.read(() -> {
+            List<Application> applications = managerService.getApplications();
+            if (applications.isEmpty()) {
+                out.println("No pending or approved applications found.");
+                return false;
+            }
+            out.println("Below are applications.");
+            ApplicationView.displayApplications(out, applications);
+            return true;
+        });
+        if (!listed) {
             return;
         }
-        System.out.println("Below are applications.");
-        ApplicationView.displayApplications(applications);
-        System.out.println("1 - approve or reject application\n2 - approve or reject withdrawal");
+        out.println("1 - approve or reject application\n2 - approve or reject withdrawal");
         choice = readIntInput("Enter your choice: ");
         switch (choice) {
             case 1 -> approveOrRejectApplication();
             case 2 -> approveOrRejectWithdrawal();
-            default -> System.out.println("Invalid choice.");
+            default -> out.println("Invalid choice.");
         }
     }
     //case 3: approve or reject application
@@ -270,30 +284,39 @@ public class ManagerInterface extends BaseInterface {
      * based on the applicant's NRIC and application status.
      */
     public void approveOrRejectApplication() {
-        System.out.println("Enter the user NRIC you want to approve or reject: ");
+        out.println("Enter the user NRIC you want to approve or reject: ");
         String NRIC = sc.nextLine();
         Application application = managerService.findApplicationByNric(NRIC);
         if (application == null) {
-            System.out.println("Application not found.");
+            out.println("Application not found.");
             return;
         }
         if (application.getStatus() != Application.ApplicationStatus.PENDING){
-            System.out.println("You are not allowed to approve or reject this application.");
+            out.println("You are not allowed to approve or reject this application.");
             return;
         }
-        System.out.println("Approve or Reject:\n1 - Approve\n2 - Reject");
+        int version = application.getVersion();
+        out.println("Approve or Reject:\n1 - Approve\n2 - Reject");
         choice = readIntInput("Enter your choice: ");
 
         switch (choice) {
             case 1 -> {
-                managerService.approveApplication(application);
-                System.out.println("Approve successfully.");
+                try {
+                    managerService.approveApplication(application, version);
+                    out.println("Approve successfully.");
+                } catch (IllegalArgumentException e) {
+                    out.println(e.getMessage());
+                }
             }
             case 2 -> {
-                managerService.rejectApplication(application);
-                System.out.println("Reject successfully.");
+                try {
+                    managerService.rejectApplication(application, version);
+                    out.println("Reject successfully.");
+                } catch (IllegalArgumentException e) {
+                    out.println(e.getMessage());
+                }
             }
-            default -> System.out.println("Invalid choice.");
+            default -> out.println("Invalid choice.");
         }
     }
     //case 3: approve or reject withdrawal
@@ -302,30 +325,39 @@ public class ManagerInterface extends BaseInterface {
      * based on NRIC, if the application is marked as a withdrawal.
      */
     public void approveOrRejectWithdrawal() {
-        System.out.println("Enter the user NRIC you want to approve or reject: ");
+        out.println("Enter the user NRIC you want to approve or reject: ");
         String NRIC2 = sc.nextLine();
         Application application2 = managerService.findApplicationByNric(NRIC2);
         if (application2 == null) {
-            System.out.println("Application for withdrawal not found.");
+            out.println("Application for withdrawal not found.");
             return;
         }
         if (!application2.isWithdrawal()){
-            System.out.println("You are not allowed to approve this application for withdrawal.");
+            out.println("You are not allowed to approve this application for withdrawal.");
             return;
         }
-        System.out.println("Approve or Reject:\n1 - Approve\n2 - Reject");
+        int version = application2.getVersion();
+        out.println("Approve or Reject:\n1 - Approve\n2 - Reject");
         choice = readIntInput("Enter your choice: ");
 
         switch (choice) {
             case 1 -> {
-                managerService.approveWithdrawal(application2);
-                System.out.println("Approve withdrawal successfully.");//need details?
+                try {
+                    managerService.approveWithdrawal(application2, version);
+                    out.println("Approve withdrawal successfully.");//need details?
+                } catch (IllegalArgumentException e) {
+                    out.println(e.getMessage());
+                }
             }
             case 2 -> {
-                managerService.rejectWithdrawal(application2);
-                System.out.println("Reject withdrawal successfully.");
+                try {
+                    managerService.rejectWithdrawal(application2, version);
+                    out.println("Reject withdrawal successfully.");
+                } catch (IllegalArgumentException e) {
+                    out.println(e.getMessage());
+                }
             }
-            default -> System.out.println("Invalid choice.");
+            default -> out.println("Invalid choice.");
         }
     }
 
@@ -335,47 +367,56 @@ public class ManagerInterface extends BaseInterface {
      * flat type, project, age, or marital status.
      */
     public void generateReports() {
-        System.out.println("Generate reports based on:");
-        System.out.println("1 - All applicants");
-        System.out.println("2 - By flat type");
-        System.out.println("3 - By project");
-        System.out.println("4 - By age");
-        System.out.println("5 - By marital status");
+        out.println("Generate reports based on:");
+        out.println("1 - All applicants");
+        out.println("2 - By flat type");
+        out.println("3 - By project");
+        out.println("4 - By age");
+        out.println("5 - By marital status");
         choice = readIntInput("Enter your choice: ");
 
-        List<Applicant> applicants = new ArrayList<>();
+        String filterType = null;
+        String filterValue = null;
 
         switch (choice) {
-            case 1 -> applicants = managerService.getApplicantsForReport(null, null);
+            case 1 -> {}
             case 2 -> {
-                System.out.println("Enter flat type (TWO_ROOM/THREE_ROOM): ");
-                String flatType = sc.nextLine();
-                applicants = managerService.getApplicantsForReport("flatType", flatType);
+                out.println("Enter flat type (TWO_ROOM/THREE_ROOM): ");
+                filterType = "flatType";
+                filterValue = sc.nextLine();
             }
             case 3 -> {
-                System.out.println("Enter project name: ");
-                String projectName = sc.nextLine();
-                applicants = managerService.getApplicantsForReport("projectName", projectName);
+                out.println("Enter project name: ");
+                filterType = "projectName";
+                filterValue = sc.nextLine();
             }
             case 4 -> {
-                System.out.println("Enter age: ");
-                String age = sc.nextLine();
-                applicants = managerService.getApplicantsForReport("age", age);
+                out.println("Enter age: ");
+                filterType = "age";
+                filterValue = sc.nextLine();
             }
             case 5 -> {
-                System.out.println("Enter marital status (SINGLE/MARRIED): ");
-                String status = sc.nextLine();
-                applicants = managerService.getApplicantsForReport("maritalStatus", status);
+                out.println("Enter marital status (SINGLE/MARRIED): ");
+                filterType = "maritalStatus";
+                filterValue = sc.nextLine();
             }
-            default -> System.out.println("Invalid choice.");
+            default -> out.println("Invalid choice.");
         }
 
-        if (applicants.isEmpty()) {
-            System.out.println("No approved applicants found with these criteria.");
-            return;
-        }
-        System.out.println("Below is a report of the filtered list of applicants.");
-        UserView.displayApplicants(applicants);
+        // Build and print the report from one snapshot, so concurrent bookings cannot tear it
+        String reportType = filterType;
+        String reportValue = filterValue;
+        Snapshot.run(() -> {
+            List<Applicant> applicants = choice >= 1 && choice <= 5
+                    ? managerService.getApplicantsForReport(reportType, reportValue)
+                    : new ArrayList<>();
+            if (applicants.isEmpty()) {
+                out.println("No approved applicants found with these criteria.");
+                return;
+            }
+            out.println("Below is a report of the filtered list of applicants.");
+            UserView.displayApplicants(out, applicants);
+        });
     }
 
 
@@ -389,29 +430,34 @@ public class ManagerInterface extends BaseInterface {
             if (enquiries.isEmpty()) {
                 throw (new IllegalArgumentException("No enquiries found."));
             }
-            System.out.println("Here are the enquiries: ");
-            EnquiryView.displayEnquiries(enquiries);
-            System.out.println("1 - Reply\n2 - Back");
+            out.println("Here are the enquiries: ");
+            EnquiryView.displayEnquiries(out, enquiries);
+            out.println("1 - Reply\n2 - Back");
             choice = readIntInput("Enter your choice: ");
 
             switch (choice) {
                 case 1 -> {
-                    System.out.println("Enter the Enquiry ID you want to reply: ");
+                    out.println("Enter the Enquiry ID you want to reply: ");
                     int enquiryId = sc.nextInt();
                     sc.nextLine();
+                    Enquiry enquiry = managerService.getEnquiry(enquiryId);
+                    if (enquiry == null) {
+                        throw (new IllegalArgumentException("Enquiry not found."));
+                    }
                     if (!managerService.checkAuthForEnquiry(enquiryId)) {
                         throw (new IllegalArgumentException("You are not authorized to reply this enquiry."));
                     }
-                    System.out.println("Enter your reply:");
+                    int version = enquiry.getVersion();
+                    out.println("Enter your reply:");
                     String reply = sc.nextLine();
-                    managerService.replyEnquiry(enquiryId, reply);
-                    System.out.println("Reply successfully.");
+                    managerService.replyEnquiry(enquiryId, reply, version);
+                    out.println("Reply successfully.");
                 }
                 case 2 -> {}
-                default -> System.out.println("Invalid choice.");
+                default -> out.println("Invalid choice.");
             }
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -423,15 +469,15 @@ public class ManagerInterface extends BaseInterface {
     @Override
     public void start() {
         while(true) {
-            System.out.println("Welcome, " + currentUser.getName() + "!");
-            System.out.println("Manager Menu: ");
-            System.out.println("1 - Manage Projects");//1 create: enter info and create; 2 edit or delete: enter name and manage 3 toggle visibility; 4 filter projects they created
-            System.out.println("2 - Manage Registrations");//1 approve (update officer slots) or reject (only in-charge);
-            System.out.println("3 - Manage Applications");//1 approve or reject applicant's application (approval is limited to the supply of flats) and 2 withdrawal
-            System.out.println("4 - Generate reports"); //1 applicants - flatType, project name, age, marital status
-            System.out.println("5 - Manage Enquiries"); //1 reply to enquiries he/she is handling
-            System.out.println("6 - Change password");
-            System.out.println("7 - Log out");
+            out.println("Welcome, " + currentUser.getName() + "!");
+            out.println("Manager Menu: ");
+            out.println("1 - Manage Projects");//1 create: enter info and create; 2 edit or delete: enter name and manage 3 toggle visibility; 4 filter projects they created
+            out.println("2 - Manage Registrations");//1 approve (update officer slots) or reject (only in-charge);
+            out.println("3 - Manage Applications");//1 approve or reject applicant's application (approval is limited to the supply of flats) and 2 withdrawal
+            out.println("4 - Generate reports"); //1 applicants - flatType, project name, age, marital status
+            out.println("5 - Manage Enquiries"); //1 reply to enquiries he/she is handling
+            out.println("6 - Change password");
+            out.println("7 - Log out");
             choice = readIntInput("Enter your choice: ");
 
             switch (choice) {
@@ -442,7 +488,7 @@ public class ManagerInterface extends BaseInterface {
                 case 5 -> manageEnquiries();
                 case 6 -> { if (changePassword()) { return; } }
                 case 7 -> { return; }
-                default -> System.out.println("Invalid choice.");
+                default -> out.println("Invalid choice.");
             }
         }
     }
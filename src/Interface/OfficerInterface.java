@@ -6,7 +6,9 @@ import View.EnquiryView;
 import View.ProjectView;
 import View.RegistrationView;
 
+import java.io.PrintStream;
 import java.util.List;
+import java.util.Scanner;
 
 
 /**
@@ -24,9 +26,11 @@ public class OfficerInterface extends BaseInterface {
      * Constructs an OfficerInterface with the current logged-in officer.
      *
      * @param currentUser the currently authenticated user, expected to be an instance of HDBOfficer
+     * @param sc          the scanner to read the officer's input from
+     * @param out         the stream to print to
      */
-    public OfficerInterface(User currentUser) {
-        super(currentUser);//in this case, for currentUser: reference - User; object - Applicant/Officer/...
+    public OfficerInterface(User currentUser, Scanner sc, PrintStream out) {
+        super(currentUser, sc, out);//in this case, for currentUser: reference - User; object - Applicant/Officer/...
         this.officerService = new OfficerService((HDBOfficer) currentUser);
         this.projectService = new ProjectService();
         super.setProjectService(this.projectService);
@@ -40,56 +44,54 @@ public class OfficerInterface extends BaseInterface {
     public void viewOrApplyProjects() {
         List<Project> projects = officerService.getVisibleProjects();
 
-        System.out.println(filterSettings.getFilterSummary());
-        projects = applyProjectFilters(projects);
-        if (projects.isEmpty()) {
-            System.out.println("Project not found.");
+        out.println(filterSettings.getFilterSummary());
+        if (!displayFilteredProjects(projects, page -> ProjectView.displayProjectList(out, page, currentUser))) {
+            out.println("Project not found.");
         }
 
-        ProjectView.displayProjectList(projects, currentUser);
-        System.out.println("1 - Apply for a Project");
-        System.out.println("2 - Manage Filters");
-        System.out.println("3 - Back");
+        out.println("1 - Apply for a Project");
+        out.println("2 - Manage Filters");
+        out.println("3 - Back");
         choice = readIntInput("Enter your choice: ");
         switch (choice) {
             case 1 -> {
                 if (officerService.haveProject()) {
-                    System.out.println("You have already applied for a project.");
+                    out.println("You have already applied for a project.");
                     break;
                 }
-                System.out.println("Enter project name: ");
+                out.println("Enter project name: ");
                 String name = sc.nextLine();
                 Project project = projectService.findProjectByName(name);
                 if (project == null) {
-                    System.out.println("Project not found.");
+                    out.println("Project not found.");
                     break;
                 }
 
                 try {
-                    System.out.println("Select flat type: ");
-                    System.out.println("1 - 2-Room");
+                    out.println("Select flat type: ");
+                    out.println("1 - 2-Room");
                     if (!officerService.isSingle())
-                        System.out.println("2 - 3-Room");
+                        out.println("2 - 3-Room");
                     int flatType = readIntInput("Enter your choice: ");
                     Application application = officerService.newApplication(project, flatType);
 
-                    System.out.println("Confirm application details: ");
-                    ApplicationView.displayApplication(application);
-                    System.out.println("1 - Send Application");
-                    System.out.println("2 - Back");
+                    out.println("Confirm application details: ");
+                    ApplicationView.displayApplication(out, application);
+                    out.println("1 - Send Application");
+                    out.println("2 - Back");
                     choice = readIntInput("Enter your choice: ");
 
                     if (choice == 1) {
                         officerService.sendApplication(application);
-                        System.out.println("Application submitted successfully.");
+                        out.println("Application submitted successfully.");
                     }
                 } catch (IllegalArgumentException e) {
-                    System.out.println(e.getMessage());
+                    out.println(e.getMessage());
                 }
             }
             case 2 -> manageFilters();
             case 3 -> {}
-            default -> System.out.println("Invalid choice");
+            default -> out.println("Invalid choice");
         }
     }
 
@@ -99,11 +101,11 @@ public class OfficerInterface extends BaseInterface {
      */
     public void viewMyProject() {
         if (officerService.haveProject()) {
-            System.out.println("Here is your project: ");
+            out.println("Here is your project: ");
             Project project = officerService.getProject();
-            ProjectView.displayProject(project, currentUser);
+            ProjectView.displayProject(out, project, currentUser);
         } else
-            System.out.println("You have not applied for a project.");
+            out.println("You have not applied for a project.");
     }
 
     
@@ -114,11 +116,11 @@ public class OfficerInterface extends BaseInterface {
     public void bookAFlat() {
         try {
             if (officerService.isAvailableToBookFlat()) {
-                System.out.println("You can book a flat now.");
+                out.println("You can book a flat now.");
             } else
-                System.out.println("Application must be SUCCESSFUL to book.");
+                out.println("Application must be SUCCESSFUL to book.");
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -130,9 +132,9 @@ public class OfficerInterface extends BaseInterface {
     public void withdrawApplication() {
         try {
             officerService.withdrawalApplication();
-            System.out.println("Submitted withdrawal successfully.");
+            out.println("Submitted withdrawal successfully.");
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -147,8 +149,8 @@ public class OfficerInterface extends BaseInterface {
             if (projects.isEmpty())
                 throw new IllegalArgumentException("Project not found.");
 
-            ProjectView.displayProjectList(projects, currentUser);
-            System.out.println("Enter the project name you want to enquire about: ");
+            ProjectView.displayProjectList(out, projects, currentUser);
+            out.println("Enter the project name you want to enquire about: ");
             String enqName = sc.nextLine();
             Project enqProject = projectService.findProjectByName(enqName);
             if (enqProject == null)
@@ -156,12 +158,12 @@ public class OfficerInterface extends BaseInterface {
             if (!officerService.isEligibleForProject(enqProject))
                 throw new IllegalArgumentException("You are not allowed to enquire about this project.");
 
-            System.out.println("Enter your enquiry: ");
+            out.println("Enter your enquiry: ");
             String query = sc.nextLine();
             officerService.submitEnquiry(query, enqProject);
-            System.out.println("Enquiry submitted successfully.");
+            out.println("Enquiry submitted successfully.");
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -176,9 +178,9 @@ public class OfficerInterface extends BaseInterface {
             if (enquiries.isEmpty()) {
                 throw new IllegalArgumentException("No enquiries found.");
             }
-            System.out.println("Here are your enquiries: ");
-            EnquiryView.displayEnquiries(enquiries);
-            System.out.println("Enter enquiry ID to edit: ");
+            out.println("Here are your enquiries: ");
+            EnquiryView.displayEnquiries(out, enquiries);
+            out.println("Enter enquiry ID to edit: ");
             int enquiryId = sc.nextInt();
             sc.nextLine();
 
@@ -189,24 +191,24 @@ public class OfficerInterface extends BaseInterface {
             if (enquiry.getResponse() != null) {
                 throw new IllegalArgumentException("This enquiry has already been replied.");
             }
-            System.out.println("1 - Edit\n2 - Delete\n3 - Back");
+            out.println("1 - Edit\n2 - Delete\n3 - Back");
             choice = readIntInput("Enter your choice: ");
 
             switch (choice) {
                 case 1 -> {
-                    System.out.println("Enter new enquiry message: ");
+                    out.println("Enter new enquiry message: ");
                     String newQuery = sc.nextLine();
                     officerService.editEnquiry(newQuery, enquiry);
-                    System.out.println("Enquiry edited successfully.");
+                    out.println("Enquiry edited successfully.");
                 }
                 case 2 -> {
                     officerService.deleteEnquiry(enquiry);
-                    System.out.println("Enquiry deleted successfully.");
+                    out.println("Enquiry deleted successfully.");
                 }
                 case 3 -> {}
             }
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -221,10 +223,10 @@ public class OfficerInterface extends BaseInterface {
             if (projects.isEmpty()) {
                 throw new IllegalArgumentException("No eligible projects found for registration");
             }
-            System.out.println("Here are the projects you can register: ");
-            ProjectView.displayManagedList(projects);
+            out.println("Here are the projects you can register: ");
+            ProjectView.displayManagedList(out, projects);
 
-            System.out.println("Enter the project name to register for: ");
+            out.println("Enter the project name to register for: ");
             String regProjectName = sc.nextLine();
 
             // get the project
@@ -240,9 +242,9 @@ public class OfficerInterface extends BaseInterface {
 
             // register
             officerService.submitRegistration(regProjectName);
-            System.out.println("Registration submitted successfully.");
+            out.println("Registration submitted successfully.");
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -255,10 +257,10 @@ public class OfficerInterface extends BaseInterface {
             List<Registration> registrations = officerService.getRegistrations();
             if (registrations.isEmpty())
                 throw (new IllegalArgumentException("Registrations not found."));
-            System.out.println("Your registrations: ");
-            RegistrationView.displayRegistrations(registrations);
+            out.println("Your registrations: ");
+            RegistrationView.displayRegistrations(out, registrations);
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -271,10 +273,10 @@ public class OfficerInterface extends BaseInterface {
             Project managedProject = officerService.getProjectHandling();
             if (managedProject == null)
                 throw new IllegalArgumentException("You are not managing any project.");
-            System.out.println("Your managed project: ");
-            ProjectView.displayManagedProject(managedProject);
+            out.println("Your managed project: ");
+            ProjectView.displayManagedProject(out, managedProject);
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -289,14 +291,15 @@ public class OfficerInterface extends BaseInterface {
             if (managedProject == null) {
                 throw new IllegalArgumentException("You are not managing any project.");
             }
-            System.out.println("Enter applicant NRIC: ");
+            out.println("Enter applicant NRIC: ");
             String nric = sc.next();
             sc.nextLine();
 
-            officerService.bookApplication(nric, managedProject);
-            System.out.println("Application set to BOOKED successfully.");
+            Application application = officerService.bookApplication(nric, managedProject);
+            ApplicationView.generateReceipt(out, application);
+            out.println("Application set to BOOKED successfully.");
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
     
@@ -310,24 +313,29 @@ public class OfficerInterface extends BaseInterface {
             if (projectEnquiries.isEmpty())
                 throw new IllegalArgumentException("No enquiries found.");
 
-            System.out.println("Enquiries for your project: ");
-            EnquiryView.displayEnquiries(projectEnquiries);
-            System.out.println("1 - Reply\n2 - Back");
+            out.println("Enquiries for your project: ");
+            EnquiryView.displayEnquiries(out, projectEnquiries);
+            out.println("1 - Reply\n2 - Back");
             choice = readIntInput("Enter your choice: ");
 
             switch (choice) {
                 case 1 -> {
                     int replyId = readIntInput("Enter enquiry ID to reply: ");
-                    System.out.println("Enter your reply:");
+                    Enquiry enquiry = officerService.getEnquiry(replyId);
+                    if (enquiry == null)
+                        throw new IllegalArgumentException("Enquiry not found.");
+                    // Remember what the reply is based on, so a reply sent meanwhile is not overwritten
+                    int version = enquiry.getVersion();
+                    out.println("Enter your reply:");
                     String reply = sc.nextLine();
-                    officerService.replyEnquiry(replyId, reply);
-                    System.out.println("Reply successfully.");
+                    officerService.replyEnquiry(replyId, reply, version);
+                    out.println("Reply successfully.");
                 }
                 case 2 -> {}
-                default -> System.out.println("Invalid choice");
+                default -> out.println("Invalid choice");
             }
         } catch (IllegalArgumentException e) {
-            System.out.println(e.getMessage());
+            out.println(e.getMessage());
         }
     }
 
@@ -338,24 +346,24 @@ public class OfficerInterface extends BaseInterface {
      */
     public void start() {
         while(true) {
-            System.out.println("\nWelcome, " + currentUser.getName() + "!");
-            System.out.println("Officer Menu: ");
-            System.out.println("Act as an applicant:");
-            System.out.println("1 - View or Apply Projects");
-            System.out.println("2 - View My Applied Project");
-            System.out.println("3 - Book a Flat (Applicant)");
-            System.out.println("4 - Request Withdrawal for Application");
-            System.out.println("5 - Submit an Enquiry");
-            System.out.println("6 - Edit or Delete Enquiries");
-
-            System.out.println("Act as an officer:");
-            System.out.println("7 - Register for a Project");
-            System.out.println("8 - View My Registration");
-            System.out.println("9 - View My Managing Project");
-            System.out.println("10 - Manage Applications (Set to BOOKED)");
-            System.out.println("11 - Reply to Enquiries");
-            System.out.println("12 - Change Password");
-            System.out.println("13 - Log Out");
+            out.println("\nWelcome, " + currentUser.getName() + "!");
+            out.println("Officer Menu: ");
+            out.println("Act as an applicant:");
+            out.println("1 - View or Apply Projects");
+            out.println("2 - View My Applied Project");
+            out.println("3 - Book a Flat (Applicant)");
+            out.println("4 - Request Withdrawal for Application");
+            out.println("5 - Submit an Enquiry");
+            out.println("6 - Edit or Delete Enquiries");
+
+            out.println("Act as an officer:");
+            out.println("7 - Register for a Project");
+            out.println("8 - View My Registration");
+            out.println("9 - View My Managing Project");
+            out.println("10 - Manage Applications (Set to BOOKED)");
+            out.println("11 - Reply to Enquiries");
+            out.println("12 - Change Password");
+            out.println("13 - Log Out");
             choice = readIntInput("Enter your choice: ");
 
             switch (choice) {
@@ -373,7 +381,7 @@ public class OfficerInterface extends BaseInterface {
                 case 11 -> replyToEnquiries();
                 case 12 -> { if (changePassword()) { return; } }
                 case 13 -> { return; }
-                default -> System.out.println("Invalid choice");
+                default -> out.println("Invalid choice");
             }
         }
     }
@@ -0,0 +1,91 @@
+package Server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+
+/**
+ * The console of one session: the {@link Scanner} the menus read from and the
+ * {@link PrintStream} they print to, both bound to the session's connection.
+ *
+ * <p>Output is collected in memory and sent when the session next waits for input or is
+ * flushed, so a slow client never holds up the work of a session while it prints.</p>
+ */
+public final class SessionConsole {
+    private final InputStream in;
+    private final OutputStream out;
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(256);
+    private final Scanner scanner;
+    private final PrintStream printer;
+
+    /**
+     * Creates the console of a session.
+     *
+     * @param in  the input of the session
+     * @param out the output of the session
+     */
+    public SessionConsole(InputStream in, OutputStream out) {
+        this.in = in;
+        this.out = out;
+        this.scanner = new Scanner(new FlushingInputStream());
+        // No auto-flush: output is sent when the session waits for input
+        this.printer = new PrintStream(pending, false);
+    }
+
+    /**
+     * Returns the scanner reading the session's input.
+     *
+     * @return the scanner of the session
+     */
+    public Scanner scanner() {
+        return scanner;
+    }
+
+    /**
+     * Returns the stream printing to the session's output.
+     *
+     * @return the print stream of the session
+     */
+    public PrintStream out() {
+        return printer;
+    }
+
+    /**
+     * Sends the pending output of the session.
+     *
+     * @throws IOException if the client cannot be written to
+     */
+    public synchronized void flush() throws IOException {
+        printer.flush();
+        if (pending.size() > 0) {
+            pending.writeTo(out);
+            pending.reset();
+            out.flush();
+        }
+    }
+
+    /**
+     * Sends the pending output before every read, so the client sees the prompt it answers.
+     */
+    private final class FlushingInputStream extends InputStream {
+        @Override
+        public int read() throws IOException {
+            flush();
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            flush();
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+    }
+}
@@ -7,7 +7,7 @@ import Database.UserDatabase;
 import Entity.*;
 import util.DateUtil;
 
-import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,6 +23,7 @@ public class ApplicantService implements IApplicantService {
     private ProjectDatabase projectDatabase = ProjectDatabase.getInstance();
     private EnquiryDatabase enquiryDatabase = EnquiryDatabase.getInstance();
     private ApplicationDatabase applicationDatabase = ApplicationDatabase.getInstance();
+    private UserDatabase userDatabase = UserDatabase.getInstance();
     private Applicant applicant;
 
     //constructor
@@ -59,13 +60,11 @@ public class ApplicantService implements IApplicantService {
      * @return list of eligible visible projects
      */
     public List<Project> getVisibleProjects() {
-        LocalDate today = DateUtil.getCurrentDate();
-
-        return projectDatabase.findProjects().stream()
-                .filter(Project::isVisible)
-                .filter(p -> !today.isBefore(p.getOpeningDate()) && !today.isAfter(p.getClosingDate()))
-                .filter(this::isEligibleForProject)
-                .collect(Collectors.toList());
+        // Eligibility does not depend on the project, so every eligible applicant shares one list
+        if (!meetsEligibilityRule()) {
+            return new ArrayList<>();
+        }
+        return projectDatabase.findOpenProjects(DateUtil.getCurrentDate());
     }
 
     /**
@@ -78,6 +77,16 @@ public class ApplicantService implements IApplicantService {
     public boolean isEligibleForProject(Project project) {
         if (!project.isVisible())
             return false;
+        return meetsEligibilityRule();
+    }
+
+    /**
+     * Checks the age and marital status rule for applying.
+     * Single applicants must be at least 35 years old, and non-single applicants must be at least 21.
+     *
+     * @return true if the applicant may apply for visible projects
+     */
+    protected boolean meetsEligibilityRule() {
         if (applicant.isSingle() && applicant.getAge() >= 35) {
             return true;
         }
@@ -119,13 +128,20 @@ public class ApplicantService implements IApplicantService {
 
     /**
      * Submits the given application to the application database and updates the applicant's record.
+     * Runs under the applicant's lock, so two sessions of the same applicant cannot both apply.
      *
      * @param application the application to be submitted
+     * @throws IllegalArgumentException if the applicant already has an application
      */
     public void sendApplication(Application application) {
-        applicationDatabase.addApplication(application);
-        applicant.setProject(application.getProject());
-        applicant.setApplication(application);
+        userDatabase.update(applicant.getNric(), () -> {
+            if (haveProject()) {
+                throw new IllegalArgumentException("You have already applied for a project.");
+            }
+            applicationDatabase.addApplication(application);
+            applicant.setProject(application.getProject());
+            applicant.setApplication(application);
+        });
     }
 
     /**
@@ -164,7 +180,7 @@ public class ApplicantService implements IApplicantService {
         if(application == null) {
             throw (new IllegalArgumentException("Application not found."));
         }
-        application.setWithdrawal(true);
+        projectDatabase.update(application.getProject(), () -> application.setWithdrawal(true));
     }
 
 
@@ -207,7 +223,7 @@ public class ApplicantService implements IApplicantService {
      * @param enquiry the enquiry to be edited
      */
     public void editEnquiry(String q, Enquiry enquiry) {
-        enquiry.setMessage(q);
+        enquiryDatabase.update(enquiry.getId(), () -> enquiry.setMessage(q));
     }
 
     /**
@@ -216,6 +232,6 @@ public class ApplicantService implements IApplicantService {
      * @param enquiry the enquiry to be deleted
      */
     public void deleteEnquiry(Enquiry enquiry) {
-        enquiryDatabase.removeEnquiry(enquiry);
+        enquiryDatabase.update(enquiry.getId(), () -> enquiryDatabase.removeEnquiry(enquiry));
     }
 }
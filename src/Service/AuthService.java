@@ -5,7 +5,6 @@ import Database.UserDatabase;
 import View.UserView;
 
 import javax.naming.AuthenticationException;
-import java.util.List;
 
 
 /**
@@ -35,9 +34,7 @@ public class AuthService {
      * @return the User object if found, or null if not found
      */
     public User findByNric(String nric) {
-        ;
-        return userDatabase.findUsers().stream().filter(user -> nric.equals(user.getNric()))
-                .findFirst().orElse(null);
+        return userDatabase.findByNric(nric);
     }
 
 
@@ -81,6 +78,6 @@ public class AuthService {
      * @param newPassword the new password to set
      */
     public void changePassword(User user, String newPassword) {
-        findByNric(user.getNric()).setPassword(newPassword);
+        userDatabase.update(user.getNric(), () -> findByNric(user.getNric()).setPassword(newPassword));
     }
 }
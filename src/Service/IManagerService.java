@@ -2,8 +2,10 @@ package Service;
 
 import Entity.*;
 
+import java.io.PrintStream;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Scanner;
 
 
 /**
@@ -57,8 +59,10 @@ public interface IManagerService {
      *
      * @param choice the attribute to edit (e.g., name, dates, prices)
      * @param project the project to be edited
+     * @param sc the scanner to read the new value from
+     * @param out the stream to print the prompts to
      */
-    void editProject(int choice, Project project);
+    void editProject(int choice, Project project, Scanner sc, PrintStream out);
 
 
     /**
@@ -94,6 +98,15 @@ public interface IManagerService {
     void approveRegistration(Registration registration);
 
 
+    /**
+     * Approves the specified project registration, unless it has changed since its version was read.
+     *
+     * @param registration the Registration object to approve
+     * @param expectedVersion the version of the registration when it was read
+     */
+    void approveRegistration(Registration registration, int expectedVersion);
+
+
     /**
      * Rejects the specified project registration.
      *
@@ -102,6 +115,15 @@ public interface IManagerService {
     void rejectRegistration(Registration registration);
 
 
+    /**
+     * Rejects the specified project registration, unless it has changed since its version was read.
+     *
+     * @param registration the Registration object to reject
+     * @param expectedVersion the version of the registration when it was read
+     */
+    void rejectRegistration(Registration registration, int expectedVersion);
+
+
     /**
      * Retrieves all submitted applications for the manager's project.
      *
@@ -110,6 +132,14 @@ public interface IManagerService {
     List<Application> getApplications();
 
 
+    /**
+     * Retrieves the pending applications for projects managed by this manager.
+     *
+     * @return list of pending applications
+     */
+    List<Application> getPendingApplications();
+
+
     /**
      * Finds an application based on the applicant's NRIC.
      *
@@ -127,6 +157,16 @@ public interface IManagerService {
     void approveApplication(Application application);
 
 
+    /**
+     * Approves the specified application, unless it has changed since its version was read
+     * or is no longer PENDING.
+     *
+     * @param application the Application object to approve
+     * @param expectedVersion the version of the application when it was read
+     */
+    void approveApplication(Application application, int expectedVersion);
+
+
     /**
      * Rejects the specified application.
      *
@@ -135,6 +175,16 @@ public interface IManagerService {
     void rejectApplication(Application application);
 
 
+    /**
+     * Rejects the specified application, unless it has changed since its version was read
+     * or is no longer PENDING.
+     *
+     * @param application the Application object to reject
+     * @param expectedVersion the version of the application when it was read
+     */
+    void rejectApplication(Application application, int expectedVersion);
+
+
     /**
      * Retrieves all applications that have requested withdrawals.
      *
@@ -151,6 +201,16 @@ public interface IManagerService {
     void approveWithdrawal(Application application);
 
 
+    /**
+     * Approves the withdrawal request for the specified application, unless the application
+     * has changed since its version was read or no longer requests withdrawal.
+     *
+     * @param application the Application object requesting withdrawal
+     * @param expectedVersion the version of the application when it was read
+     */
+    void approveWithdrawal(Application application, int expectedVersion);
+
+
     /**
      * Rejects the withdrawal request for the specified application.
      *
@@ -158,6 +218,16 @@ public interface IManagerService {
      */
     void rejectWithdrawal(Application application);
 
+
+    /**
+     * Rejects the withdrawal request for the specified application, unless the application
+     * has changed since its version was read or no longer requests withdrawal.
+     *
+     * @param application the Application object requesting withdrawal
+     * @param expectedVersion the version of the application when it was read
+     */
+    void rejectWithdrawal(Application application, int expectedVersion);
+
     
     //List<Applicant> getApplicantsForReport();
     /**
@@ -178,6 +248,15 @@ public interface IManagerService {
     List<Enquiry> getEnquiries();
 
 
+    /**
+     * Finds an enquiry by its ID.
+     *
+     * @param id the ID of the enquiry
+     * @return the Enquiry object if found, otherwise null
+     */
+    Enquiry getEnquiry(int id);
+
+
     /**
      * Checks if the manager is authorized to reply to the specified enquiry.
      *
@@ -195,4 +274,14 @@ public interface IManagerService {
      */
     void replyEnquiry(int Id, String reply);
 
+
+    /**
+     * Submits a reply to a specific enquiry, unless it has changed since its version was read.
+     *
+     * @param id the ID of the enquiry
+     * @param reply the response message
+     * @param expectedVersion the version of the enquiry when it was read
+     */
+    void replyEnquiry(int id, String reply, int expectedVersion);
+
 }
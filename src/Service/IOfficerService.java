@@ -53,8 +53,9 @@ public interface IOfficerService extends IApplicantService {
      *
      * @param applicantNric the NRIC of the applicant
      * @param project the project where the flat is to be booked
+     * @return the booked application
      */
-    void bookApplication(String applicantNric, Project project);
+    Application bookApplication(String applicantNric, Project project);
 
 
     /**
@@ -72,4 +73,14 @@ public interface IOfficerService extends IApplicantService {
      * @param reply the reply message content
      */    
     void replyEnquiry(int id, String reply) ;
+
+
+    /**
+     * Sends a reply to a specific enquiry, unless it has changed since its version was read.
+     *
+     * @param id the ID of the enquiry
+     * @param reply the reply message content
+     * @param expectedVersion the version of the enquiry when it was read
+     */
+    void replyEnquiry(int id, String reply, int expectedVersion);
 }
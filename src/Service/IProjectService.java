@@ -2,6 +2,7 @@ package Service;
 
 import Entity.FilterSettings;
 import Entity.Project;
+import Entity.ProjectPage;
 
 import java.util.List;
 
@@ -63,4 +64,18 @@ public interface IProjectService {
      * @return a list of projects that match the filter criteria
      */
     List<Project> applyFilters(List<Project> projects, FilterSettings filterSettings);
+
+
+    /**
+     * Returns one page of the projects that match the filter settings, sorted by their sort type.
+     * Only the requested page is ordered, so showing the first page of a long listing does not
+     * sort every match.
+     *
+     * @param projects the list of projects to filter
+     * @param filterSettings the filtering and sorting criteria
+     * @param offset the number of matching projects to skip
+     * @param limit the maximum number of projects on the page
+     * @return the page, including the total number of matching projects
+     */
+    ProjectPage findPage(List<Project> projects, FilterSettings filterSettings, int offset, int limit);
 }
@@ -2,8 +2,9 @@ package Service;
 
 import Database.*;
 import Entity.*;
-import util.DateUtil;
+import util.Snapshot;
 
+import java.io.PrintStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -40,8 +41,8 @@ public class ManagerService implements IManagerService {
      */
     public Project createProject(String projectName, String neighbourhood, int room2, int price2,
                                  int room3, int price3, LocalDate openingDate, LocalDate closingDate, int slots, User user) {
-        FlatType flatType1 = new FlatType("2-Room", room2, price2);
-        FlatType flatType2 = new FlatType("3-Room", room3, price3);
+        FlatType flatType1 = new FlatType(Application.FlatType.TWO_ROOM.getLabel(), room2, price2);
+        FlatType flatType2 = new FlatType(Application.FlatType.THREE_ROOM.getLabel(), room3, price3);
         List<FlatType> flatTypes = new ArrayList<>(Arrays.asList(flatType1, flatType2));
         return new Project(projectName, neighbourhood, flatTypes, openingDate, closingDate, (HDBManager) user, slots, new ArrayList<>());
     }
@@ -54,8 +55,7 @@ public class ManagerService implements IManagerService {
      * @return true if there's a conflict; false otherwise
      */
     public boolean hasProjectConflict(LocalDate openingDate, LocalDate closingDate) {
-        List<Project> managedProjects = projectDatabase.findByManager(manager.getName());
-        return managedProjects.stream().anyMatch(p -> DateUtil.hasDateOverlap(openingDate, closingDate, p.getOpeningDate(), p.getClosingDate()));
+        return projectDatabase.hasManagerProjectDuring(manager.getName(), openingDate, closingDate);
     }
 
     /**
@@ -70,67 +70,69 @@ public class ManagerService implements IManagerService {
 
     /**
      * Edits a project based on user input and a specified field to modify.
+     * The input is read first, so the project is locked only while the field is set.
      *
      * @param choice  the field number to modify
      * @param project the project to edit
+     * @param sc      the scanner to read the new value from
+     * @param out     the stream to print the prompts to
      */
-    public void editProject(int choice, Project project) {
-        Scanner sc = new Scanner(System.in);
+    public void editProject(int choice, Project project, Scanner sc, PrintStream out) {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy/M/d");
         switch (choice) {
             case 1 -> {
-                System.out.println("Enter new name: ");
+                out.println("Enter new name: ");
                 String name = sc.nextLine();
-                project.setName(name);
+                projectDatabase.update(project, () -> projectDatabase.renameProject(project, name));
             }
             case 2 -> {
-                System.out.println("Enter new neighbourhood: ");
+                out.println("Enter new neighbourhood: ");
                 String neighbourhood = sc.nextLine();
-                project.setNeighbourhood(neighbourhood);
+                projectDatabase.update(project, () -> project.setNeighbourhood(neighbourhood));
             }
             case 3 -> {
-                System.out.println("Enter new available units: ");
+                out.println("Enter new available units: ");
                 int availableUnits = sc.nextInt();
                 sc.nextLine();
-                project.set2RoomUnits(availableUnits);
+                projectDatabase.update(project, () -> project.set2RoomUnits(availableUnits));
             }
             case 4 -> {
-                System.out.println("Enter new price: ");
+                out.println("Enter new price: ");
                 int price = sc.nextInt();
                 sc.nextLine();
-                project.set2RoomPrice(price);
+                projectDatabase.update(project, () -> project.set2RoomPrice(price));
             }
             case 5 -> {
-                System.out.println("Enter new available units: ");
+                out.println("Enter new available units: ");
                 int availableUnits = sc.nextInt();
                 sc.nextLine();
-                project.set3RoomUnits(availableUnits);
+                projectDatabase.update(project, () -> project.set3RoomUnits(availableUnits));
             }
             case 6 -> {
-                System.out.println("Enter new price: ");
+                out.println("Enter new price: ");
                 int price = sc.nextInt();
                 sc.nextLine();
-                project.set3RoomPrice(price);
+                projectDatabase.update(project, () -> project.set3RoomPrice(price));
             }
             case 7 -> {
-                System.out.println("Enter new opening date (format: yyyy/M/d, e.g. 2000/1/30): ");
+                out.println("Enter new opening date (format: yyyy/M/d, e.g. 2000/1/30): ");
                 String opening = sc.nextLine();
                 LocalDate openingDate = LocalDate.parse(opening, formatter);
-                project.setOpeningDate(openingDate);
+                projectDatabase.update(project, () -> project.setOpeningDate(openingDate));
             }
             case 8 -> {
-                System.out.println("Enter new closing date (format: yyyy/M/d, e.g. 2000/1/30): ");
+                out.println("Enter new closing date (format: yyyy/M/d, e.g. 2000/1/30): ");
                 String closing = sc.nextLine();
                 LocalDate closingDate = LocalDate.parse(closing, formatter);
-                project.setClosingDate(closingDate);
+                projectDatabase.update(project, () -> project.setClosingDate(closingDate));
             }
             case 9 -> {
-                System.out.println("Enter new slots: ");
+                out.println("Enter new slots: ");
                 int slots = sc.nextInt();
                 sc.nextLine();
-                project.setOfficerSlots(slots);
+                projectDatabase.update(project, () -> project.setOfficerSlots(slots));
             }
-            default -> System.out.println("Invalid choice");
+            default -> out.println("Invalid choice");
         }
     }
 
@@ -140,7 +142,7 @@ public class ManagerService implements IManagerService {
      * @param project the project whose visibility to change
      */
     public void shiftVisibility(Project project) {
-        project.setVisibility(!project.isVisible());
+        projectDatabase.update(project, () -> project.setVisibility(!project.isVisible()));
     }
 
     /**
@@ -171,25 +173,42 @@ public class ManagerService implements IManagerService {
      * @param registration the registration to approve
      */
     public void approveRegistration(Registration registration) {
-        // Logic to check validity and update registration/project/officer data
         if (registration == null) {
             throw new IllegalArgumentException("Registration not found.");
         }
-        if (!registration.getProject().getManager().getNric().equals(manager.getNric())) {
-            throw new IllegalArgumentException("Not authorized to manage this registration.");
-        }
-        if (registration.getStatus() != Registration.Status.PENDING) {
-            throw new IllegalArgumentException("Only PENDING registrations can be approved.");
+        approveRegistration(registration, registration.getVersion());
+    }
+
+    /**
+     * Approves a pending officer registration, unless it has changed since the manager read it.
+     *
+     * @param registration    the registration to approve
+     * @param expectedVersion the version of the registration when the manager read it
+     */
+    public void approveRegistration(Registration registration, int expectedVersion) {
+        // Logic to check validity and update registration/project/officer data
+        if (registration == null) {
+            throw new IllegalArgumentException("Registration not found.");
         }
         Project project = registration.getProject();
-        if (project.getOfficerSlots() <= 0) {
-            throw new IllegalArgumentException("No officer slots available.");
-        }
-        registration.setStatus(Registration.Status.APPROVED);
-        HDBOfficer officer = registration.getOfficer();
-        officer.setProjectHandling(project);
-        project.getOfficers().add(officer);
-        project.setOfficerSlots(project.getOfficerSlots() - 1);
+        // Check and take the slot under the project's lock, so two approvals cannot share the last slot
+        projectDatabase.update(project, () -> {
+            if (!project.getManager().getNric().equals(manager.getNric())) {
+                throw new IllegalArgumentException("Not authorized to manage this registration.");
+            }
+            if (registration.getStatus() != Registration.Status.PENDING) {
+                throw new IllegalArgumentException("Only PENDING registrations can be approved.");
+            }
+            VersionCheck.require(registration, expectedVersion, "registration");
+            if (project.getOfficerSlots() <= 0) {
+                throw new IllegalArgumentException("No officer slots available.");
+            }
+            registration.setStatus(Registration.Status.APPROVED);
+            HDBOfficer officer = registration.getOfficer();
+            officer.setProjectHandling(project);
+            project.addOfficer(officer);
+            project.setOfficerSlots(project.getOfficerSlots() - 1);
+        });
     }
 
     /**
@@ -198,24 +217,51 @@ public class ManagerService implements IManagerService {
      * @param registration the registration to reject
      */
     public void rejectRegistration(Registration registration) {
+        if (registration == null) {
+            throw new IllegalArgumentException("Registration not found.");
+        }
+        rejectRegistration(registration, registration.getVersion());
+    }
+
+    /**
+     * Rejects an officer registration, unless it has changed since the manager read it.
+     *
+     * @param registration    the registration to reject
+     * @param expectedVersion the version of the registration when the manager read it
+     */
+    public void rejectRegistration(Registration registration, int expectedVersion) {
         if (registration == null) {
             throw new IllegalArgumentException("Registration not found.");
         }
         if (!registration.getProject().getManager().getNric().equals(manager.getNric())) {
             throw new IllegalArgumentException("Not authorized to manage this registration.");
         }
-        registration.setStatus(Registration.Status.REJECTED);
+        projectDatabase.update(registration.getProject(), () -> {
+            VersionCheck.require(registration, expectedVersion, "registration");
+            registration.setStatus(Registration.Status.REJECTED);
+        });
     }
 
     /**
      * Retrieves all applications for projects managed by this manager.
+     * When the caller has a {@link Snapshot} open, applications submitted after it was taken are left out.
      *
      * @return list of applications
      */
     public List<Application> getApplications() {
-        return applicationDatabase.findApplications().stream()
-                .filter(a -> a.getProject().getManager().getName().equals(manager.getName()))
-                .collect(Collectors.toList());
+        return Snapshot.read(() -> applicationDatabase.findByManager(manager.getName()).stream()
+                .filter(Application::existsInSnapshot)
+                .toList());
+    }
+
+    /**
+     * Retrieves the pending applications for projects managed by this manager,
+     * i.e. the applications waiting for approval or rejection.
+     *
+     * @return list of pending applications
+     */
+    public List<Application> getPendingApplications() {
+        return applicationDatabase.findByManager(manager.getName(), Application.ApplicationStatus.PENDING);
     }
 
     /**
@@ -234,7 +280,26 @@ public class ManagerService implements IManagerService {
      * @param application the application to approve
      */
     public void approveApplication(Application application) {
-        application.setStatus(Application.ApplicationStatus.SUCCESSFUL);
+        projectDatabase.update(application.getProject(),
+                () -> application.setStatus(Application.ApplicationStatus.SUCCESSFUL));
+    }
+
+    /**
+     * Approves a pending application, unless it has changed since the manager read it.
+     * Unlike {@link #approveApplication(Application)}, an application that is no longer PENDING
+     * is refused, since the manager decided on it while it was pending.
+     *
+     * @param application     the application to approve
+     * @param expectedVersion the version of the application when the manager read it
+     */
+    public void approveApplication(Application application, int expectedVersion) {
+        projectDatabase.update(application.getProject(), () -> {
+            if (application.getStatus() != Application.ApplicationStatus.PENDING) {
+                throw new IllegalArgumentException("Only PENDING applications can be approved.");
+            }
+            VersionCheck.require(application, expectedVersion, "application");
+            application.setStatus(Application.ApplicationStatus.SUCCESSFUL);
+        });
     }
 
     /**
@@ -243,7 +308,26 @@ public class ManagerService implements IManagerService {
      * @param application the application to reject
      */
     public void rejectApplication(Application application) {
-        application.setStatus(Application.ApplicationStatus.UNSUCCESSFUL);
+        projectDatabase.update(application.getProject(),
+                () -> application.setStatus(Application.ApplicationStatus.UNSUCCESSFUL));
+    }
+
+    /**
+     * Rejects a pending application, unless it has changed since the manager read it.
+     * Unlike {@link #rejectApplication(Application)}, an application that is no longer PENDING
+     * is refused, since the manager decided on it while it was pending.
+     *
+     * @param application     the application to reject
+     * @param expectedVersion the version of the application when the manager read it
+     */
+    public void rejectApplication(Application application, int expectedVersion) {
+        projectDatabase.update(application.getProject(), () -> {
+            if (application.getStatus() != Application.ApplicationStatus.PENDING) {
+                throw new IllegalArgumentException("Only PENDING applications can be rejected.");
+            }
+            VersionCheck.require(application, expectedVersion, "application");
+            application.setStatus(Application.ApplicationStatus.UNSUCCESSFUL);
+        });
     }
 
     /**
@@ -256,12 +340,46 @@ public class ManagerService implements IManagerService {
     }
 
     /**
-     * Approves a withdrawal request by marking the application as unsuccessful.
+     * Approves a withdrawal request by marking the application as unsuccessful and returning
+     * the unit of a booked flat to the project.
      *
      * @param application the application to update
      */
     public void approveWithdrawal(Application application) {
-        application.setStatus(Application.ApplicationStatus.UNSUCCESSFUL);
+        projectDatabase.update(application.getProject(), () -> withdraw(application));
+    }
+
+    /**
+     * Approves a withdrawal request, unless the application has changed since the manager read it.
+     * Unlike {@link #approveWithdrawal(Application)}, an application whose withdrawal request is
+     * no longer open is refused.
+     *
+     * @param application     the application to update
+     * @param expectedVersion the version of the application when the manager read it
+     */
+    public void approveWithdrawal(Application application, int expectedVersion) {
+        projectDatabase.update(application.getProject(), () -> {
+            if (!application.isWithdrawal()) {
+                throw new IllegalArgumentException("This application has no withdrawal request.");
+            }
+            VersionCheck.require(application, expectedVersion, "application");
+            withdraw(application);
+        });
+    }
+
+    /**
+     * Marks a withdrawn application as unsuccessful and, if its flat was booked, returns the unit
+     * to the project. Holds the application's lock, as booking does, so that a booking in
+     * progress either completes first or sees the application as no longer successful.
+     */
+    private void withdraw(Application application) {
+        synchronized (application) {
+            Application.ApplicationStatus previous = application.getLatestStatus();
+            application.setStatus(Application.ApplicationStatus.UNSUCCESSFUL);
+            if (previous == Application.ApplicationStatus.BOOKED && application.getFlatType() != null) {
+                application.getProject().release(application.getFlatType());
+            }
+        }
     }
 
     /**
@@ -270,22 +388,42 @@ public class ManagerService implements IManagerService {
      * @param application the application to update
      */
     public void rejectWithdrawal(Application application) {
-        application.setWithdrawal(false);
+        projectDatabase.update(application.getProject(), () -> application.setWithdrawal(false));
+    }
+
+    /**
+     * Rejects a withdrawal request, unless the application has changed since the manager read it.
+     * Unlike {@link #rejectWithdrawal(Application)}, an application whose withdrawal request is
+     * no longer open is refused.
+     *
+     * @param application     the application to update
+     * @param expectedVersion the version of the application when the manager read it
+     */
+    public void rejectWithdrawal(Application application, int expectedVersion) {
+        projectDatabase.update(application.getProject(), () -> {
+            if (!application.isWithdrawal()) {
+                throw new IllegalArgumentException("This application has no withdrawal request.");
+            }
+            VersionCheck.require(application, expectedVersion, "application");
+            application.setWithdrawal(false);
+        });
     }
 
     /**
      * Retrieves a list of successful or booked applicants based on a filter.
+     * The applicants and their application statuses are read from one {@link Snapshot}, the
+     * caller's if it has one open, so bookings made meanwhile do not tear the report.
      *
      * @param filterType  the type of filter (e.g., "flatType", "projectName", "age", "maritalStatus")
      * @param filterValue the value for the filter
      * @return filtered list of applicants
      */
     public List<Applicant> getApplicantsForReport(String filterType, String filterValue) {
-        List<Applicant> applicants = userDatabase.findApplicants().stream()
+        List<Applicant> applicants = Snapshot.read(() -> userDatabase.findApplicants().stream()
                 .filter(a -> a.getApplication() != null)
-                .filter(a -> a.getApplication().getStatus().equals(Application.ApplicationStatus.SUCCESSFUL)
-                        || a.getApplication().getStatus().equals(Application.ApplicationStatus.BOOKED))
-                .collect(Collectors.toList());
+                .filter(a -> a.getApplication().getStatus() == Application.ApplicationStatus.SUCCESSFUL
+                        || a.getApplication().getStatus() == Application.ApplicationStatus.BOOKED)
+                .collect(Collectors.toList()));
 
         if (filterType == null) {
             return applicants;
@@ -312,6 +450,16 @@ public class ManagerService implements IManagerService {
         return enquiryDatabase.findAll();
     }
 
+    /**
+     * Finds an enquiry by its ID.
+     *
+     * @param id the enquiry ID
+     * @return the enquiry, or null if there is none
+     */
+    public Enquiry getEnquiry(int id) {
+        return enquiryDatabase.findById(id);
+    }
+
     /**
      * Checks if the manager is authorized to reply to the given enquiry.
      *
@@ -330,9 +478,30 @@ public class ManagerService implements IManagerService {
      */
     public void replyEnquiry(int id, String reply) {
         Enquiry enquiry = enquiryDatabase.findById(id);
-        if (enquiry.getResponse() != null) {
-            throw new IllegalArgumentException("This enquiry has already been replied.");
+        if (enquiry == null) {
+            throw new IllegalArgumentException("Enquiry not found.");
         }
-        enquiry.setResponse(reply);
+        replyEnquiry(id, reply, enquiry.getVersion());
+    }
+
+    /**
+     * Replies to a specific enquiry, unless it has changed since the manager read it.
+     *
+     * @param id              the ID of the enquiry
+     * @param reply           the reply message
+     * @param expectedVersion the version of the enquiry when the manager read it
+     */
+    public void replyEnquiry(int id, String reply, int expectedVersion) {
+        Enquiry enquiry = enquiryDatabase.findById(id);
+        if (enquiry == null) {
+            throw new IllegalArgumentException("Enquiry not found.");
+        }
+        enquiryDatabase.update(id, () -> {
+            if (enquiry.getResponse() != null) {
+                throw new IllegalArgumentException("This enquiry has already been replied.");
+            }
+            VersionCheck.require(enquiry, expectedVersion, "enquiry");
+            enquiry.setResponse(reply);
+        });
     }
 }
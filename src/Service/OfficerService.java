@@ -4,11 +4,13 @@ import Database.ApplicationDatabase;
 import Database.EnquiryDatabase;
 import Database.ProjectDatabase;
 import Database.RegistrationDatabase;
+import Database.UserDatabase;
 import Entity.*;
-import View.ApplicationView;
+import util.DateRanges;
 import util.DateUtil;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,6 +25,7 @@ public class OfficerService extends ApplicantService implements IOfficerService
     private ApplicationDatabase applicationDatabase = ApplicationDatabase.getInstance();
     private EnquiryDatabase enquiryDatabase = EnquiryDatabase.getInstance();
     private RegistrationDatabase registrationDatabase = RegistrationDatabase.getInstance();
+    private UserDatabase userDatabase = UserDatabase.getInstance();
 
     private HDBOfficer officer;
 
@@ -44,18 +47,16 @@ public class OfficerService extends ApplicantService implements IOfficerService
      */
     @Override
     public List<Project> getVisibleProjects() {
+        if (!meetsEligibilityRule()) {
+            return new ArrayList<>();
+        }
         if (officer.getProjectHandling() != null){
             String name = officer.getProjectHandling().getName();
-            return projectDatabase.findProjects().stream()
-                    .filter(Project::isVisible)
-                    .filter(this::isEligibleForProject)
+            return projectDatabase.findVisibleProjects().stream()
                     .filter(p -> !p.getName().equals(name))
                     .collect(Collectors.toList());
         }
-        return projectDatabase.findProjects().stream()
-                .filter(Project::isVisible)
-                .filter(this::isEligibleForProject)
-                .collect(Collectors.toList());
+        return projectDatabase.findVisibleProjects();
     }
 
     /**
@@ -66,41 +67,28 @@ public class OfficerService extends ApplicantService implements IOfficerService
     public List<Project> getProjectsForRegi() {
         LocalDate today = DateUtil.getCurrentDate();
 
-        List<Project> eligibleProjects = projectDatabase.findProjects().stream()
-                .filter(p -> !today.isBefore(p.getOpeningDate()) && !today.isAfter(p.getClosingDate()))
-                .collect(Collectors.toList());
+        Project appliedProject = officer.getApplication() != null ? officer.getApplication().getProject() : null;
+        Project handlingProject = officer.getProjectHandling();
 
-        // Remove project already applied for
-        if (officer.getApplication() != null) {
-            Project appliedProject = officer.getApplication().getProject();
-            eligibleProjects = eligibleProjects.stream()
-                    .filter(p -> !p.getName().equals(appliedProject.getName()))
-                    .collect(Collectors.toList());
+        // The days the officer is already taken: pending/approved registrations and the project
+        // being handled, read once and checked with one lookup per project
+        DateRanges busy = registrationDatabase.findActivePeriods(officer.getNric());
+        if (handlingProject != null) {
+            busy.add(handlingProject.getOpeningDate(), handlingProject.getClosingDate());
         }
 
-        // Remove project being handled
-        if (officer.getProjectHandling() != null) {
-            Project handlingProject = officer.getProjectHandling();
-            eligibleProjects = eligibleProjects.stream()
-                    .filter(p -> !DateUtil.hasDateOverlap(
-                            p.getOpeningDate(), p.getClosingDate(),
-                            handlingProject.getOpeningDate(), handlingProject.getClosingDate()))
-                    .collect(Collectors.toList());
-        }
-
-        // Remove projects with pending/approved registrations
-        List<Registration> registrations = registrationDatabase.findByOfficerNric(officer.getNric());
-        for (Registration reg : registrations) {
-            if (reg.getStatus() != Registration.Status.REJECTED) {
-                Project regProject = reg.getProject();
-                eligibleProjects = eligibleProjects.stream()
-                        .filter(p -> !DateUtil.hasDateOverlap(
-                                p.getOpeningDate(), p.getClosingDate(),
-                                regProject.getOpeningDate(), regProject.getClosingDate()))
-                        .collect(Collectors.toList());
+        List<Project> eligibleProjects = new ArrayList<>();
+        for (Project p : projectDatabase.findAllOpenProjects(today)) {
+            // Remove project already applied for
+            if (appliedProject != null && p.getName().equals(appliedProject.getName())) {
+                continue;
+            }
+            // Remove projects overlapping the project being handled or a registration
+            if (busy.overlaps(p.getOpeningDate(), p.getClosingDate())) {
+                continue;
             }
+            eligibleProjects.add(p);
         }
-
         return eligibleProjects;
     }
 
@@ -125,20 +113,16 @@ public class OfficerService extends ApplicantService implements IOfficerService
             }
         }
 
-        // Check existing registrations for conflicts
-        List<Registration> registrations = registrationDatabase.findByOfficerNric(officer.getNric());
-        for (Registration reg : registrations) {
-            Project regProject = reg.getProject();
-            if (reg.getStatus() != Registration.Status.REJECTED &&
-                    DateUtil.hasDateOverlap(
-                            project.getOpeningDate(), project.getClosingDate(),
-                            regProject.getOpeningDate(), regProject.getClosingDate())) {
+        // Check existing registrations for conflicts and register under the officer's lock,
+        // so two sessions of the same officer cannot both register for overlapping projects
+        userDatabase.update(officer.getNric(), () -> {
+            if (registrationDatabase.hasActiveRegistrationDuring(officer.getNric(), project.getOpeningDate(), project.getClosingDate())) {
                 throw new IllegalArgumentException("You already have a pending or approved registration during this period.");
             }
-        }
 
-        Registration registration = new Registration(officer, project, Registration.Status.PENDING);
-        registrationDatabase.addRegistration(registration);
+            Registration registration = new Registration(officer, project, Registration.Status.PENDING);
+            registrationDatabase.addRegistration(registration);
+        });
     }
 
     /**
@@ -183,8 +167,9 @@ public class OfficerService extends ApplicantService implements IOfficerService
      *
      * @param applicantNric the NRIC of the applicant
      * @param project       the project the applicant applied to
+     * @return the booked application
      */
-    public void bookApplication(String applicantNric, Project project) {
+    public Application bookApplication(String applicantNric, Project project) {
         if (!project.equals(officer.getProjectHandling())) {
             throw new IllegalArgumentException("Officer can only manage applications under their own project.");
         }
@@ -192,19 +177,22 @@ public class OfficerService extends ApplicantService implements IOfficerService
         if (application == null) {
             throw new IllegalArgumentException("Applicant or application not found.");
         }
-        if (application.getProject().equals(project)
-                && application.getStatus() != Application.ApplicationStatus.SUCCESSFUL) {
-            throw new IllegalArgumentException("No successful application found for this applicant.");
-        }
+        // Claim the application, so it cannot be booked twice; bookings of different applicants
+        // do not wait for each other and only meet at the compare-and-set on the unit count
+        synchronized (application) {
+            if (!application.getProject().equals(project)
+                    || application.getLatestStatus() != Application.ApplicationStatus.SUCCESSFUL) {
+                throw new IllegalArgumentException("No successful application found for this applicant.");
+            }
 
-        application.setStatus(Application.ApplicationStatus.BOOKED);
-        Project bookedProject = application.getProject();
-        if (application.getFlatType() == Application.FlatType.TWO_ROOM) {
-            bookedProject.set2RoomUnits(bookedProject.get2RoomUnits() - 1);
-        } else if (application.getFlatType() == Application.FlatType.THREE_ROOM) {
-            bookedProject.set3RoomUnits(bookedProject.get3RoomUnits() - 1);
+            // Take the unit first: when it is gone, the application stays successful and nothing changes
+            Application.FlatType flatType = application.getFlatType();
+            if (flatType != null && !project.tryReserve(flatType)) {
+                throw new IllegalArgumentException("No " + flatType.getLabel() + " units left in this project.");
+            }
+            application.setStatus(Application.ApplicationStatus.BOOKED);
         }
-        ApplicationView.generateReceipt(application);
+        return application;
     }
 
     /**
@@ -238,10 +226,31 @@ public class OfficerService extends ApplicantService implements IOfficerService
      */
     public void replyEnquiry(int id, String reply) {
         Enquiry enquiry = enquiryDatabase.findById(id);
-        if (enquiry.getResponse() != null) {
-            throw new IllegalArgumentException("This enquiry has already been replied.");
+        if (enquiry == null) {
+            throw new IllegalArgumentException("Enquiry not found.");
+        }
+        replyEnquiry(id, reply, enquiry.getVersion());
+    }
+
+    /**
+     * Responds to a specific enquiry, unless it has changed since the officer read it.
+     *
+     * @param id              the ID of the enquiry
+     * @param reply           the reply message
+     * @param expectedVersion the version of the enquiry when the officer read it
+     */
+    public void replyEnquiry(int id, String reply, int expectedVersion) {
+        Enquiry enquiry = enquiryDatabase.findById(id);
+        if (enquiry == null) {
+            throw new IllegalArgumentException("Enquiry not found.");
         }
-        enquiry.setResponse(reply);
+        enquiryDatabase.update(id, () -> {
+            if (enquiry.getResponse() != null) {
+                throw new IllegalArgumentException("This enquiry has already been replied.");
+            }
+            VersionCheck.require(enquiry, expectedVersion, "enquiry");
+            enquiry.setResponse(reply);
+        });
     }
 
     /**
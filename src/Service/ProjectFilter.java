@@ -0,0 +1,92 @@
+package Service;
+
+import Entity.Application;
+import Entity.FilterSettings;
+import Entity.Project;
+
+import java.time.LocalDate;
+
+/**
+ * A {@link FilterSettings} compiled into one predicate over projects.
+ *
+ * <p>Stored projects are matched through the indexes of {@link Database.ProjectDatabase#findMatching},
+ * so this predicate is only the fallback of {@link ProjectService} for projects that are not stored
+ * in the database, e.g. in a list built by the caller. It must keep the semantics of the indexes.</p>
+ *
+ * <p>The settings are read once, when the filter is compiled; each criterion becomes a primitive
+ * field and a flag, so testing a project is a short sequence of field comparisons. Criteria are
+ * checked in an order that rejects most projects early: the neighbourhood, flat type availability
+ * and officer slots first, then prices, units and dates.</p>
+ */
+final class ProjectFilter {
+    private final String neighbourhood;
+    private final Application.FlatType flatType;
+    private final boolean checkOfficerSlots;
+    private final boolean hasOfficerSlots;
+    private final boolean checkMinPrice;
+    private final int minPrice;
+    private final boolean checkMaxPrice;
+    private final int maxPrice;
+    private final boolean checkMinUnits;
+    private final int minUnits;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+
+    private ProjectFilter(FilterSettings settings) {
+        this.neighbourhood = settings.getNeighbourhood();
+        // An unknown flat type label matches every project, as it always has
+        this.flatType = Application.FlatType.fromLabel(settings.getFlatType());
+        this.checkOfficerSlots = settings.getHasOfficerSlots() != null;
+        this.hasOfficerSlots = checkOfficerSlots && settings.getHasOfficerSlots();
+        this.checkMinPrice = settings.getMinPrice() != null;
+        this.minPrice = checkMinPrice ? settings.getMinPrice() : 0;
+        this.checkMaxPrice = settings.getMaxPrice() != null;
+        this.maxPrice = checkMaxPrice ? settings.getMaxPrice() : 0;
+        this.checkMinUnits = settings.getMinAvailableUnits() != null;
+        this.minUnits = checkMinUnits ? settings.getMinAvailableUnits() : 0;
+        this.startDate = settings.getStartDate();
+        this.endDate = settings.getEndDate();
+    }
+
+    /**
+     * Compiles the current filter criteria of the given settings. Later changes to the settings
+     * do not affect the compiled filter.
+     *
+     * @param settings the filter settings
+     * @return the compiled filter
+     */
+    static ProjectFilter compile(FilterSettings settings) {
+        return new ProjectFilter(settings);
+    }
+
+    /**
+     * Checks whether a project passes every criterion.
+     *
+     * @param project the project to test
+     * @return true if the project matches the filter
+     */
+    boolean test(Project project) {
+        if (neighbourhood != null && !project.getNeighbourhood().equalsIgnoreCase(neighbourhood)) {
+            return false;
+        }
+        if (flatType != null && project.getUnits(flatType) <= 0) {
+            return false;
+        }
+        if (checkOfficerSlots && (hasOfficerSlots ? project.getOfficerSlots() <= 0 : project.getOfficerSlots() != 0)) {
+            return false;
+        }
+        if (checkMinPrice && project.get2RoomPrice() < minPrice && project.get3RoomPrice() < minPrice) {
+            return false;
+        }
+        if (checkMaxPrice && project.get2RoomPrice() > maxPrice && project.get3RoomPrice() > maxPrice) {
+            return false;
+        }
+        if (checkMinUnits && project.get2RoomUnits() < minUnits && project.get3RoomUnits() < minUnits) {
+            return false;
+        }
+        if (startDate != null && project.getOpeningDate().isBefore(startDate)) {
+            return false;
+        }
+        return endDate == null || !project.getClosingDate().isAfter(endDate);
+    }
+}
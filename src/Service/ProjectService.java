@@ -3,12 +3,15 @@ package Service;
 import Database.ProjectDatabase;
 import Entity.FilterSettings;
 import Entity.Project;
+import Entity.ProjectPage;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.PriorityQueue;
 
 /**
  * Service class that provides functionalities to manage and filter HDB projects.
@@ -72,104 +75,133 @@ public class ProjectService implements IProjectService {
      * @return list of filtered and sorted projects
      */
     public List<Project> applyFilters(List<Project> projects, FilterSettings filterSettings) {
-        List<Project> filteredProjects = new ArrayList<>(projects);
-
-        // Filter by neighbourhood
-        if (filterSettings.getNeighbourhood() != null) {
-            filteredProjects = filteredProjects.stream()
-                    .filter(p -> p.getNeighbourhood().equalsIgnoreCase(filterSettings.getNeighbourhood()))
-                    .collect(Collectors.toList());
+        BitSet selection = select(projects, filterSettings);
+        if (selection != null) {
+            Optional<List<Project>> sortedProjects = projectDatabase.findSortedPage(selection, filterSettings.getSortType(), 0, Integer.MAX_VALUE);
+            if (sortedProjects.isPresent()) {
+                return sortedProjects.get();
+            }
         }
+        List<Project> filteredProjects = filter(projects, filterSettings);
 
-        // Filter by flat type availability
-        if (filterSettings.getFlatType() != null) {
-            filteredProjects = filteredProjects.stream()
-                    .filter(p -> {
-                        if (filterSettings.getFlatType().equals("2-Room")) {
-                            return p.get2RoomUnits() > 0;
-                        } else if (filterSettings.getFlatType().equals("3-Room")) {
-                            return p.get3RoomUnits() > 0;
-                        }
-                        return true;
-                    })
-                    .collect(Collectors.toList());
-        }
+        // Apply sorting based on user preference
+        filteredProjects.sort(comparatorFor(filterSettings.getSortType()));
+        return filteredProjects;
+    }
 
-        // Filter by minimum price
-        if (filterSettings.getMinPrice() != null) {
-            final int minPrice = filterSettings.getMinPrice();
-            filteredProjects = filteredProjects.stream()
-                    .filter(p -> p.get2RoomPrice() >= minPrice || p.get3RoomPrice() >= minPrice)
-                    .collect(Collectors.toList());
+    /**
+     * Returns one page of the filtered and sorted projects, in the same order as
+     * {@link #applyFilters(List, FilterSettings)}, without sorting the whole list. The page is
+     * read from the database's sorted order of the sort type; if some project cannot be found in
+     * that order, only the first {@code offset + limit} projects are kept in a bounded heap.
+     *
+     * @param projects        the list of projects to filter
+     * @param filterSettings  the settings used to filter and sort projects
+     * @param offset          the number of matching projects to skip
+     * @param limit           the maximum number of projects on the page
+     * @return the requested page
+     */
+    public ProjectPage findPage(List<Project> projects, FilterSettings filterSettings, int offset, int limit) {
+        BitSet selection = select(projects, filterSettings);
+        if (selection != null) {
+            Optional<List<Project>> page = projectDatabase.findSortedPage(selection, filterSettings.getSortType(), offset, limit);
+            if (page.isPresent()) {
+                return new ProjectPage(page.get(), offset, selection.cardinality());
+            }
         }
+        List<Project> filteredProjects = filter(projects, filterSettings);
+        List<Project> page = topK(filteredProjects, comparatorFor(filterSettings.getSortType()), offset, limit);
+        return new ProjectPage(page, offset, filteredProjects.size());
+    }
 
-        // Filter by maximum price
-        if (filterSettings.getMaxPrice() != null) {
-            final int maxPrice = filterSettings.getMaxPrice();
-            filteredProjects = filteredProjects.stream()
-                    .filter(p -> p.get2RoomPrice() <= maxPrice || p.get3RoomPrice() <= maxPrice)
-                    .collect(Collectors.toList());
+    /**
+     * Returns the ordinals of the given projects that match the filter criteria, or null if some
+     * of the projects are not stored in the database.
+     */
+    private BitSet select(List<Project> projects, FilterSettings filterSettings) {
+        BitSet matches = projectDatabase.findMatching(filterSettings);
+        if (projects == projectDatabase.findProjects()) {
+            return matches;
         }
-
-        // Filter by project opening start date
-        if (filterSettings.getStartDate() != null) {
-            final LocalDate startDate = filterSettings.getStartDate();
-            filteredProjects = filteredProjects.stream()
-                    .filter(p -> !p.getOpeningDate().isBefore(startDate))
-                    .collect(Collectors.toList());
+        BitSet selection = new BitSet();
+        for (Project project : projects) {
+            int ordinal = projectDatabase.ordinalOf(project);
+            if (ordinal < 0) {
+                return null;
+            }
+            if (matches.get(ordinal)) {
+                selection.set(ordinal);
+            }
         }
+        return selection;
+    }
 
-        // Filter by project closing end date
-        if (filterSettings.getEndDate() != null) {
-            final LocalDate endDate = filterSettings.getEndDate();
-            filteredProjects = filteredProjects.stream()
-                    .filter(p -> !p.getClosingDate().isAfter(endDate))
-                    .collect(Collectors.toList());
+    /**
+     * Collects the projects that match the filter criteria, keeping their order.
+     */
+    private List<Project> filter(List<Project> projects, FilterSettings filterSettings) {
+        if (projects == projectDatabase.findProjects()) {
+            // The whole table: read the matches straight from the database indexes
+            return projectDatabase.findProjects(projectDatabase.findMatching(filterSettings));
         }
-
-        // Filter by minimum available units
-        if (filterSettings.getMinAvailableUnits() != null) {
-            final int minUnits = filterSettings.getMinAvailableUnits();
-            filteredProjects = filteredProjects.stream()
-                    .filter(p -> p.get2RoomUnits() >= minUnits || p.get3RoomUnits() >= minUnits)
-                    .collect(Collectors.toList());
+        // A subset: look each project up in the index result; projects that are not
+        // stored in the database are tested directly
+        BitSet matches = projectDatabase.findMatching(filterSettings);
+        ProjectFilter filter = ProjectFilter.compile(filterSettings);
+        List<Project> filteredProjects = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            int ordinal = projectDatabase.ordinalOf(project);
+            if (ordinal >= 0 ? matches.get(ordinal) : filter.test(project)) {
+                filteredProjects.add(project);
+            }
         }
+        return filteredProjects;
+    }
 
-        // Filter projects that have available officer slots
-        if (filterSettings.getHasOfficerSlots() != null && filterSettings.getHasOfficerSlots()) {
-            filteredProjects = filteredProjects.stream()
-                    .filter(p -> p.getOfficerSlots() > 0)
-                    .collect(Collectors.toList());
-        }
+    /**
+     * Returns the order of a sort type.
+     */
+    private static Comparator<Project> comparatorFor(FilterSettings.SortType sortType) {
+        return switch (sortType) {
+            case NAME_ASC -> Comparator.comparing(Project::getName);
+            case NAME_DESC -> Comparator.comparing(Project::getName).reversed();
+            case PRICE_ASC -> Comparator.comparingInt((Project p) -> Math.min(p.get2RoomPrice(), p.get3RoomPrice()));
+            case PRICE_DESC -> Comparator.comparingInt((Project p) -> Math.min(p.get2RoomPrice(), p.get3RoomPrice())).reversed();
+            case DATE_ASC -> Comparator.comparing(Project::getOpeningDate);
+            case DATE_DESC -> Comparator.comparing(Project::getOpeningDate).reversed();
+        };
+    }
 
-        if (filterSettings.getHasOfficerSlots() != null && !filterSettings.getHasOfficerSlots()) {
-            filteredProjects = filteredProjects.stream()
-                    .filter(p -> p.getOfficerSlots() == 0)
-                    .collect(Collectors.toList());
+    /**
+     * Selects the projects at positions offset to offset + limit of the sorted list in
+     * O(n log k) for k = offset + limit. A max-heap keeps the k smallest projects seen so far;
+     * ties are broken by list position, so the result matches a stable sort.
+     */
+    private static List<Project> topK(List<Project> projects, Comparator<Project> order, int offset, int limit) {
+        int k = (int) Math.min((long) offset + limit, projects.size());
+        if (offset >= k) {
+            return new ArrayList<>();
         }
-
-        // Apply sorting based on user preference
-        switch (filterSettings.getSortType()) {
-            case NAME_ASC:
-                filteredProjects.sort(Comparator.comparing(Project::getName));
-                break;
-            case NAME_DESC:
-                filteredProjects.sort(Comparator.comparing(Project::getName).reversed());
-                break;
-            case PRICE_ASC:
-                filteredProjects.sort(Comparator.comparingInt((Project p) -> Math.min(p.get2RoomPrice(), p.get3RoomPrice())));
-                break;
-            case PRICE_DESC:
-                filteredProjects.sort(Comparator.comparingInt((Project p) -> Math.min(p.get2RoomPrice(), p.get3RoomPrice())).reversed());
-                break;
-            case DATE_ASC:
-                filteredProjects.sort(Comparator.comparing(Project::getOpeningDate));
-                break;
-            case DATE_DESC:
-                filteredProjects.sort(Comparator.comparing(Project::getOpeningDate).reversed());
-                break;
+        Comparator<Integer> byRank = (a, b) -> {
+            int c = order.compare(projects.get(a), projects.get(b));
+            return c != 0 ? c : Integer.compare(a, b);
+        };
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k, byRank.reversed());
+        for (int i = 0; i < projects.size(); i++) {
+            if (heap.size() < k) {
+                heap.add(i);
+            } else if (byRank.compare(i, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(i);
+            }
         }
 
-        return filteredProjects;
+        Integer[] positions = heap.toArray(new Integer[0]);
+        Arrays.sort(positions, byRank);
+        List<Project> page = new ArrayList<>(k - offset);
+        for (int i = offset; i < k; i++) {
+            page.add(projects.get(positions[i]));
+        }
+        return page;
     }
 }
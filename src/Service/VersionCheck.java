@@ -0,0 +1,26 @@
+package Service;
+
+import Entity.TrackedEntity;
+
+/**
+ * Check shared by the manager and officer services before a change that the user decided on
+ * after reading an entity, so that the change is refused if someone else changed the entity since.
+ */
+final class VersionCheck {
+    private VersionCheck() {
+    }
+
+    /**
+     * Refuses a change to an entity that someone else changed since the caller read its version.
+     * Called under the entity's lock, so that the change which follows is based on that version.
+     *
+     * @param entity          the entity to change
+     * @param expectedVersion the version the caller read
+     * @param name            what the entity is, for the error message
+     */
+    static void require(TrackedEntity entity, int expectedVersion, String name) {
+        if (!entity.hasVersion(expectedVersion)) {
+            throw new IllegalArgumentException("This " + name + " was changed by someone else. Please review it and try again.");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package View;
 
 import Entity.Application;
 
+import java.io.PrintStream;
 import java.util.List;
 
 /**
@@ -13,43 +14,46 @@ public class ApplicationView {
     /**
      * Displays the details of a single application in a formatted manner.
      *
+     * @param out the stream to print to
      * @param application the {@link Application} object to be displayed
      */
-    public static void displayApplication(Application application) {
-        System.out.println("Applicant NRIC: " + application.getUser().getNric());
-        System.out.println("Applicant Name: " + application.getUser().getName());
-        System.out.println("Project: " + application.getProject().getName());
-        System.out.println("Neighbourhood: " + application.getProject().getNeighbourhood());
-        System.out.println("Status: " + application.getStatus());
-        System.out.println("Flat Type: " + application.getFlatType());
-        System.out.println("Withdrawal: " + application.isWithdrawal());
+    public static void displayApplication(PrintStream out, Application application) {
+        out.println("Applicant NRIC: " + application.getUser().getNric());
+        out.println("Applicant Name: " + application.getUser().getName());
+        out.println("Project: " + application.getProject().getName());
+        out.println("Neighbourhood: " + application.getProject().getNeighbourhood());
+        out.println("Status: " + application.getStatus());
+        out.println("Flat Type: " + application.getFlatType());
+        out.println("Withdrawal: " + application.isWithdrawal());
     }
 
     /**
-     * Displays a list of applications by invoking {@link #displayApplication(Application)}
+     * Displays a list of applications by invoking {@link #displayApplication(PrintStream, Application)}
      * for each application in the list.
      *
+     * @param out the stream to print to
      * @param applications a list of {@link Application} objects to be displayed
      */
-    public static void displayApplications(List<Application> applications) {
-        applications.forEach(ApplicationView::displayApplication);
+    public static void displayApplications(PrintStream out, List<Application> applications) {
+        applications.forEach(a -> displayApplication(out, a));
     }
 
     /**
      * Generates and displays a receipt for a successfully booked application.
      * The receipt includes user and project information if the status is BOOKED.
      *
+     * @param out the stream to print to
      * @param application the {@link Application} object for which the receipt is to be generated
      */
-    public static void generateReceipt(Application application) {
+    public static void generateReceipt(PrintStream out, Application application) {
         if (application.getStatus() == Application.ApplicationStatus.BOOKED) {
-            System.out.println("Below is your receipt.");
-            System.out.println("Applicant Name: " + application.getUser().getName());
-            System.out.println("NRIC: " + application.getUser().getNric());
-            System.out.println("Age: " + application.getUser().getAge());
-            System.out.println("Marital Status: " + application.getUser().getMaritalStatus());
-            System.out.println("Flat Type: " + application.getFlatType());
-            ProjectView.displayManagedProject(application.getProject());
+            out.println("Below is your receipt.");
+            out.println("Applicant Name: " + application.getUser().getName());
+            out.println("NRIC: " + application.getUser().getNric());
+            out.println("Age: " + application.getUser().getAge());
+            out.println("Marital Status: " + application.getUser().getMaritalStatus());
+            out.println("Flat Type: " + application.getFlatType());
+            ProjectView.displayManagedProject(out, application.getProject());
         }
     }
 }
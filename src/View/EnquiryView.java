@@ -2,6 +2,7 @@ package View;
 
 import Entity.Enquiry;
 
+import java.io.PrintStream;
 import java.util.List;
 
 /**
@@ -13,23 +14,25 @@ public class EnquiryView {
      * Displays the details of a single enquiry, including the ID, user's name, 
      * associated project, message, and response.
      *
+     * @param out the stream to print to
      * @param enquiry the enquiry to display
      */
-    public static void displayEnquiry(Enquiry enquiry) {
-        System.out.println("Enquiry ID: " + enquiry.getId());
-        System.out.println("Name: " + enquiry.getUser().getName());
-        System.out.println("Project: " + enquiry.getProject().getName());
-        System.out.println("Message: " + enquiry.getMessage());
-        System.out.println("Response: " + enquiry.getResponse());
+    public static void displayEnquiry(PrintStream out, Enquiry enquiry) {
+        out.println("Enquiry ID: " + enquiry.getId());
+        out.println("Name: " + enquiry.getUser().getName());
+        out.println("Project: " + enquiry.getProject().getName());
+        out.println("Message: " + enquiry.getMessage());
+        out.println("Response: " + enquiry.getResponse());
     }
 
     /**
-     * Displays a list of enquiries by invoking {@link #displayEnquiry(Enquiry)} 
+     * Displays a list of enquiries by invoking {@link #displayEnquiry(PrintStream, Enquiry)} 
      * on each enquiry in the list.
      *
+     * @param out the stream to print to
      * @param enquiries the list of enquiries to display
      */
-    public static void displayEnquiries(List<Enquiry> enquiries) {
-        enquiries.forEach(e -> displayEnquiry(e));
+    public static void displayEnquiries(PrintStream out, List<Enquiry> enquiries) {
+        enquiries.forEach(e -> displayEnquiry(out, e));
     }
 }
@@ -2,6 +2,7 @@ package View;
 
 import Entity.*;
 
+import java.io.PrintStream;
 import java.util.List;
 
 /**
@@ -15,10 +16,11 @@ public class ProjectView {
      * and marital status. If the user is an {@link HDBOfficer} and is currently managing the project,
      * the project details will not be displayed.
      *
+     * @param out         the stream to print to
      * @param project     the project to display
      * @param currentUser the user viewing the project, used for role and marital status checks
      */
-    public static void displayProject(Project project, User currentUser) {
+    public static void displayProject(PrintStream out, Project project, User currentUser) {
         if (currentUser.getRole() == User.UserRole.OFFICER) {
             HDBOfficer hdbOfficer = (HDBOfficer) currentUser;
             if (hdbOfficer.getProjectHandling() != null) {
@@ -27,51 +29,54 @@ public class ProjectView {
                 }
             }
         }
-        System.out.println("Project name: " + project.getName());
-        System.out.println("Neighbourhood: " + project.getNeighbourhood());
-        System.out.println(" - 2-Room: " + project.get2RoomUnits() + "   Price: " + project.get2RoomPrice());
+        out.println("Project name: " + project.getName());
+        out.println("Neighbourhood: " + project.getNeighbourhood());
+        out.println(" - 2-Room: " + project.get2RoomUnits() + "   Price: " + project.get2RoomPrice());
         if (currentUser.getMaritalStatus().equals("MARRIED")) {
-            System.out.println(" - 3-Room: " + project.get3RoomUnits() + "   Price: " + project.get3RoomPrice());
+            out.println(" - 3-Room: " + project.get3RoomUnits() + "   Price: " + project.get3RoomPrice());
         }
-        System.out.println("Opening Date: " + project.getOpeningDate());
-        System.out.println("Closing Date: " + project.getClosingDate());
-        System.out.println("Manager: " + project.getManager().getName() + "\n");
+        out.println("Opening Date: " + project.getOpeningDate());
+        out.println("Closing Date: " + project.getClosingDate());
+        out.println("Manager: " + project.getManager().getName() + "\n");
     }
 
     /**
      * Displays the full set of project information intended for project managers or officers.
      * Includes unit and pricing details, project dates, and officer slots.
      *
+     * @param out the stream to print to
      * @param project the project to display
      */
-    public static void displayManagedProject(Project project) {
-        System.out.println("Project name: " + project.getName());
-        System.out.println("Neighbourhood: " + project.getNeighbourhood());
-        System.out.println(" - 2-Room: " + project.get2RoomUnits() + "   Price: " + project.get2RoomPrice());
-        System.out.println(" - 3-Room: " + project.get3RoomUnits() + "   Price: " + project.get3RoomPrice());
-        System.out.println("Opening Date: " + project.getOpeningDate());
-        System.out.println("Closing Date: " + project.getClosingDate());
-        System.out.println("Manager: " + project.getManager().getName());
-        System.out.println("Officer Slot: " + project.getOfficerSlots() + "\n");
+    public static void displayManagedProject(PrintStream out, Project project) {
+        out.println("Project name: " + project.getName());
+        out.println("Neighbourhood: " + project.getNeighbourhood());
+        out.println(" - 2-Room: " + project.get2RoomUnits() + "   Price: " + project.get2RoomPrice());
+        out.println(" - 3-Room: " + project.get3RoomUnits() + "   Price: " + project.get3RoomPrice());
+        out.println("Opening Date: " + project.getOpeningDate());
+        out.println("Closing Date: " + project.getClosingDate());
+        out.println("Manager: " + project.getManager().getName());
+        out.println("Officer Slot: " + project.getOfficerSlots() + "\n");
     }
 
     /**
-     * Displays a list of projects, using {@link #displayManagedProject(Project)} for each.
+     * Displays a list of projects, using {@link #displayManagedProject(PrintStream, Project)} for each.
      * Typically used for viewing all managed projects.
      *
+     * @param out the stream to print to
      * @param projects the list of projects to display
      */
-    public static void displayManagedList(List<Project> projects) {
-        projects.forEach(p -> displayManagedProject(p));
+    public static void displayManagedList(PrintStream out, List<Project> projects) {
+        projects.forEach(p -> displayManagedProject(out, p));
     }
 
     /**
      * Displays a list of projects to a user, filtering or formatting output based on the user’s role.
      *
+     * @param out          the stream to print to
      * @param projects     the list of projects to display
      * @param currentUser  the user requesting the view, used for role-specific filtering
      */
-    public static void displayProjectList(List<Project> projects, User currentUser) {
-        projects.forEach(p -> displayProject(p, currentUser));
+    public static void displayProjectList(PrintStream out, List<Project> projects, User currentUser) {
+        projects.forEach(p -> displayProject(out, p, currentUser));
     }
 }
@@ -2,6 +2,7 @@ package View;
 
 import Entity.Registration;
 
+import java.io.PrintStream;
 import java.util.List;
 
 /**
@@ -14,23 +15,25 @@ public class RegistrationView {
      * Displays the details of a single registration, including the registration ID,
      * officer's NRIC and name, associated project, and registration status.
      *
+     * @param out the stream to print to
      * @param registration the registration to display
      */
-    public static void displayRegistration(Registration registration) {
-        System.out.println("Registration ID: " + registration.getId());
-        System.out.println("Officer NRIC: " + registration.getOfficer().getNric());
-        System.out.println("Officer Name: " + registration.getOfficer().getName());
-        System.out.println("Project: " + registration.getProject().getName());
-        System.out.println("Status: " + registration.getStatus());
+    public static void displayRegistration(PrintStream out, Registration registration) {
+        out.println("Registration ID: " + registration.getId());
+        out.println("Officer NRIC: " + registration.getOfficer().getNric());
+        out.println("Officer Name: " + registration.getOfficer().getName());
+        out.println("Project: " + registration.getProject().getName());
+        out.println("Status: " + registration.getStatus());
     }
 
     /**
-     * Displays a list of registrations by invoking {@link #displayRegistration(Registration)} 
+     * Displays a list of registrations by invoking {@link #displayRegistration(PrintStream, Registration)} 
      * on each registration in the list.
      *
+     * @param out the stream to print to
      * @param registrations the list of registrations to display
      */
-    public static void displayRegistrations(List<Registration> registrations) {
-        registrations.forEach(RegistrationView::displayRegistration);
+    public static void displayRegistrations(PrintStream out, List<Registration> registrations) {
+        registrations.forEach(r -> displayRegistration(out, r));
     }
 }
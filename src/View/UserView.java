@@ -4,6 +4,7 @@ import Entity.Applicant;
 import Entity.Registration;
 import Entity.User;
 
+import java.io.PrintStream;
 import java.util.List;
 
 /**
@@ -16,24 +17,26 @@ public class UserView {
      * Displays the details of a single applicant, including name, selected flat type,
      * project name, age, and application status.
      *
+     * @param out the stream to print to
      * @param applicant the applicant whose information is to be displayed
      */
-    public static void displayApplicants(Applicant applicant) {
-        System.out.println();
-        System.out.println("Name: " + applicant.getName());
-        System.out.println("Flat Type: " + applicant.getApplication().getFlatType());
-        System.out.println("Project Name: " + applicant.getApplication().getProject().getName());
-        System.out.println("Age: " + applicant.getAge());
-        System.out.println("Marital Status: " + applicant.getApplication().getStatus());
+    public static void displayApplicants(PrintStream out, Applicant applicant) {
+        out.println();
+        out.println("Name: " + applicant.getName());
+        out.println("Flat Type: " + applicant.getApplication().getFlatType());
+        out.println("Project Name: " + applicant.getApplication().getProject().getName());
+        out.println("Age: " + applicant.getAge());
+        out.println("Marital Status: " + applicant.getApplication().getStatus());
     }
 
     /**
-     * Displays a list of applicants by invoking {@link #displayApplicants(Applicant)} 
+     * Displays a list of applicants by invoking {@link #displayApplicants(PrintStream, Applicant)} 
      * on each applicant in the list.
      *
+     * @param out the stream to print to
      * @param applicants the list of applicants to display
      */
-    public static void displayApplicants(List<Applicant> applicants) {
-        applicants.forEach(a -> displayApplicants(a));
+    public static void displayApplicants(PrintStream out, List<Applicant> applicants) {
+        applicants.forEach(a -> displayApplicants(out, a));
     }
 }
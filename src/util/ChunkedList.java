@@ -0,0 +1,176 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list stored in chunks of up to {@value #CHUNK} elements, so that a changed
+ * version shares every chunk it did not change with the version it was made from.
+ *
+ * <p>{@link #plus(Object)} and {@link #minus(Object)} copy only the chunk they change and the
+ * table of chunks, about {@code n / 64 + 64} references instead of the {@code n} a full copy
+ * takes, which lets a table publish a new version on every write. Reading an element by index
+ * takes O(log(n / 64)), and iteration walks the chunks directly. The list refuses every
+ * mutator of {@link java.util.List}.</p>
+ *
+ * @param <E> the type of the elements
+ */
+public final class ChunkedList<E> extends AbstractList<E> implements RandomAccess {
+    private static final int CHUNK = 64;
+    private static final ChunkedList<?> EMPTY = new ChunkedList<>(new Object[0][], new int[0]);
+
+    private final Object[][] chunks;
+    // ends[c] is the index one past the last element of chunk c
+    private final int[] ends;
+
+    private ChunkedList(Object[][] chunks, int[] ends) {
+        this.chunks = chunks;
+        this.ends = ends;
+    }
+
+    /**
+     * Returns the empty list.
+     *
+     * @param <E> the type of the elements
+     * @return the empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> ChunkedList<E> of() {
+        return (ChunkedList<E>) EMPTY;
+    }
+
+    /**
+     * Returns a list holding the elements of a collection, in its iteration order.
+     *
+     * @param elements the elements
+     * @param <E>      the type of the elements
+     * @return the list
+     */
+    public static <E> ChunkedList<E> copyOf(Collection<? extends E> elements) {
+        Object[] all = elements.toArray();
+        int count = (all.length + CHUNK - 1) / CHUNK;
+        Object[][] chunks = new Object[count][];
+        int[] ends = new int[count];
+        for (int c = 0; c < count; c++) {
+            int from = c * CHUNK;
+            ends[c] = Math.min(from + CHUNK, all.length);
+            chunks[c] = Arrays.copyOfRange(all, from, ends[c]);
+        }
+        return new ChunkedList<>(chunks, ends);
+    }
+
+    /**
+     * Returns a list with an element appended to this one.
+     *
+     * @param element the element to append
+     * @return the new list
+     */
+    public ChunkedList<E> plus(E element) {
+        int last = chunks.length - 1;
+        if (last >= 0 && chunks[last].length < CHUNK) {
+            Object[][] grown = chunks.clone();
+            Object[] chunk = Arrays.copyOf(chunks[last], chunks[last].length + 1);
+            chunk[chunk.length - 1] = element;
+            grown[last] = chunk;
+            int[] grownEnds = ends.clone();
+            grownEnds[last]++;
+            return new ChunkedList<>(grown, grownEnds);
+        }
+        Object[][] grown = Arrays.copyOf(chunks, chunks.length + 1);
+        grown[chunks.length] = new Object[] {element};
+        int[] grownEnds = Arrays.copyOf(ends, ends.length + 1);
+        grownEnds[chunks.length] = size() + 1;
+        return new ChunkedList<>(grown, grownEnds);
+    }
+
+    /**
+     * Returns a list without the first element equal to the given one.
+     *
+     * @param element the element to remove
+     * @return the new list, or this list if it does not contain the element
+     */
+    public ChunkedList<E> minus(Object element) {
+        for (int c = 0; c < chunks.length; c++) {
+            Object[] chunk = chunks[c];
+            for (int i = 0; i < chunk.length; i++) {
+                if (Objects.equals(chunk[i], element)) {
+                    return without(c, i);
+                }
+            }
+        }
+        return this;
+    }
+
+    private ChunkedList<E> without(int c, int i) {
+        Object[] chunk = chunks[c];
+        if (chunk.length == 1) {
+            // Drop the emptied chunk
+            Object[][] shrunk = new Object[chunks.length - 1][];
+            System.arraycopy(chunks, 0, shrunk, 0, c);
+            System.arraycopy(chunks, c + 1, shrunk, c, chunks.length - c - 1);
+            int[] shrunkEnds = new int[ends.length - 1];
+            System.arraycopy(ends, 0, shrunkEnds, 0, c);
+            for (int k = c; k < shrunkEnds.length; k++) {
+                shrunkEnds[k] = ends[k + 1] - 1;
+            }
+            return new ChunkedList<>(shrunk, shrunkEnds);
+        }
+        Object[] smaller = new Object[chunk.length - 1];
+        System.arraycopy(chunk, 0, smaller, 0, i);
+        System.arraycopy(chunk, i + 1, smaller, i, chunk.length - i - 1);
+        Object[][] shrunk = chunks.clone();
+        shrunk[c] = smaller;
+        int[] shrunkEnds = ends.clone();
+        for (int k = c; k < shrunkEnds.length; k++) {
+            shrunkEnds[k]--;
+        }
+        return new ChunkedList<>(shrunk, shrunkEnds);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size());
+        // The first chunk that ends after the index holds it
+        int c = Arrays.binarySearch(ends, index + 1);
+        c = c >= 0 ? c : -c - 1;
+        return (E) chunks[c][index - (c == 0 ? 0 : ends[c - 1])];
+    }
+
+    @Override
+    public int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int c;
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return c < chunks.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (c >= chunks.length) {
+                    throw new NoSuchElementException();
+                }
+                E element = (E) chunks[c][i];
+                if (++i == chunks[c].length) {
+                    c++;
+                    i = 0;
+                }
+                return element;
+            }
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package util;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * A union of inclusive date ranges, kept as sorted, disjoint ranges.
+ *
+ * <p>Ranges that overlap or touch are merged when added, so the starts and the ends are both in
+ * ascending order and checking a window takes one binary search, O(log n). Adding a range takes
+ * O(n). Overlap follows {@link DateUtil#hasDateOverlap}: both ends are inclusive.</p>
+ */
+public class DateRanges {
+    private long[] starts = new long[4];
+    private long[] ends = new long[4];
+    private int size;
+
+    /**
+     * Adds a range to the union. A range with a missing date is ignored, since it cannot
+     * overlap anything.
+     *
+     * @param start the first day of the range
+     * @param end   the last day of the range
+     */
+    public void add(LocalDate start, LocalDate end) {
+        if (start == null || end == null) {
+            return;
+        }
+        add(start.toEpochDay(), end.toEpochDay());
+    }
+
+    /**
+     * Adds a range of epoch days to the union.
+     *
+     * @param start the first epoch day of the range
+     * @param end   the last epoch day of the range
+     */
+    void add(long start, long end) {
+        if (end < start) {
+            return;
+        }
+        // Ranges first..last - 1 overlap or touch the new one and are merged into it
+        int first = firstEndingAtOrAfter(start - 1);
+        int last = first;
+        while (last < size && starts[last] <= end + 1) {
+            start = Math.min(start, starts[last]);
+            end = Math.max(end, ends[last]);
+            last++;
+        }
+        int shift = 1 - (last - first);
+        if (size + shift > starts.length) {
+            starts = Arrays.copyOf(starts, Math.max(starts.length * 2, size + shift));
+            ends = Arrays.copyOf(ends, starts.length);
+        }
+        System.arraycopy(starts, last, starts, first + 1, size - last);
+        System.arraycopy(ends, last, ends, first + 1, size - last);
+        starts[first] = start;
+        ends[first] = end;
+        size += shift;
+    }
+
+    /**
+     * Checks whether any range of the union overlaps a window.
+     *
+     * @param from the first day of the window
+     * @param to   the last day of the window
+     * @return true if at least one range overlaps
+     */
+    public boolean overlaps(LocalDate from, LocalDate to) {
+        // The first range that ends on or after the window starts is the only candidate
+        int i = firstEndingAtOrAfter(from.toEpochDay());
+        return i < size && starts[i] <= to.toEpochDay();
+    }
+
+    /**
+     * Returns the number of disjoint ranges.
+     *
+     * @return the number of ranges
+     */
+    public int size() {
+        return size;
+    }
+
+    private int firstEndingAtOrAfter(long day) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ends[mid] < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
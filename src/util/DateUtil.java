@@ -1,5 +1,6 @@
 package util;
 
+import java.time.Clock;
 import java.time.LocalDate;
 
 /**
@@ -7,14 +8,35 @@ import java.time.LocalDate;
  * checking if a date is within a given project period, and detecting date range overlaps.
  */
 public class DateUtil {
+    private static volatile Clock clock = Clock.systemDefaultZone();
 
     /**
-     * Returns the current system date.
+     * Returns the current date according to the clock in use, which is the system clock unless
+     * another one was set with {@link #setClock(Clock)}.
      *
      * @return the current date as {@link LocalDate}
      */
     public static LocalDate getCurrentDate() {
-        return LocalDate.now();
+        return LocalDate.now(clock);
+    }
+
+    /**
+     * Replaces the clock that determines the current date, e.g. with a fixed or offset clock so that
+     * tests can move time forward and see projects open and close.
+     *
+     * @param clock the clock to use
+     */
+    public static void setClock(Clock clock) {
+        DateUtil.clock = clock;
+    }
+
+    /**
+     * Returns the clock that determines the current date.
+     *
+     * @return the clock in use
+     */
+    public static Clock getClock() {
+        return clock;
     }
 
     /**
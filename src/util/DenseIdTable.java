@@ -0,0 +1,130 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A table of values keyed by int IDs that are handed out in increasing order, stored in an array
+ * indexed by the ID minus the smallest ID.
+ *
+ * <p>Looking up, adding and removing a value takes O(1) without boxing the ID. The array spans
+ * every ID between the smallest and the largest one stored, so the table suits IDs drawn from a
+ * counter, where the gaps are only the IDs of removed values. Iteration visits the values in ID
+ * order.</p>
+ *
+ * @param <T> the type of the values
+ */
+public class DenseIdTable<T> {
+    private Object[] slots = new Object[16];
+    private int base;
+    private int end;
+    private int size;
+
+    /**
+     * Returns the value with an ID.
+     *
+     * @param id the ID
+     * @return the value, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int id) {
+        long slot = (long) id - base;
+        return slot >= 0 && slot < end ? (T) slots[(int) slot] : null;
+    }
+
+    /**
+     * Stores a value under an ID, replacing the value stored under it before.
+     *
+     * @param id    the ID
+     * @param value the value, not null
+     * @return the replaced value, or null if there was none
+     */
+    public T put(int id, T value) {
+        if (size == 0) {
+            base = id; // every slot is empty, so the array can start anywhere
+        } else if (id < base) {
+            // Shift the stored values up to make room below them
+            int shift = base - id;
+            Object[] grown = new Object[Math.max(slots.length, end + shift)];
+            System.arraycopy(slots, 0, grown, shift, end);
+            slots = grown;
+            base = id;
+            end += shift;
+        }
+        int slot = id - base;
+        if (slot >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(slots.length * 2, slot + 1));
+        }
+        T previous = get(id);
+        slots[slot] = value;
+        end = Math.max(end, slot + 1);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the value with an ID.
+     *
+     * @param id the ID
+     * @return the removed value, or null if there was none
+     */
+    public T remove(int id) {
+        T previous = get(id);
+        if (previous != null) {
+            slots[id - base] = null;
+            size--;
+            // Trim trailing gaps so that iteration stops at the largest stored ID
+            while (end > 0 && slots[end - 1] == null) {
+                end--;
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return the value count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the table holds no values.
+     *
+     * @return true if the table is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every value.
+     */
+    public void clear() {
+        slots = new Object[16];
+        base = 0;
+        end = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns every value in ID order.
+     *
+     * @return a new list of the values
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> values() {
+        List<T> result = new ArrayList<>(size);
+        for (int i = 0; i < end; i++) {
+            if (slots[i] != null) {
+                result.add((T) slots[i]);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,309 @@
+package util;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An augmented interval tree mapping values to inclusive date ranges.
+ *
+ * <p>The tree is an AVL tree ordered by start date, in which every node also stores the latest
+ * end date in its subtree. That bound lets a query skip every subtree that ends before the
+ * queried window, so finding the k values that overlap a window takes O(log n + k), and adding,
+ * moving or removing a value takes O(log n). Each value is held at most once; values are
+ * compared by identity. Overlap follows {@link DateUtil#hasDateOverlap}: both ends are inclusive.</p>
+ *
+ * @param <T> the type of the values
+ */
+public class IntervalTree<T> {
+
+    private static final class Node<T> {
+        final long start;
+        final long end;
+        final long sequence;
+        final T value;
+        long maxEnd;
+        int height = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(long start, long end, long sequence, T value) {
+            this.start = start;
+            this.end = end;
+            this.sequence = sequence;
+            this.value = value;
+            this.maxEnd = end;
+        }
+    }
+
+    private final Map<T, Node<T>> nodes = new IdentityHashMap<>();
+    private Node<T> root;
+    private long nextSequence;
+
+    /**
+     * Adds a value with the given range, or moves it to that range if it is already in the tree.
+     * A value with a missing date is removed instead, since it cannot overlap anything.
+     *
+     * @param value the value
+     * @param start the first day of the range
+     * @param end   the last day of the range
+     */
+    public void put(T value, LocalDate start, LocalDate end) {
+        remove(value);
+        if (start == null || end == null) {
+            return;
+        }
+        // The sequence number orders values that share a start date
+        Node<T> node = new Node<>(start.toEpochDay(), end.toEpochDay(), nextSequence++, value);
+        nodes.put(value, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes a value.
+     *
+     * @param value the value to remove
+     * @return true if the value was in the tree
+     */
+    public boolean remove(T value) {
+        Node<T> node = nodes.remove(value);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node);
+        return true;
+    }
+
+    /**
+     * Checks whether a value is in the tree.
+     *
+     * @param value the value
+     * @return true if the value was added and not removed since
+     */
+    public boolean contains(T value) {
+        return nodes.containsKey(value);
+    }
+
+    /**
+     * Returns the number of values in the tree.
+     *
+     * @return the value count
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Checks whether the tree holds no values.
+     *
+     * @return true if the tree is empty
+     */
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * Removes every value.
+     */
+    public void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    /**
+     * Finds the values whose range overlaps a window.
+     *
+     * @param from the first day of the window
+     * @param to   the last day of the window
+     * @return the overlapping values, ordered by start date
+     */
+    public List<T> findOverlapping(LocalDate from, LocalDate to) {
+        List<T> result = new ArrayList<>();
+        collect(root, from.toEpochDay(), to.toEpochDay(), result);
+        return result;
+    }
+
+    /**
+     * Checks whether any value's range overlaps a window.
+     *
+     * @param from the first day of the window
+     * @param to   the last day of the window
+     * @return true if at least one value overlaps
+     */
+    public boolean overlaps(LocalDate from, LocalDate to) {
+        long lo = from.toEpochDay();
+        long hi = to.toEpochDay();
+        Node<T> node = root;
+        while (node != null) {
+            if (node.start <= hi && node.end >= lo) {
+                return true;
+            }
+            // If the left subtree ends late enough, any overlap is in it or there is none at all:
+            // an interval there that misses the window starts after it, as does everything to the right
+            if (node.left != null && node.left.maxEnd >= lo) {
+                node = node.left;
+            } else if (node.start <= hi) {
+                node = node.right;
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns every value, ordered by start date.
+     *
+     * @return the values
+     */
+    public List<T> values() {
+        List<T> result = new ArrayList<>(nodes.size());
+        collect(root, Long.MIN_VALUE, Long.MAX_VALUE, result);
+        return result;
+    }
+
+    private void collect(Node<T> node, long lo, long hi, List<T> result) {
+        if (node == null || node.maxEnd < lo) {
+            return;
+        }
+        collect(node.left, lo, hi, result);
+        if (node.start > hi) {
+            return; // everything to the right starts even later
+        }
+        if (node.end >= lo) {
+            result.add(node.value);
+        }
+        collect(node.right, lo, hi, result);
+    }
+
+    /**
+     * Returns the union of the ranges of every value, e.g. to check many windows against the
+     * tree without querying it once per window.
+     *
+     * @return the union of the ranges
+     */
+    public DateRanges union() {
+        DateRanges union = new DateRanges();
+        addRanges(root, union);
+        return union;
+    }
+
+    private static <T> void addRanges(Node<T> node, DateRanges union) {
+        if (node == null) {
+            return;
+        }
+        // In order of start date, so every range is added at the end of the union
+        addRanges(node.left, union);
+        union.add(node.start, node.end);
+        addRanges(node.right, union);
+    }
+
+    private static <T> int compare(Node<T> a, Node<T> b) {
+        if (a.start != b.start) {
+            return Long.compare(a.start, b.start);
+        }
+        return Long.compare(a.sequence, b.sequence);
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private Node<T> delete(Node<T> node, Node<T> removed) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(removed, node);
+        if (c < 0) {
+            node.left = delete(node.left, removed);
+        } else if (c > 0) {
+            node.right = delete(node.right, removed);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Replace the node by its successor
+            Node<T> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node<T> deleteMin(Node<T> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    private Node<T> balance(Node<T> node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static <T> void update(Node<T> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    private static <T> int height(Node<T> node) {
+        return node == null ? 0 : node.height;
+    }
+}
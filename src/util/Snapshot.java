@@ -0,0 +1,137 @@
+package util;
+
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A consistent, read-only point in time of the versioned data, so that a report or listing
+ * reads every value as of the same moment without blocking writers.
+ *
+ * <p>Every change to versioned data is stamped from one global clock and published as a new
+ * version by {@link VersionChain}. Opening a snapshot pins the current stamp and makes it the
+ * snapshot of the current thread until it is closed: while it is open, versioned values read on
+ * that thread are the newest ones stamped no later than the pinned stamp, and changes published
+ * since are invisible. Old versions are kept only as long as an open snapshot may still read
+ * them. Opening a snapshot while one is already open on the thread reuses the outer stamp, so a
+ * report that calls other readers stays consistent.</p>
+ *
+ * <p>Use it through {@link #read(Supplier)} or {@link #run(Runnable)}, or with try-with-resources,
+ * and only around reading: a thread that changes data while its snapshot is open does not see
+ * its own change.</p>
+ */
+public final class Snapshot implements AutoCloseable {
+    private static final AtomicLong clock = new AtomicLong(); // the stamp of the newest published version
+    private static final Object lock = new Object(); // guards pinned
+    private static final TreeMap<Long, Integer> pinned = new TreeMap<>();
+    private static volatile long horizon = Long.MAX_VALUE;
+    private static final ThreadLocal<Snapshot> current = new ThreadLocal<>();
+
+    private final long stamp;
+    private final Snapshot outer;
+    private boolean closed;
+
+    private Snapshot(long stamp, Snapshot outer) {
+        this.stamp = stamp;
+        this.outer = outer;
+    }
+
+    /**
+     * Pins the current state of the versioned data for the current thread.
+     *
+     * @return the snapshot, to be closed when the reading is done
+     */
+    public static Snapshot open() {
+        Snapshot outer = current.get();
+        long stamp;
+        synchronized (lock) {
+            stamp = outer != null ? outer.stamp : clock.get();
+            pinned.merge(stamp, 1, Integer::sum);
+            horizon = pinned.firstKey();
+        }
+        Snapshot snapshot = new Snapshot(stamp, outer);
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Runs a read with a snapshot open, so that everything it reads is as of the same moment.
+     *
+     * @param reader the read to run
+     * @param <T>    the type of the result
+     * @return the result of the read
+     */
+    public static <T> T read(Supplier<T> reader) {
+        Snapshot snapshot = open();
+        try {
+            return reader.get();
+        } finally {
+            snapshot.close();
+        }
+    }
+
+    /**
+     * Runs a read without a result, e.g. one that prints what it reads, with a snapshot open.
+     *
+     * @param reader the read to run
+     */
+    public static void run(Runnable reader) {
+        read(() -> {
+            reader.run();
+            return null;
+        });
+    }
+
+    /**
+     * Unpins the snapshot, so that the versions only it could read can be dropped, and restores
+     * the snapshot that was open on the thread before, if any.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        synchronized (lock) {
+            if (pinned.merge(stamp, -1, Integer::sum) == 0) {
+                pinned.remove(stamp);
+            }
+            horizon = pinned.isEmpty() ? Long.MAX_VALUE : pinned.firstKey();
+        }
+        if (outer == null) {
+            current.remove();
+        } else {
+            current.set(outer);
+        }
+    }
+
+    /**
+     * Returns the stamp the current thread reads at.
+     *
+     * @return the stamp of the thread's open snapshot, or {@code Long.MAX_VALUE} to read the newest versions
+     */
+    static long readStamp() {
+        Snapshot snapshot = current.get();
+        return snapshot == null ? Long.MAX_VALUE : snapshot.stamp;
+    }
+
+    /**
+     * Returns the oldest stamp an open snapshot may read at.
+     *
+     * @return the oldest pinned stamp, or {@code Long.MAX_VALUE} if no snapshot is open
+     */
+    static long horizon() {
+        return horizon;
+    }
+
+    /**
+     * Advances the clock and returns the stamp of a version that was just installed. Versions are
+     * installed before they are stamped, so a snapshot opened at the new stamp always finds the
+     * version, and one opened earlier sees a stamp later than its own.
+     *
+     * @return the new stamp
+     */
+    static long nextStamp() {
+        return clock.incrementAndGet();
+    }
+}
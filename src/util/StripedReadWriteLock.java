@@ -0,0 +1,50 @@
+package util;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A fixed set of read/write locks shared by keys, so that changes to entities with different keys
+ * usually take different locks and run in parallel, while changes to the same entity are
+ * serialized.
+ *
+ * <p>Each key maps to one of the stripes by its hash code. Two keys may share a stripe, which only
+ * costs some parallelism, never correctness. The number of stripes is fixed, so the memory used
+ * does not grow with the number of entities. A thread must not hold the locks of two keys at
+ * once, since the keys may map to stripes in either order.</p>
+ */
+public class StripedReadWriteLock {
+    private final ReadWriteLock[] stripes;
+
+    /**
+     * Creates a set of lock stripes.
+     *
+     * @param stripes the minimum number of stripes; rounded up to a power of two
+     */
+    public StripedReadWriteLock(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Creates a set of lock stripes sized for the processors of this machine.
+     */
+    public StripedReadWriteLock() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Returns the lock guarding a key.
+     *
+     * @param key the key, e.g. an NRIC, an enquiry ID or an entity
+     * @return the read/write lock of the key's stripe
+     */
+    public ReadWriteLock get(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16; // spread the high bits, as small keys differ only in the low ones
+        return stripes[hash & (stripes.length - 1)];
+    }
+}
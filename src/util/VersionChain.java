@@ -0,0 +1,121 @@
+package util;
+
+/**
+ * The published versions of one value, newest first, so that readers with an open
+ * {@link Snapshot} keep reading the version of their snapshot while writers publish new ones.
+ *
+ * <p>Each version is immutable and stamped when it is published. {@link #get()} walks from the
+ * newest version to the first one the current thread's snapshot can see, which is usually the
+ * first or second. After publishing, versions that no open snapshot can read any more are
+ * unlinked, so a chain holds a single version while no snapshot is open.</p>
+ *
+ * <p>Publishing takes no shared lock: a version is installed first and stamped from the global
+ * clock right after, and a snapshot reader that meets a version in between waits for its stamp.
+ * Calls to {@link #set(Object)} on one chain must be serialized by the caller, e.g. by the lock
+ * that guards the value, so that the order of the versions matches the order of their stamps.</p>
+ *
+ * @param <S> the type of the versioned value, which must not be modified once published
+ */
+public class VersionChain<S> {
+    /** The stamp of a version that is installed but not stamped yet. */
+    private static final long PENDING = -1;
+
+    private static final class Version<S> {
+        final S value;
+        volatile long stamp;
+        volatile Version<S> previous;
+
+        Version(S value, long stamp, Version<S> previous) {
+            this.value = value;
+            this.stamp = stamp;
+            this.previous = previous;
+        }
+
+        /**
+         * Returns the stamp, waiting for the writer that installed the version to stamp it.
+         */
+        long awaitStamp() {
+            long current;
+            while ((current = stamp) == PENDING) {
+                Thread.onSpinWait();
+            }
+            return current;
+        }
+    }
+
+    private volatile Version<S> head;
+
+    /**
+     * Creates a chain whose first version is published now, so snapshots opened earlier do not
+     * see the value at all.
+     *
+     * @param initial the first version
+     */
+    public VersionChain(S initial) {
+        Version<S> version = new Version<>(initial, PENDING, null);
+        head = version;
+        version.stamp = Snapshot.nextStamp();
+    }
+
+    private VersionChain(Version<S> head) {
+        this.head = head;
+    }
+
+    /**
+     * Creates a chain whose first version is visible to every snapshot, e.g. for a table that
+     * exists from the start.
+     *
+     * @param initial the first version
+     * @param <S>     the type of the value
+     * @return the chain
+     */
+    public static <S> VersionChain<S> always(S initial) {
+        return new VersionChain<>(new Version<>(initial, 0, null));
+    }
+
+    /**
+     * Returns the version the current thread reads: the newest one, or the one of its open snapshot.
+     *
+     * @return the value, or null if it did not exist yet at the thread's snapshot
+     */
+    public S get() {
+        long stamp = Snapshot.readStamp();
+        Version<S> version = head;
+        if (stamp == Long.MAX_VALUE) {
+            return version.value; // no snapshot open; a version being stamped is already the newest
+        }
+        while (version != null && version.awaitStamp() > stamp) {
+            version = version.previous;
+        }
+        return version == null ? null : version.value;
+    }
+
+    /**
+     * Returns the newest version, regardless of the current thread's snapshot.
+     *
+     * @return the newest value
+     */
+    public S latest() {
+        return head.value;
+    }
+
+    /**
+     * Publishes a new version. Calls on the same chain must not run concurrently.
+     *
+     * @param value the new value, which must not be modified afterwards
+     */
+    public void set(S value) {
+        Version<S> published = new Version<>(value, PENDING, head);
+        head = published;
+        published.stamp = Snapshot.nextStamp();
+        // Every open snapshot reads at or after the horizon, so the first version at or before it
+        // is the oldest one still needed
+        long horizon = Snapshot.horizon();
+        for (Version<S> version = published; version != null; version = version.previous) {
+            if (version.stamp <= horizon) {
+                version.previous = null;
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package Service;
+
+import Database.ApplicationDatabase;
+import Entity.Applicant;
+import Entity.Application;
+import Entity.FlatType;
+import Entity.HDBManager;
+import Entity.HDBOfficer;
+import Entity.Project;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test of flat booking: many threads book units of one flat type at the same time, and
+ * the test checks that no unit is sold twice and the number of units never goes negative, i.e.
+ * that the units left plus the units booked always equal the units there were. Approving the
+ * withdrawal of every booking must then return all units.
+ *
+ * <p>Runs without a test framework and exits with status 1 on the first failure. From the
+ * project root: {@code javac -d out $(find src test -name "*.java")}, then
+ * {@code java -cp out Service.BookingStressTest}.</p>
+ */
+public class BookingStressTest {
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 50;
+    private static final int UNITS = 40;
+    private static final int APPLICANTS = 100;
+
+    private static int failures;
+
+    /**
+     * Runs both stress tests and reports the result.
+     *
+     * @param args not used
+     * @throws Exception if a booking thread fails unexpectedly
+     */
+    public static void main(String[] args) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                reserveConcurrently(pool, round);
+                bookConcurrently(pool, round);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        if (failures > 0) {
+            System.out.println("BookingStressTest: " + failures + " failure(s)");
+            System.exit(1);
+        }
+        System.out.println("BookingStressTest: " + ROUNDS + " rounds passed");
+    }
+
+    /**
+     * Every thread takes units from one project until none is left.
+     */
+    private static void reserveConcurrently(ExecutorService pool, int round) throws Exception {
+        Project project = newProject("Reserve " + round);
+        AtomicInteger taken = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(pool.submit(() -> {
+                start.await();
+                while (project.tryReserve(Application.FlatType.TWO_ROOM)) {
+                    taken.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+
+        int left = project.getUnits(Application.FlatType.TWO_ROOM);
+        check(left == 0, "round " + round + ": " + left + " units left after reserving until none was left");
+        check(left + taken.get() == UNITS, "round " + round + ": " + left + " left + " + taken.get()
+                + " taken != " + UNITS + " units");
+    }
+
+    /**
+     * More applicants than units are booked by several officer threads at once, each applicant
+     * by two threads, through the same path the officer menu uses.
+     */
+    private static void bookConcurrently(ExecutorService pool, int round) throws Exception {
+        Project project = newProject("Book " + round);
+        HDBOfficer officer = new HDBOfficer("Officer " + round, "O" + round, 30, "Single", "password");
+        officer.setProjectHandling(project);
+        OfficerService officerService = new OfficerService(officer);
+
+        List<Application> applications = new ArrayList<>();
+        for (int i = 0; i < APPLICANTS; i++) {
+            Applicant applicant = new Applicant("Applicant " + i, String.format("R%03dA%03d", round, i), 35, "Married", "password");
+            Application application = new Application(applicant, project, Application.ApplicationStatus.SUCCESSFUL,
+                    Application.FlatType.TWO_ROOM);
+            ApplicationDatabase.getInstance().addApplication(application);
+            applications.add(application);
+        }
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int first = t;
+            tasks.add(pool.submit(() -> {
+                start.await();
+                // Thread t books every applicant i with i % (THREADS / 2) == t % (THREADS / 2)
+                for (int i = first % (THREADS / 2); i < APPLICANTS; i += THREADS / 2) {
+                    try {
+                        officerService.bookApplication(applications.get(i).getUser().getNric(), project);
+                        booked.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        refused.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+
+        int left = project.getUnits(Application.FlatType.TWO_ROOM);
+        long bookedApplications = applications.stream()
+                .filter(a -> a.getStatus() == Application.ApplicationStatus.BOOKED)
+                .count();
+        check(left >= 0, "round " + round + ": units went negative (" + left + ")");
+        check(left + bookedApplications == UNITS, "round " + round + ": " + left + " left + "
+                + bookedApplications + " booked != " + UNITS + " units");
+        check(booked.get() == bookedApplications, "round " + round + ": " + booked.get()
+                + " bookings succeeded but " + bookedApplications + " applications are booked");
+        check(bookedApplications == Math.min(UNITS, APPLICANTS), "round " + round + ": only "
+                + bookedApplications + " of " + Math.min(UNITS, APPLICANTS) + " possible bookings were made");
+        check(booked.get() + refused.get() == 2 * APPLICANTS, "round " + round + ": "
+                + (2 * APPLICANTS - booked.get() - refused.get()) + " booking attempts neither succeeded nor failed");
+
+        withdrawConcurrently(pool, round, project, applications);
+    }
+
+    /**
+     * Several manager threads approve the withdrawal of every application at once, which must
+     * return each booked unit exactly once.
+     */
+    private static void withdrawConcurrently(ExecutorService pool, int round, Project project,
+                                             List<Application> applications) throws Exception {
+        ManagerService managerService = new ManagerService(project.getManager());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int first = t;
+            tasks.add(pool.submit(() -> {
+                start.await();
+                for (int i = first; i < APPLICANTS; i += THREADS) {
+                    Application application = applications.get(i);
+                    application.setWithdrawal(true);
+                    managerService.approveWithdrawal(application);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+
+        int left = project.getUnits(Application.FlatType.TWO_ROOM);
+        check(left == UNITS, "round " + round + ": " + left + " units left after withdrawing every booking, not " + UNITS);
+    }
+
+    private static Project newProject(String name) {
+        HDBManager manager = new HDBManager("Manager", "M0000000A", 40, "Married", "password");
+        List<FlatType> flatTypes = new ArrayList<>();
+        flatTypes.add(new FlatType(Application.FlatType.TWO_ROOM.getLabel(), UNITS, 100000));
+        flatTypes.add(new FlatType(Application.FlatType.THREE_ROOM.getLabel(), 0, 200000));
+        return new Project(name, "Yishun", flatTypes, LocalDate.now().minusDays(1), LocalDate.now().plusDays(30),
+                manager, 3, new ArrayList<>());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            failures++;
+            System.out.println("FAILED: " + message);
+        }
+    }
+}
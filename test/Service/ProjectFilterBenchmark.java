@@ -0,0 +1,226 @@
+package Service;
+
+import Entity.Application;
+import Entity.FilterSettings;
+import Entity.FlatType;
+import Entity.HDBManager;
+import Entity.Project;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark of the {@link ProjectFilter} predicate against the stream chain that
+ * {@link ProjectService#applyFilters} once ran, one {@code stream().filter().collect()} pass per
+ * criterion. Both are timed on the same random projects at 10k, 100k and 1M projects, for a broad
+ * filter and a selective one, after checking that they return the same projects.
+ *
+ * <p>The projects are not stored in the database, which is exactly the case the predicate still
+ * serves: stored projects are matched through the indexes of the project database instead.</p>
+ *
+ * <p>Runs without a test framework and exits with status 1 if the results differ. From the
+ * project root: {@code javac -d out $(find src test -name "*.java")}, then
+ * {@code java -Xmx2g -cp out Service.ProjectFilterBenchmark}.</p>
+ */
+public class ProjectFilterBenchmark {
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+    private static final String[] NEIGHBOURHOODS = {"Yishun", "Boon Lay", "Tampines", "Punggol", "Bedok",
+            "Jurong West", "Sengkang", "Woodlands", "Ang Mo Kio", "Queenstown"};
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+    /** Filter calls timed per size, so that every size filters about the same number of projects. */
+    private static final long PROJECTS_PER_SIZE = 20_000_000;
+
+    private static long sink; // keeps the results alive, so no run is optimized away
+
+    /**
+     * Runs the benchmark and prints one line per size and filter.
+     *
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        List<FilterSettings> filters = List.of(broadFilter(), selectiveFilter());
+        List<String> names = List.of("broad", "selective");
+        boolean same = true;
+
+        System.out.printf("%-10s %-10s %9s %14s %14s %8s%n", "projects", "filter", "matches", "streams (ms)", "fused (ms)", "speedup");
+        for (int size : SIZES) {
+            List<Project> projects = randomProjects(size, new Random(size));
+            for (int f = 0; f < filters.size(); f++) {
+                FilterSettings settings = filters.get(f);
+                List<Project> expected = streamChain(projects, settings);
+                List<Project> actual = compiled(projects, settings);
+                if (!expected.equals(actual)) {
+                    System.out.println("FAILED: " + names.get(f) + " filter over " + size + " projects: "
+                            + actual.size() + " matches instead of " + expected.size());
+                    same = false;
+                    continue;
+                }
+
+                int runs = (int) Math.max(5, PROJECTS_PER_SIZE / size);
+                double streams = time(runs, () -> sink += streamChain(projects, settings).size());
+                double fused = time(runs, () -> sink += compiled(projects, settings).size());
+                System.out.printf("%-10d %-10s %9d %14.3f %14.3f %7.1fx%n",
+                        size, names.get(f), expected.size(), streams, fused, streams / fused);
+            }
+        }
+        if (!same) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the median time of one run in milliseconds, after as many warm-up runs.
+     */
+    private static double time(int runs, Runnable run) {
+        for (int i = 0; i < runs; i++) {
+            run.run();
+        }
+        long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            run.run();
+            times[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[runs / 2] / 1e6;
+    }
+
+    /**
+     * A filter that most projects pass: only a price range and an open flat type.
+     */
+    private static FilterSettings broadFilter() {
+        FilterSettings settings = new FilterSettings();
+        settings.setFlatType(Application.FlatType.TWO_ROOM.getLabel());
+        settings.setMinPrice(150_000);
+        settings.setMaxPrice(600_000);
+        return settings;
+    }
+
+    /**
+     * A filter that sets every criterion and that few projects pass.
+     */
+    private static FilterSettings selectiveFilter() {
+        FilterSettings settings = new FilterSettings();
+        settings.setNeighbourhood("tampines");
+        settings.setFlatType(Application.FlatType.THREE_ROOM.getLabel());
+        settings.setMinPrice(200_000);
+        settings.setMaxPrice(500_000);
+        settings.setMinAvailableUnits(20);
+        settings.setHasOfficerSlots(true);
+        settings.setStartDate(BASE.plusDays(30));
+        settings.setEndDate(BASE.plusDays(330));
+        return settings;
+    }
+
+    private static List<Project> randomProjects(int count, Random random) {
+        HDBManager manager = new HDBManager("Manager", "M0000000A", 40, "Married", "password");
+        List<Project> projects = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<FlatType> flatTypes = new ArrayList<>();
+            flatTypes.add(new FlatType(Application.FlatType.TWO_ROOM.getLabel(), random.nextInt(4) == 0 ? 0 : random.nextInt(100),
+                    100_000 + random.nextInt(300_000)));
+            flatTypes.add(new FlatType(Application.FlatType.THREE_ROOM.getLabel(), random.nextInt(4) == 0 ? 0 : random.nextInt(100),
+                    200_000 + random.nextInt(400_000)));
+            LocalDate opening = BASE.plusDays(random.nextInt(365));
+            projects.add(new Project("Project " + i, NEIGHBOURHOODS[random.nextInt(NEIGHBOURHOODS.length)], flatTypes,
+                    opening, opening.plusDays(30 + random.nextInt(90)), manager, random.nextInt(4), new ArrayList<>()));
+        }
+        return projects;
+    }
+
+    /**
+     * Collects the projects that pass the compiled filter in a single pass, as {@link ProjectService}
+     * does for projects that are not stored in the database.
+     */
+    private static List<Project> compiled(List<Project> projects, FilterSettings filterSettings) {
+        ProjectFilter filter = ProjectFilter.compile(filterSettings);
+        List<Project> matches = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            if (filter.test(project)) {
+                matches.add(project);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * The filter of {@link ProjectService#applyFilters} before it was fused: a copy of the input,
+     * then one stream pass per criterion that is set.
+     */
+    private static List<Project> streamChain(List<Project> projects, FilterSettings filterSettings) {
+        List<Project> filteredProjects = new ArrayList<>(projects);
+
+        // Filter by neighbourhood
+        if (filterSettings.getNeighbourhood() != null) {
+            filteredProjects = filteredProjects.stream()
+                    .filter(p -> p.getNeighbourhood().equalsIgnoreCase(filterSettings.getNeighbourhood()))
+                    .collect(Collectors.toList());
+        }
+
+        // Filter by flat type availability
+        Application.FlatType flatType = Application.FlatType.fromLabel(filterSettings.getFlatType());
+        if (flatType != null) {
+            filteredProjects = filteredProjects.stream()
+                    .filter(p -> p.getUnits(flatType) > 0)
+                    .collect(Collectors.toList());
+        }
+
+        // Filter by minimum price
+        if (filterSettings.getMinPrice() != null) {
+            final int minPrice = filterSettings.getMinPrice();
+            filteredProjects = filteredProjects.stream()
+                    .filter(p -> p.get2RoomPrice() >= minPrice || p.get3RoomPrice() >= minPrice)
+                    .collect(Collectors.toList());
+        }
+
+        // Filter by maximum price
+        if (filterSettings.getMaxPrice() != null) {
+            final int maxPrice = filterSettings.getMaxPrice();
+            filteredProjects = filteredProjects.stream()
+                    .filter(p -> p.get2RoomPrice() <= maxPrice || p.get3RoomPrice() <= maxPrice)
+                    .collect(Collectors.toList());
+        }
+
+        // Filter by project opening start date
+        if (filterSettings.getStartDate() != null) {
+            final LocalDate startDate = filterSettings.getStartDate();
+            filteredProjects = filteredProjects.stream()
+                    .filter(p -> !p.getOpeningDate().isBefore(startDate))
+                    .collect(Collectors.toList());
+        }
+
+        // Filter by project closing end date
+        if (filterSettings.getEndDate() != null) {
+            final LocalDate endDate = filterSettings.getEndDate();
+            filteredProjects = filteredProjects.stream()
+                    .filter(p -> !p.getClosingDate().isAfter(endDate))
+                    .collect(Collectors.toList());
+        }
+
+        // Filter by minimum available units
+        if (filterSettings.getMinAvailableUnits() != null) {
+            final int minUnits = filterSettings.getMinAvailableUnits();
+            filteredProjects = filteredProjects.stream()
+                    .filter(p -> p.get2RoomUnits() >= minUnits || p.get3RoomUnits() >= minUnits)
+                    .collect(Collectors.toList());
+        }
+
+        // Filter projects that have available officer slots
+        if (filterSettings.getHasOfficerSlots() != null && filterSettings.getHasOfficerSlots()) {
+            filteredProjects = filteredProjects.stream()
+                    .filter(p -> p.getOfficerSlots() > 0)
+                    .collect(Collectors.toList());
+        }
+
+        if (filterSettings.getHasOfficerSlots() != null && !filterSettings.getHasOfficerSlots()) {
+            filteredProjects = filteredProjects.stream()
+                    .filter(p -> p.getOfficerSlots() == 0)
+                    .collect(Collectors.toList());
+        }
+        return filteredProjects;
+    }
+}